@@ -12,6 +12,7 @@ USE esun_ecommerce;
 -- ============================================
 -- 刪除資料表（注意順序：先刪除子表，再刪除父表）
 -- ============================================
+DROP TABLE IF EXISTS order_idempotency_key;
 DROP TABLE IF EXISTS order_detail;  -- 先刪除子表
 DROP TABLE IF EXISTS `order`;       -- 再刪除父表
 DROP TABLE IF EXISTS product;       -- 最後刪除
@@ -40,7 +41,8 @@ CREATE TABLE `order` (
     pay_status TINYINT NOT NULL DEFAULT 0 COMMENT '付款狀態(0:未付款, 1:已付款)',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新時間',
-    INDEX idx_member_id (member_id),
+    -- 會員訂單游標分頁依 created_at DESC, order_id DESC 排序，每頁只讀取 size 筆（亦涵蓋依 member_id 查詢）
+    INDEX idx_member_created_at (member_id, created_at, order_id),
     INDEX idx_created_at (created_at),
     INDEX idx_pay_status (pay_status)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='訂單表';
@@ -60,4 +62,18 @@ CREATE TABLE order_detail (
     FOREIGN KEY (product_id) REFERENCES product(product_id) ON DELETE RESTRICT,
     INDEX idx_order_id (order_id),
     INDEX idx_product_id (product_id)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='訂單明細表';
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='訂單明細表';
+
+-- ============================================
+-- 4. OrderIdempotencyKey 建立訂單的 Idempotency-Key
+-- ============================================
+CREATE TABLE order_idempotency_key (
+    idempotency_key VARCHAR(100) PRIMARY KEY COMMENT 'Idempotency-Key',
+    member_id VARCHAR(50) NOT NULL COMMENT '會員編號',
+    request_hash CHAR(64) NOT NULL COMMENT '請求內容 SHA-256',
+    order_id VARCHAR(50) NOT NULL COMMENT '訂單編號（登記時預先產生）',
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '狀態(0:處理中, 1:已完成)',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '更新時間',
+    INDEX idx_idempotency_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='建立訂單 Idempotency-Key';
@@ -268,15 +268,23 @@ BEGIN
 
     COMMIT;
 
-    -- 回傳訂單資訊
+    -- 回傳訂單主檔與明細（每個明細一列，建立訂單的回應直接由此組成）
     SELECT
         o.order_id,
         o.member_id,
         o.total_price,
         o.pay_status,
-        o.created_at
+        o.created_at,
+        o.updated_at,
+        od.order_item_sn,
+        od.product_id,
+        od.quantity,
+        od.stand_price,
+        od.item_price
     FROM `order` o
-    WHERE o.order_id = p_order_id;
+    INNER JOIN order_detail od ON o.order_id = od.order_id
+    WHERE o.order_id = p_order_id
+    ORDER BY od.order_item_sn;
 
 END$$
 
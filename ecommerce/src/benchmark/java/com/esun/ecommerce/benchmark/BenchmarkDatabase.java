@@ -0,0 +1,64 @@
+package com.esun.ecommerce.benchmark;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 基準測試用的 H2 記憶體資料庫（MySQL 相容模式）
+ *
+ * 建立與 DB/01_DDL.sql 相同欄位的 product、order、order_detail 資料表
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /* 建立連線池（與正式環境相同的 10 條連線）並建立資料表 */
+    static HikariDataSource create(String name) {
+        // 未啟動 Spring Boot 時 Logback 預設輸出 DEBUG，會拖慢 JDBC 呼叫
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(10);
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS product (product_id VARCHAR(50) PRIMARY KEY, "
+                + "product_name VARCHAR(200) NOT NULL, price DECIMAL(10, 2) NOT NULL, quantity INT NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS `order` (order_id VARCHAR(50) PRIMARY KEY, "
+                + "member_id VARCHAR(50) NOT NULL, total_price DECIMAL(10, 2) NOT NULL, pay_status TINYINT NOT NULL DEFAULT 0, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_detail (order_item_sn BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id VARCHAR(50) NOT NULL, product_id VARCHAR(50) NOT NULL, quantity INT NOT NULL, "
+                + "stand_price DECIMAL(10, 2) NOT NULL, item_price DECIMAL(10, 2) NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        clearOrders(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM product");
+        return dataSource;
+    }
+
+    /* 新增商品 P001 ~ Pnnn（單價 100 × 序號，庫存視為無限） */
+    static void seedProducts(JdbcTemplate jdbcTemplate, int count) {
+        for (int i = 1; i <= count; i++) {
+            jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity) VALUES (?, ?, ?, ?)",
+                    productId(i), "商品" + i, 100 * i, Integer.MAX_VALUE);
+        }
+    }
+
+    /* 清除訂單與明細（避免長時間測試時資料表無限增長） */
+    static void clearOrders(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+    }
+
+    static String productId(int index) {
+        return String.format("P%03d", index);
+    }
+}
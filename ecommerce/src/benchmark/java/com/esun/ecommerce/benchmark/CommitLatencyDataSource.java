@@ -0,0 +1,53 @@
+package com.esun.ecommerce.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 模擬 COMMIT 寫入交易日誌（fsync）延遲的 DataSource
+ *
+ * 每次 commit 停頓 commitMicros 微秒；所有連線共用同一把鎖，
+ * 模擬同一顆磁碟一次只能完成一次 fsync
+ */
+final class CommitLatencyDataSource extends DelegatingDataSource {
+
+    private final long commitNanos;
+    private final ReentrantLock disk = new ReentrantLock();
+
+    CommitLatencyDataSource(DataSource target, long commitMicros) {
+        super(target);
+        this.commitNanos = TimeUnit.MICROSECONDS.toNanos(commitMicros);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection target = super.getConnection();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("commit".equals(method.getName()) && commitNanos > 0) {
+                        disk.lock();
+                        try {
+                            LockSupport.parkNanos(commitNanos);
+                        } finally {
+                            disk.unlock();
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,177 @@
+package com.esun.ecommerce.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.esun.ecommerce.util.LogSamplingFilter;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * 建立訂單請求的日誌成本：預設設定 vs prod 設定（logback-spring.xml）
+ *
+ * 每次呼叫模擬一個 POST /api/orders（SP 寫入）會輸出的日誌：Controller、OrderService、Hibernate SQL 與參數綁定
+ *   sync：同步寫檔、文字格式，com.esun.ecommerce / org.hibernate.SQL 為 DEBUG、BasicBinder 為 TRACE，
+ *         訂單 JSON 以 INFO 輸出（調整前的 application.properties）
+ *   prod：非同步佇列（8192，滿了捨棄）+ JSON 格式，全部 INFO，OrderController / OrderService 的 INFO 每 10 個請求取樣 1 個，
+ *         訂單 JSON 只在 DEBUG 輸出
+ *
+ * 寫入暫存檔，4 條執行緒同時送出請求（與 Tomcat 多條執行緒同時寫日誌相同）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String FILE_PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    private static final String MEMBER_ID = "458";
+
+    private static final String ORDER_ID = "Ms0000000123456789012";
+
+    private static final String ORDER_ITEMS_JSON = "[{\"productId\":\"P001\",\"quantity\":1,\"price\":1000},"
+            + "{\"productId\":\"P002\",\"quantity\":2,\"price\":250},{\"productId\":\"P003\",\"quantity\":1,\"price\":80}]";
+
+    @Param({ "sync", "prod" })
+    private String config;
+
+    private LoggerContext context;
+    private Path logFile;
+    private boolean orderJsonAtInfo;
+    private boolean sampling;
+
+    private Logger controllerLog;
+    private Logger serviceLog;
+    private Logger sqlLog;
+    private Logger binderLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+
+        if ("sync".equals(config)) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern(FILE_PATTERN);
+            encoder.setCharset(StandardCharsets.UTF_8);
+            root.addAppender(fileAppender(encoder));
+
+            context.getLogger("com.esun.ecommerce").setLevel(ch.qos.logback.classic.Level.DEBUG);
+            context.getLogger("org.hibernate.SQL").setLevel(ch.qos.logback.classic.Level.DEBUG);
+            context.getLogger("org.hibernate.type.descriptor.sql.BasicBinder").setLevel(ch.qos.logback.classic.Level.TRACE);
+            orderJsonAtInfo = true;
+        } else {
+            LogSamplingFilter samplingFilter = new LogSamplingFilter();
+            samplingFilter.setContext(context);
+            samplingFilter.addLoggerPrefix("com.esun.ecommerce.controller.OrderController");
+            samplingFilter.addLoggerPrefix("com.esun.ecommerce.service.OrderService");
+            samplingFilter.start();
+            context.addTurboFilter(samplingFilter);
+            sampling = true;
+
+            StructuredLogEncoder encoder = new StructuredLogEncoder();
+            encoder.setFormat("logstash");
+            encoder.setCharset(StandardCharsets.UTF_8);
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender(encoder));
+            async.start();
+            root.addAppender(async);
+        }
+
+        controllerLog = context.getLogger("com.esun.ecommerce.controller.OrderController");
+        serviceLog = context.getLogger("com.esun.ecommerce.service.OrderService");
+        sqlLog = context.getLogger("org.hibernate.SQL");
+        binderLog = context.getLogger("org.hibernate.type.descriptor.sql.BasicBinder");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createOrderRequest() {
+        // 同 LogSamplingRequestFilter：請求開始時決定一次
+        if (sampling) {
+            MDC.put(LogSamplingFilter.MDC_KEY, String.valueOf(ThreadLocalRandom.current().nextInt(10) == 0));
+        }
+
+        controllerLog.info("收到建立訂單請求，會員編號：{}，商品數量：{}", MEMBER_ID, 3);
+        serviceLog.info("開始建立訂單，會員編號：{}，商品數量：{}", MEMBER_ID, 3);
+        serviceLog.info("生成訂單編號：{}", ORDER_ID);
+        if (orderJsonAtInfo) {
+            serviceLog.info("訂單項目 JSON：{}", ORDER_ITEMS_JSON);
+        } else {
+            serviceLog.debug("訂單項目 JSON：{}", ORDER_ITEMS_JSON);
+        }
+
+        sqlLog.debug("CALL sp_create_order(?, ?, ?)");
+        binderLog.trace("binding parameter (1:VARCHAR) <- [{}]", ORDER_ID);
+        binderLog.trace("binding parameter (2:VARCHAR) <- [{}]", MEMBER_ID);
+        binderLog.trace("binding parameter (3:VARCHAR) <- [{}]", ORDER_ITEMS_JSON);
+        serviceLog.info("訂單建立成功，訂單編號：{}", ORDER_ID);
+
+        sqlLog.debug("select o1_0.order_id, o1_0.member_id, o1_0.total_price from `order` o1_0 "
+                + "left join order_detail od1_0 on o1_0.order_id=od1_0.order_id where o1_0.order_id=?");
+        binderLog.trace("binding parameter (1:VARCHAR) <- [{}]", ORDER_ID);
+
+        MDC.remove(LogSamplingFilter.MDC_KEY);
+    }
+
+    // ========== 私有方法 ==========
+
+    private FileAppender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(logFile.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+}
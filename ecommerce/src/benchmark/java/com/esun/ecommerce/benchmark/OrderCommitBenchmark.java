@@ -0,0 +1,126 @@
+package com.esun.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.config.InventoryProperties;
+import com.esun.ecommerce.config.OrderIdProperties;
+import com.esun.ecommerce.config.OrderProperties;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.repository.OrderJdbcRepository;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+import com.esun.ecommerce.service.InventoryReservationService;
+import com.esun.ecommerce.service.OrderGroupCommitter;
+import com.esun.ecommerce.service.OrderJdbcWriter;
+import com.esun.ecommerce.util.OrderIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 建立訂單吞吐量：每筆訂單各自 COMMIT vs Group Commit
+ *
+ * 以 H2 記憶體資料庫執行相同的 JDBC 寫入（扣庫存 + 新增訂單 + 新增明細），
+ * commitMicros 模擬 COMMIT 寫入交易日誌的延遲（所有連線共用一顆磁碟）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class OrderCommitBenchmark {
+
+    @Param({ "0", "500" })
+    private long commitMicros;
+
+    private HikariDataSource pool;
+    private OrderJdbcWriter orderJdbcWriter;
+    private TransactionTemplate transactionTemplate;
+    private OrderGroupCommitter orderGroupCommitter;
+    private OrderIdGenerator orderIdGenerator;
+    private CreateOrderRequest request;
+
+    @Setup
+    public void setUp() {
+        pool = BenchmarkDatabase.create("order_commit_" + commitMicros);
+        CommitLatencyDataSource dataSource = new CommitLatencyDataSource(pool, commitMicros);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        BenchmarkDatabase.seedProducts(jdbcTemplate, 3);
+
+        // 寫入路徑不使用大量讀取的連線池，共用同一個連線池即可
+        BulkReadPool bulkReadPool = new BulkReadPool(pool);
+        ProductJdbcRepository productJdbcRepository =
+                new ProductJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate), bulkReadPool);
+        OrderJdbcRepository orderJdbcRepository = new OrderJdbcRepository(jdbcTemplate, bulkReadPool);
+        orderJdbcWriter = new OrderJdbcWriter(productJdbcRepository, orderJdbcRepository);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryReservationService inventoryReservationService = new InventoryReservationService(
+                new InventoryProperties(), productJdbcRepository, transactionManager, event -> { }, meterRegistry);
+
+        OrderProperties orderProperties = new OrderProperties();
+        orderProperties.getGroupCommit().setEnabled(true);
+        orderProperties.getGroupCommit().setMaxBatchSize(50);
+        // 不額外等待：只合併寫入前一批期間累積的訂單
+        orderProperties.getGroupCommit().setLinger(Duration.ZERO);
+        orderGroupCommitter = new OrderGroupCommitter(orderProperties, orderJdbcWriter, orderJdbcRepository,
+                inventoryReservationService, dataSource, meterRegistry);
+        orderGroupCommitter.start();
+
+        orderIdGenerator = new OrderIdGenerator(new OrderIdProperties());
+        request = CreateOrderRequest.builder()
+                .memberId("458")
+                .items(List.of(
+                        OrderItemRequest.builder().productId("P001").quantity(1).price(BigDecimal.valueOf(100)).build(),
+                        OrderItemRequest.builder().productId("P002").quantity(1).price(BigDecimal.valueOf(200)).build(),
+                        OrderItemRequest.builder().productId("P003").quantity(1).price(BigDecimal.valueOf(300)).build()))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        orderGroupCommitter.stop();
+        pool.close();
+    }
+
+    /* 目前做法：每筆訂單一個 Transaction、一次 COMMIT */
+    @Benchmark
+    public void perOrderCommit() {
+        String orderId = orderIdGenerator.nextId();
+        transactionTemplate.executeWithoutResult(
+                status -> orderJdbcWriter.write(orderId, request.getMemberId(), request.getItems()));
+    }
+
+    /* Group Commit：同時進來的訂單合併成一次 COMMIT */
+    @Benchmark
+    public void groupCommit() {
+        orderGroupCommitter.createOrder(orderIdGenerator.nextId(), request);
+    }
+}
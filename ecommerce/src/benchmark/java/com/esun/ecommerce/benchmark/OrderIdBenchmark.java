@@ -0,0 +1,48 @@
+package com.esun.ecommerce.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esun.ecommerce.config.OrderIdProperties;
+import com.esun.ecommerce.util.OrderIdGenerator;
+
+/**
+ * 訂單編號產生：單一執行緒 vs 多執行緒競爭同一個產生器（CAS 重試）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderIdBenchmark {
+
+    private OrderIdGenerator orderIdGenerator;
+
+    @Setup
+    public void setUp() {
+        orderIdGenerator = new OrderIdGenerator(new OrderIdProperties());
+    }
+
+    @Benchmark
+    public String nextId() {
+        return orderIdGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextIdContended() {
+        return orderIdGenerator.nextId();
+    }
+}
@@ -0,0 +1,58 @@
+package com.esun.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esun.ecommerce.config.JacksonConfig;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.service.OrderItemJsonConverter;
+
+/**
+ * 建立訂單時將訂單項目轉為 sp_create_order 的 JSON 參數（依購物車項目數）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderItemJsonBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int cartSize;
+
+    private OrderItemJsonConverter orderItemJsonConverter;
+    private List<OrderItemRequest> items;
+
+    @Setup
+    public void setUp() {
+        orderItemJsonConverter = new OrderItemJsonConverter(new JacksonConfig().objectMapper());
+        items = new ArrayList<>(cartSize);
+        for (int i = 1; i <= cartSize; i++) {
+            items.add(OrderItemRequest.builder()
+                    .productId(String.format("P%03d", i))
+                    .quantity(i % 5 + 1)
+                    .price(BigDecimal.valueOf(100L * i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public String toJson() {
+        return orderItemJsonConverter.toJson(items);
+    }
+}
@@ -0,0 +1,154 @@
+package com.esun.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.config.OrderIdProperties;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.OrderJdbcRepository;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+import com.esun.ecommerce.service.OrderItemJsonConverter;
+import com.esun.ecommerce.service.OrderJdbcWriter;
+import com.esun.ecommerce.util.OrderIdGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 訂單寫入方式：JSON 字串交給 sp_create_order vs JDBC 批次寫入（依購物車項目數）
+ *
+ * H2 無法執行 MySQL 的 Stored Procedure，storedProcedure 以相同的步驟模擬 SP 的內容：
+ * 組 JSON 字串 → 解析 JSON → 逐項 SELECT ... FOR UPDATE、UPDATE 庫存、INSERT 明細 → 更新訂單總金額
+ *
+ * H2 為同一個 JVM 內的記憶體資料庫，沒有網路往返，平均時間即兩種做法的 CPU 成本；
+ * 加上 -prof gc 可比較每筆訂單的記憶體配置量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int cartSize;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private OrderJdbcWriter orderJdbcWriter;
+    private OrderIdGenerator orderIdGenerator;
+    private ObjectMapper objectMapper;
+    private OrderItemJsonConverter orderItemJsonConverter;
+    private List<OrderItemRequest> items;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkDatabase.create("order_persistence_" + cartSize);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        BenchmarkDatabase.seedProducts(jdbcTemplate, cartSize);
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // 寫入路徑不使用大量讀取的連線池，共用同一個連線池即可
+        BulkReadPool bulkReadPool = new BulkReadPool(dataSource);
+        orderJdbcWriter = new OrderJdbcWriter(
+                new ProductJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate), bulkReadPool),
+                new OrderJdbcRepository(jdbcTemplate, bulkReadPool));
+        orderIdGenerator = new OrderIdGenerator(new OrderIdProperties());
+        objectMapper = new ObjectMapper();
+        orderItemJsonConverter = new OrderItemJsonConverter(objectMapper);
+
+        items = new ArrayList<>();
+        for (int i = 1; i <= cartSize; i++) {
+            items.add(OrderItemRequest.builder()
+                    .productId(BenchmarkDatabase.productId(i))
+                    .quantity(1)
+                    .price(BigDecimal.valueOf(100L * i))
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearOrders() {
+        BenchmarkDatabase.clearOrders(jdbcTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    /* 目前做法：JSON 字串交給 SP，SP 逐項解析並寫入 */
+    @Benchmark
+    public void storedProcedure() {
+        String orderId = orderIdGenerator.nextId();
+        String orderItemsJson = orderItemJsonConverter.toJson(items);
+        transactionTemplate.executeWithoutResult(status -> emulateCreateOrderProcedure(orderId, "458", orderItemsJson));
+    }
+
+    /* 新做法：一句多列 UPDATE 扣庫存 + 批次新增明細 */
+    @Benchmark
+    public void jdbcBatch() {
+        String orderId = orderIdGenerator.nextId();
+        transactionTemplate.executeWithoutResult(status -> orderJdbcWriter.write(orderId, "458", items));
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 依 DB/03_StoredProcedures.sql 的 sp_create_order 步驟執行 */
+    private void emulateCreateOrderProcedure(String orderId, String memberId, String orderItemsJson) {
+        JsonNode orderItems;
+        try {
+            orderItems = objectMapper.readTree(orderItemsJson);
+        } catch (Exception e) {
+            throw new BusinessException("訂單資料格式錯誤");
+        }
+
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status) VALUES (?, ?, 0, 0)",
+                orderId, memberId);
+
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (JsonNode item : orderItems) {
+            String productId = item.get("productId").asText();
+            int quantity = item.get("quantity").asInt();
+            BigDecimal price = item.get("price").decimalValue();
+
+            Integer current = jdbcTemplate.queryForObject(
+                    "SELECT quantity FROM product WHERE product_id = ? FOR UPDATE", Integer.class, productId);
+            if (current == null || current < quantity) {
+                throw new BusinessException("商品庫存不足：" + productId);
+            }
+            jdbcTemplate.update("UPDATE product SET quantity = quantity - ? WHERE product_id = ?", quantity, productId);
+
+            BigDecimal itemPrice = price.multiply(BigDecimal.valueOf(quantity));
+            totalPrice = totalPrice.add(itemPrice);
+            jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price) "
+                    + "VALUES (?, ?, ?, ?, ?)", orderId, productId, quantity, price, itemPrice);
+        }
+
+        jdbcTemplate.update("UPDATE `order` SET total_price = ? WHERE order_id = ?", totalPrice, orderId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.esun.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.exception.ResourceNotFoundException;
+import com.esun.ecommerce.repository.ProductRepository;
+import com.esun.ecommerce.service.OrderItemValidator;
+
+/**
+ * 建立訂單前的商品驗證：逐筆 findById（舊做法） vs 一次 findAllById
+ *
+ * 以 roundTripMicros 模擬每次資料庫往返的延遲，觀察延遲隨購物車項目數的變化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderValidationBenchmark {
+
+    @Param({ "1", "10", "30" })
+    private int cartSize;
+
+    @Param({ "200" })
+    private long roundTripMicros;
+
+    private ProductRepository productRepository;
+    private OrderItemValidator orderItemValidator;
+    private List<OrderItemRequest> items;
+
+    @Setup
+    public void setUp() {
+        Map<String, Product> products = new HashMap<>();
+        items = new ArrayList<>();
+        for (int i = 0; i < cartSize; i++) {
+            String productId = String.format("P%03d", i + 1);
+            BigDecimal price = BigDecimal.valueOf(1000 + i);
+            products.put(productId, Product.builder()
+                    .productId(productId)
+                    .productName("商品" + i)
+                    .price(price)
+                    .quantity(100)
+                    .build());
+            items.add(OrderItemRequest.builder()
+                    .productId(productId)
+                    .quantity(1)
+                    .price(price)
+                    .build());
+        }
+        productRepository = StubProductRepository.create(products, roundTripMicros, new AtomicLong());
+        orderItemValidator = new OrderItemValidator(productRepository);
+    }
+
+    /* 舊做法：每個項目各查一次 */
+    @Benchmark
+    public int perItemLookup() {
+        int validated = 0;
+        for (OrderItemRequest item : items) {
+            Product product = productRepository.findById(item.getProductId())
+                    .orElseThrow(() -> new ResourceNotFoundException("商品不存在：" + item.getProductId()));
+            if (product.getQuantity() < item.getQuantity()
+                    || product.getPrice().compareTo(item.getPrice()) != 0) {
+                throw new BusinessException("驗證失敗：" + item.getProductId());
+            }
+            validated++;
+        }
+        return validated;
+    }
+
+    /* 新做法：一次查詢所有商品 */
+    @Benchmark
+    public int batchLookup() {
+        return orderItemValidator.validate(items).size();
+    }
+}
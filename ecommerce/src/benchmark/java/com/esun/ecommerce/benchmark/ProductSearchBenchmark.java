@@ -0,0 +1,86 @@
+package com.esun.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.search.ProductSearchIndex;
+
+/**
+ * 商品搜尋：100 萬個商品的索引查詢（第一頁 20 筆）
+ *
+ * 商品名稱由「品牌 + 形容詞 + 品項 + 規格」隨機組合，keyword：
+ * 蛋糕（常見中文詞）、草莓蛋糕（兩個 bigram 交集）、iph（英文前綴）、保溫杯 500（中文 + 數字）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+
+    private static final String[] BRANDS = { "玉山", "Apple", "Samsung", "統一", "義美", "象印", "膳魔師", "Sony",
+            "小米", "華碩", "ASUS", "85度C", "亞尼克", "無印良品", "IKEA", "Nike" };
+    private static final String[] ADJECTIVES = { "限定", "經典", "草莓", "巧克力", "抹茶", "超輕量", "旗艦", "無線",
+            "不鏽鋼", "有機", "手工", "迷你", "大容量", "降噪", "防水", "" };
+    private static final String[] ITEMS = { "蛋糕", "起司蛋糕", "蛋糕捲", "保溫杯", "保溫瓶", "耳機", "iPhone",
+            "iPad", "充電線", "行動電源", "運動鞋", "背包", "餅乾", "鳳梨酥", "電鍋", "咖啡豆", "藍牙喇叭", "筆電",
+            "滑鼠", "鍵盤", "洗髮精", "沐浴乳", "牛奶", "豆漿" };
+    private static final String[] SPECS = { "500ml", "1000ml", "128GB", "256GB", "6吋", "8吋", "禮盒", "12入", "家庭號",
+            "Pro", "Max", "2024", "" };
+
+    @Param({ "1000000" })
+    private int products;
+
+    @Param({ "蛋糕", "草莓蛋糕", "iph", "保溫杯 500" })
+    private String keyword;
+
+    private ProductSearchIndex index;
+    private ProductSearchIndex.Filter inStockPriceRange;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductSearchIndex();
+        for (int i = 0; i < products; i++) {
+            String name = String.join(" ",
+                    pick(random, BRANDS), pick(random, ADJECTIVES) + pick(random, ITEMS), pick(random, SPECS)).strip();
+            index.put(ProductResponse.builder()
+                    .productId(String.format("P%07d", i))
+                    .productName(name)
+                    .price(BigDecimal.valueOf(50 + random.nextInt(50_000)))
+                    .quantity(random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(100))
+                    .build());
+        }
+        inStockPriceRange = new ProductSearchIndex.Filter(true, BigDecimal.valueOf(100), BigDecimal.valueOf(5_000));
+    }
+
+    @Benchmark
+    public ProductSearchIndex.SearchHits search() {
+        return index.search(keyword, ProductSearchIndex.Filter.NONE, 0, 20);
+    }
+
+    /* 加上庫存 > 0 與價格區間篩選 */
+    @Benchmark
+    public ProductSearchIndex.SearchHits searchInStockPriceRange() {
+        return index.search(keyword, inStockPriceRange, 0, 20);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,137 @@
+package com.esun.ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esun.ecommerce.config.JacksonConfig;
+import com.esun.ecommerce.dto.response.ApiResponse;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.entity.Order;
+import com.esun.ecommerce.entity.OrderDetail;
+import com.esun.ecommerce.entity.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 查詢 API 的回應處理：Entity → Response 轉換，以及透過 JacksonConfig 的 ObjectMapper 序列化 ApiResponse
+ *
+ * 資料量與一般請求相同：單筆訂單（10 項明細）、一頁 20 筆訂單、50 筆商品列表
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final int CATALOG_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private Order order;
+    private OrderResponse orderResponse;
+    private List<OrderResponse> orderPage;
+    private List<ProductResponse> catalog;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        LocalDateTime now = LocalDateTime.of(2025, 2, 6, 10, 30);
+
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 1; i <= CATALOG_SIZE; i++) {
+            products.add(Product.builder()
+                    .productId(String.format("P%03d", i))
+                    .productName("玉山限定商品 " + i)
+                    .price(BigDecimal.valueOf(100L * i))
+                    .quantity(1000)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        product = products.get(0);
+        order = order("Ms0000123456789012345", products, now);
+        orderResponse = OrderResponse.fromEntity(order);
+
+        orderPage = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            orderPage.add(OrderResponse.fromEntity(order(String.format("Ms%019d", i), products, now.plusMinutes(i))));
+        }
+        catalog = products.stream().map(ProductResponse::fromEntity).toList();
+    }
+
+    @Benchmark
+    public OrderResponse orderFromEntity() {
+        return OrderResponse.fromEntity(order);
+    }
+
+    @Benchmark
+    public ProductResponse productFromEntity() {
+        return ProductResponse.fromEntity(product);
+    }
+
+    @Benchmark
+    public String serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ApiResponse.success("查詢成功", orderResponse));
+    }
+
+    @Benchmark
+    public String serializeOrderPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ApiResponse.success("查詢成功", orderPage));
+    }
+
+    @Benchmark
+    public String serializeCatalog() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ApiResponse.success("查詢成功", catalog));
+    }
+
+    // ========== 私有方法 ==========
+
+    private static Order order(String orderId, List<Product> products, LocalDateTime createdAt) {
+        Order order = Order.builder()
+                .orderId(orderId)
+                .memberId("458")
+                .payStatus(0)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            Product item = products.get(i);
+            BigDecimal itemPrice = item.getPrice().multiply(BigDecimal.valueOf(2));
+            order.getOrderDetails().add(OrderDetail.builder()
+                    .orderItemSn((long) i + 1)
+                    .orderId(orderId)
+                    .productId(item.getProductId())
+                    .quantity(2)
+                    .standPrice(item.getPrice())
+                    .itemPrice(itemPrice)
+                    .createdAt(createdAt)
+                    .order(order)
+                    .product(item)
+                    .build());
+            totalPrice = totalPrice.add(itemPrice);
+        }
+        order.setTotalPrice(totalPrice);
+        return order;
+    }
+}
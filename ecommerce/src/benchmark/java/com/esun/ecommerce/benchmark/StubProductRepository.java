@@ -0,0 +1,58 @@
+package com.esun.ecommerce.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.repository.ProductRepository;
+
+/**
+ * 模擬資料庫往返延遲的 ProductRepository
+ *
+ * 只實作 findById / findAllById，每次呼叫停頓 roundTripMicros 微秒並計數
+ */
+final class StubProductRepository {
+
+    private StubProductRepository() {
+    }
+
+    static ProductRepository create(Map<String, Product> products, long roundTripMicros, AtomicLong roundTrips) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[] { ProductRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        roundTrip(roundTripMicros, roundTrips);
+                        yield Optional.ofNullable(products.get((String) args[0]));
+                    }
+                    case "findAllById" -> {
+                        roundTrip(roundTripMicros, roundTrips);
+                        List<Product> result = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            Product product = products.get((String) id);
+                            if (product != null) {
+                                result.add(product);
+                            }
+                        }
+                        yield result;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubProductRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static void roundTrip(long roundTripMicros, AtomicLong roundTrips) {
+        roundTrips.incrementAndGet();
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+    }
+}
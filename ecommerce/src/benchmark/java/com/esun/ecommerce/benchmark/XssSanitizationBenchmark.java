@@ -0,0 +1,160 @@
+package com.esun.ecommerce.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.owasp.html.HtmlPolicyBuilder;
+import org.owasp.html.PolicyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.esun.ecommerce.config.JacksonConfig;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.CreateProductRequest;
+import com.esun.ecommerce.util.XssFilter;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * XSS 清理：每個值都交給 OWASP Sanitizer（舊做法） vs 先掃描、不含危險字元直接回傳
+ *
+ * filter：瀏覽器送出的一般請求頭 + 查詢參數，依 Spring MVC 處理請求時讀取的順序讀一遍
+ * deserializer：建立訂單（10 項）與新增商品的 JSON 請求內容
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XssSanitizationBenchmark {
+
+    private static final PolicyFactory POLICY = new HtmlPolicyBuilder().toFactory();
+
+    private static final String[] HEADER_NAMES = { "Host", "Content-Type", "Accept", "Accept-Encoding",
+            "Accept-Language", "Origin", "User-Agent", "Access-Control-Request-Method" };
+
+    private static final String ORDER_JSON = "{\"memberId\":\"458\",\"items\":["
+            + "{\"productId\":\"P001\",\"quantity\":1,\"price\":1000},{\"productId\":\"P002\",\"quantity\":2,\"price\":250},"
+            + "{\"productId\":\"P003\",\"quantity\":1,\"price\":80},{\"productId\":\"P004\",\"quantity\":3,\"price\":45},"
+            + "{\"productId\":\"P005\",\"quantity\":1,\"price\":1200},{\"productId\":\"P006\",\"quantity\":1,\"price\":99},"
+            + "{\"productId\":\"P007\",\"quantity\":5,\"price\":20},{\"productId\":\"P008\",\"quantity\":1,\"price\":640},"
+            + "{\"productId\":\"P009\",\"quantity\":2,\"price\":300},{\"productId\":\"P010\",\"quantity\":1,\"price\":75}]}";
+
+    private static final String PRODUCT_JSON =
+            "{\"productId\":\"P011\",\"productName\":\"玉山限定 保溫杯 500ml\",\"price\":680,\"quantity\":100}";
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private XssFilter xssFilter;
+    private ObjectMapper objectMapper;
+    private ObjectMapper legacyObjectMapper;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/orders/member/458");
+        request.addHeader("Host", "localhost:8080");
+        request.addHeader("Content-Type", "application/json");
+        request.addHeader("Accept", "application/json, text/plain, */*");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        request.addHeader("Accept-Language", "zh-TW,zh;q=0.9,en-US;q=0.8,en;q=0.7");
+        request.addHeader("Origin", "http://localhost:5173");
+        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                + "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36");
+        request.addParameter("size", "20");
+        request.addParameter("cursor", "MjAyNS0wMi0wNlQxMDowMDowMHxNczAwMDAwMDAwMDAwMDAwMDAwMDAwMQ");
+
+        response = new MockHttpServletResponse();
+        xssFilter = new XssFilter();
+        objectMapper = new JacksonConfig().objectMapper();
+
+        legacyObjectMapper = new JacksonConfig().objectMapper();
+        SimpleModule legacyModule = new SimpleModule("legacyXss");
+        legacyModule.addDeserializer(String.class, new LegacyXssStringDeserializer());
+        legacyObjectMapper.registerModule(legacyModule);
+    }
+
+    @Benchmark
+    public void filterLegacy(Blackhole blackhole) {
+        readRequest(new LegacyXssRequestWrapper(request), blackhole);
+    }
+
+    @Benchmark
+    public void filterFastPath(Blackhole blackhole) throws Exception {
+        FilterChain chain = (wrapped, ignored) -> readRequest((HttpServletRequest) wrapped, blackhole);
+        xssFilter.doFilter(request, response, chain);
+    }
+
+    @Benchmark
+    public void deserializerLegacy(Blackhole blackhole) throws IOException {
+        blackhole.consume(legacyObjectMapper.readValue(ORDER_JSON, CreateOrderRequest.class));
+        blackhole.consume(legacyObjectMapper.readValue(PRODUCT_JSON, CreateProductRequest.class));
+    }
+
+    @Benchmark
+    public void deserializerFastPath(Blackhole blackhole) throws IOException {
+        blackhole.consume(objectMapper.readValue(ORDER_JSON, CreateOrderRequest.class));
+        blackhole.consume(objectMapper.readValue(PRODUCT_JSON, CreateProductRequest.class));
+    }
+
+    // ========== 私有方法 ==========
+
+    private static void readRequest(HttpServletRequest wrapped, Blackhole blackhole) {
+        for (String name : HEADER_NAMES) {
+            blackhole.consume(wrapped.getHeader(name));
+        }
+        blackhole.consume(wrapped.getParameter("size"));
+        blackhole.consume(wrapped.getParameter("cursor"));
+    }
+
+    /* 舊做法：每個值都交給 Sanitizer */
+    private static String legacySanitize(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        return POLICY.sanitize(value);
+    }
+
+    private static final class LegacyXssRequestWrapper extends HttpServletRequestWrapper {
+
+        LegacyXssRequestWrapper(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getParameter(String name) {
+            return legacySanitize(super.getParameter(name));
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return legacySanitize(super.getHeader(name));
+        }
+    }
+
+    private static final class LegacyXssStringDeserializer extends JsonDeserializer<String> {
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return legacySanitize(p.getValueAsString());
+        }
+    }
+}
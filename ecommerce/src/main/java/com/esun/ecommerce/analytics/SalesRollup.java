@@ -0,0 +1,215 @@
+package com.esun.ecommerce.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 銷售統計（記憶體內彙總）
+ *
+ * 依日、小時、商品、會員彙總訂單數、件數與營收（分），每個統計值為不可變的 Totals，
+ * 以 ConcurrentHashMap.merge 整筆替換：可多執行緒同時寫入，查詢不加鎖，且單一統計值的三個欄位一致
+ *
+ * 從資料庫重新計算時只讀取 created_at < cutoff 的訂單，cutoff 之後建立的訂單逐筆加入（見 SalesAnalyticsService）
+ */
+public class SalesRollup {
+
+    /* 統計維度（比對結果的 dimension） */
+    public static final String DAY = "day";
+    public static final String HOUR = "hour";
+    public static final String PRODUCT = "product";
+    public static final String MEMBER = "member";
+
+    private final LocalDateTime cutoff;
+
+    private final Map<LocalDate, Totals> days = new ConcurrentHashMap<>();
+    private final Map<LocalDateTime, Totals> hours = new ConcurrentHashMap<>();
+    private final Map<String, Totals> products = new ConcurrentHashMap<>();
+    private final Map<String, Totals> members = new ConcurrentHashMap<>();
+
+    /**
+     * 統計值
+     *
+     * @param orders 訂單數（商品為包含該商品的訂單數）
+     * @param units 件數
+     * @param revenueCents 營收（分）
+     */
+    public record Totals(long orders, long units, long revenueCents) {
+
+        public static final Totals ZERO = new Totals(0, 0, 0);
+
+        public Totals plus(Totals other) {
+            return new Totals(orders + other.orders, units + other.units, revenueCents + other.revenueCents);
+        }
+
+        /* 營收（元，小數 2 位） */
+        public BigDecimal revenue() {
+            return BigDecimal.valueOf(revenueCents, 2);
+        }
+    }
+
+    /**
+     * 比對不一致的統計值
+     *
+     * @param dimension 維度（day、hour、product、member）
+     * @param key 日期、小時、商品編號或會員編號
+     * @param expected 重新計算的值
+     * @param actual 目前的值
+     */
+    public record Difference(String dimension, String key, Totals expected, Totals actual) {
+    }
+
+    /**
+     * 比對結果
+     *
+     * @param count 不一致的統計值數
+     * @param samples 不一致的統計值（最多 maxSamples 筆）
+     */
+    public record Comparison(int count, List<Difference> samples) {
+    }
+
+    /**
+     * @param cutoff 重新計算的基準時間（讀取此時間之前建立的訂單，之後建立的逐筆加入）
+     */
+    public SalesRollup(LocalDateTime cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    public LocalDateTime cutoff() {
+        return cutoff;
+    }
+
+    /**
+     * 加入一筆訂單（訂單數與營收）
+     *
+     * @param memberId 會員編號
+     * @param createdAt 建立時間
+     * @param totalPrice 訂單總金額
+     */
+    public void addOrder(String memberId, LocalDateTime createdAt, BigDecimal totalPrice) {
+        Totals totals = new Totals(1, 0, toCents(totalPrice));
+        days.merge(createdAt.toLocalDate(), totals, Totals::plus);
+        hours.merge(createdAt.truncatedTo(ChronoUnit.HOURS), totals, Totals::plus);
+        members.merge(memberId, totals, Totals::plus);
+    }
+
+    /**
+     * 加入一筆訂單明細（件數；商品另計包含該商品的訂單數與營收）
+     *
+     * @param productId 商品編號
+     * @param createdAt 訂單建立時間
+     * @param quantity 數量
+     * @param itemPrice 單品項總價
+     */
+    public void addItem(String productId, LocalDateTime createdAt, int quantity, BigDecimal itemPrice) {
+        Totals units = new Totals(0, quantity, 0);
+        days.merge(createdAt.toLocalDate(), units, Totals::plus);
+        hours.merge(createdAt.truncatedTo(ChronoUnit.HOURS), units, Totals::plus);
+        products.merge(productId, new Totals(1, quantity, toCents(itemPrice)), Totals::plus);
+    }
+
+    /* 併入另一份統計（平行讀取的各區段） */
+    public void merge(SalesRollup other) {
+        other.days.forEach((key, totals) -> days.merge(key, totals, Totals::plus));
+        other.hours.forEach((key, totals) -> hours.merge(key, totals, Totals::plus));
+        other.products.forEach((key, totals) -> products.merge(key, totals, Totals::plus));
+        other.members.forEach((key, totals) -> members.merge(key, totals, Totals::plus));
+    }
+
+    public Totals day(LocalDate date) {
+        return days.getOrDefault(date, Totals.ZERO);
+    }
+
+    /* 小時統計（hour 須為整點） */
+    public Totals hour(LocalDateTime hour) {
+        return hours.getOrDefault(hour, Totals.ZERO);
+    }
+
+    public Totals product(String productId) {
+        return products.getOrDefault(productId, Totals.ZERO);
+    }
+
+    public Totals member(String memberId) {
+        return members.getOrDefault(memberId, Totals.ZERO);
+    }
+
+    /* 全部訂單的統計 */
+    public Totals total() {
+        return days.values().stream().reduce(Totals.ZERO, Totals::plus);
+    }
+
+    /**
+     * 排名前 limit 名的商品（只保留 limit 筆的 heap，不排序全部商品）
+     *
+     * @param limit 筆數
+     * @param order 排序（大的在前），同值依商品編號
+     * @return 商品編號與統計值
+     */
+    public List<Map.Entry<String, Totals>> topProducts(int limit, Comparator<Totals> order) {
+        Comparator<Map.Entry<String, Totals>> ranking = Map.Entry.<String, Totals>comparingByValue(order)
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        // heap 頂端為目前名次最後的商品
+        PriorityQueue<Map.Entry<String, Totals>> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (Map.Entry<String, Totals> entry : products.entrySet()) {
+            top.offer(Map.entry(entry.getKey(), entry.getValue()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<String, Totals>> result = new ArrayList<>(top);
+        result.sort(ranking);
+        return result;
+    }
+
+    /**
+     * 與重新計算的結果逐一比對
+     *
+     * @param expected 重新計算的統計
+     * @param maxSamples 回傳不一致統計值的筆數上限
+     */
+    public Comparison compare(SalesRollup expected, int maxSamples) {
+        List<Difference> samples = new ArrayList<>();
+        int count = compare(DAY, expected.days, days, samples, maxSamples)
+                + compare(HOUR, expected.hours, hours, samples, maxSamples)
+                + compare(PRODUCT, expected.products, products, samples, maxSamples)
+                + compare(MEMBER, expected.members, members, samples, maxSamples);
+        return new Comparison(count, samples);
+    }
+
+    // ========== 私有方法 ==========
+
+    private static <K> int compare(String dimension, Map<K, Totals> expected, Map<K, Totals> actual,
+            List<Difference> samples, int maxSamples) {
+        Set<K> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        int count = 0;
+        for (K key : keys) {
+            Totals expectedTotals = expected.getOrDefault(key, Totals.ZERO);
+            Totals actualTotals = actual.getOrDefault(key, Totals.ZERO);
+            if (!Objects.equals(expectedTotals, actualTotals)) {
+                count++;
+                if (samples.size() < maxSamples) {
+                    samples.add(new Difference(dimension, key.toString(), expectedTotals, actualTotals));
+                }
+            }
+        }
+        return count;
+    }
+
+    /* 金額（小數 2 位）轉為分 */
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,284 @@
+package com.esun.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.esun.ecommerce.config.IdFilterProperties;
+import com.esun.ecommerce.config.OrderProperties;
+import com.esun.ecommerce.datasource.DataSourceRouting;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.esun.ecommerce.repository.OrderJdbcRepository;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+import com.esun.ecommerce.util.OrderIdGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 已存在的商品 / 訂單編號（Bloom Filter）
+ *
+ * 查詢單一商品、訂單前先檢查，一定不存在的編號（爬蟲、錯誤的用戶端）直接回傳不存在，不查詢資料庫：
+ * 1. 啟動完成後在背景逐列讀取所有編號建立，之後每隔 rebuildInterval 重新建立（依實際筆數調整大小）；
+ *    建立完成前一律查詢資料庫
+ * 2. 新增商品、建立訂單時立即放入；批次匯入等其他商品異動（ProductChangedEvent）於提交後放入
+ * 3. 其他主機建立的訂單：訂單編號含建立時間，晚於本機開始建立的訂單一律查詢資料庫；
+ *    Idempotency-Key 接手時以登記時產生的編號建立訂單（最久可早於建立時間 idempotency.ttl），
+ *    因此編號時間在開始建立前 ttl 內的訂單也一律查詢資料庫；
+ *    其他主機新增的商品無從得知，商品編號只在單機部署（singleNode）時檢查
+ *
+ * 指標：id.filter.lookups（tag：type、result = negative 直接回傳不存在 / positive 查詢資料庫 / skipped 未檢查）、
+ * id.filter.false.positives（通過檢查但資料庫查無）、id.filter.size、id.filter.expected.fpp
+ */
+@Component
+@Slf4j
+public class ExistingIdFilter {
+
+    /* 訂單編號的時間與本機時間比較時，容許的主機時鐘誤差 */
+    private static final long CLOCK_SKEW_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final IdFilterProperties properties;
+    private final OrderProperties orderProperties;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final ScheduledExecutorService builder;
+
+    private final Ids products;
+    private final Ids orders;
+
+    public ExistingIdFilter(IdFilterProperties properties,
+            OrderProperties orderProperties,
+            ProductJdbcRepository productJdbcRepository,
+            OrderJdbcRepository orderJdbcRepository,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.orderProperties = orderProperties;
+        this.productJdbcRepository = productJdbcRepository;
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.builder = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("id-filter-builder").daemon().factory());
+
+        this.products = new Ids("product", properties.getProducts(), meterRegistry);
+        this.orders = new Ids("order", properties.getOrders(), meterRegistry);
+    }
+
+    /* 啟動完成後在背景建立，之後定期重新建立 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!properties.isEnabled()) {
+            log.info("商品 / 訂單編號 Bloom Filter 未啟用");
+            return;
+        }
+        builder.execute(this::buildOrRetry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * 商品編號是否可能存在
+     *
+     * @return false 表示一定不存在（不必查詢資料庫）；未啟用、非單機部署或尚未建立完成時一律回傳 true
+     */
+    public boolean mightContainProduct(String productId) {
+        return products.mightContain(productId, !properties.isSingleNode());
+    }
+
+    /**
+     * 訂單編號是否可能存在
+     *
+     * @return false 表示一定不存在（不必查詢資料庫）；未啟用、尚未建立完成，
+     *         或編號的產生時間晚於本機開始建立前 idempotency.ttl（可能由其他主機建立，或接手時才建立）一律回傳 true
+     */
+    public boolean mightContainOrder(String orderId) {
+        return orders.mightContain(orderId, isRecentOrder(orderId));
+    }
+
+    /* 新增商品（寫入前放入：寫入失敗只會多一個誤判，不會漏判） */
+    public void addProduct(String productId) {
+        products.put(productId);
+    }
+
+    /* 建立訂單（寫入前放入） */
+    public void addOrder(String orderId) {
+        orders.put(orderId);
+    }
+
+    /* 通過檢查但資料庫查無此商品時呼叫（記錄誤判） */
+    public void productNotFound() {
+        products.notFound(!properties.isSingleNode());
+    }
+
+    /* 通過檢查但資料庫查無此訂單時呼叫（記錄誤判） */
+    public void orderNotFound(String orderId) {
+        orders.notFound(isRecentOrder(orderId));
+    }
+
+    /**
+     * 商品異動後放入商品編號（涵蓋批次匯入；已存在的編號重複放入不影響）
+     *
+     * 在 Transaction 提交後執行；若發布時沒有 Transaction 則立即執行
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        event.getProductIds().forEach(products::put);
+    }
+
+    /* 重新建立商品（單機部署時）與訂單編號的 Bloom Filter，等待完成（失敗時拋出例外，不重試；同時只有一個建立） */
+    synchronized void rebuild() {
+        if (properties.isSingleNode()) {
+            products.build(consumer -> productJdbcRepository.streamProductIds(properties.getFetchSize(), consumer));
+        }
+        orders.build(consumer -> orderJdbcRepository.streamOrderIds(properties.getFetchSize(), consumer));
+    }
+
+    // ========== 私有方法 ==========
+
+    private void buildOrRetry() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("建立商品 / 訂單編號 Bloom Filter 失敗，{} 後重試：{}", properties.getRetryInterval(), e.getMessage());
+            builder.schedule(this::buildOrRetry, properties.getRetryInterval().toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+        builder.schedule(this::buildOrRetry, properties.getRebuildInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 訂單編號的產生時間晚於目前 Bloom Filter 開始建立前 idempotency.ttl（且不晚於現在，避免偽造的未來時間）
+     *
+     * Idempotency-Key 接手時以登記時產生的編號建立訂單，編號最久可早於實際建立時間 ttl
+     */
+    private boolean isRecentOrder(String orderId) {
+        long createdAt = OrderIdGenerator.timestampOf(orderId);
+        long window = orderProperties.getIdempotency().getTtl().toMillis() + CLOCK_SKEW_MILLIS;
+        return createdAt >= orders.builtFrom - window
+                && createdAt <= System.currentTimeMillis() + CLOCK_SKEW_MILLIS;
+    }
+
+    /**
+     * 一種編號的 Bloom Filter 與指標
+     */
+    private final class Ids {
+
+        private final String type;
+        private final IdFilterProperties.Sizing sizing;
+        private final Counter negative;
+        private final Counter positive;
+        private final Counter skipped;
+        private final Counter falsePositives;
+
+        /* 建立完成前為 null */
+        private volatile IdBloomFilter current;
+
+        /* 建立中的 Bloom Filter（建立期間新增的編號同時放入） */
+        private volatile IdBloomFilter building;
+
+        /* 目前 Bloom Filter 開始讀取資料庫的時間（epoch 毫秒） */
+        private volatile long builtFrom = Long.MAX_VALUE;
+
+        private Ids(String type, IdFilterProperties.Sizing sizing, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.sizing = sizing;
+            this.negative = lookups(meterRegistry, "negative");
+            this.positive = lookups(meterRegistry, "positive");
+            this.skipped = lookups(meterRegistry, "skipped");
+            this.falsePositives = Counter.builder("id.filter.false.positives")
+                    .description("通過 Bloom Filter 檢查但資料庫查無的次數")
+                    .tag("type", type)
+                    .register(meterRegistry);
+
+            Gauge.builder("id.filter.size", this, ids -> ids.current != null ? ids.current.approximateSize() : 0)
+                    .description("Bloom Filter 中的編號數（約略值）")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("id.filter.expected.fpp", this,
+                            ids -> ids.current != null ? ids.current.expectedFalsePositiveRate() : 0)
+                    .description("依目前編號數估計的誤判率")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+
+        private boolean mightContain(String id, boolean skip) {
+            IdBloomFilter filter = current;
+            if (!properties.isEnabled() || filter == null || skip) {
+                skipped.increment();
+                return true;
+            }
+            if (filter.mightContain(id)) {
+                positive.increment();
+                return true;
+            }
+            negative.increment();
+            return false;
+        }
+
+        private void put(String id) {
+            // 先讀 building 再讀 current：建立完成時先替換 current 再清除 building，兩者至少一個是新的
+            IdBloomFilter next = building;
+            IdBloomFilter filter = current;
+            if (filter != null) {
+                filter.put(id);
+            }
+            if (next != null) {
+                next.put(id);
+            }
+        }
+
+        private void notFound(boolean skipped) {
+            if (properties.isEnabled() && current != null && !skipped) {
+                falsePositives.increment();
+            }
+        }
+
+        /* 逐列讀取所有編號建立新的 Bloom Filter，完成後替換 */
+        private void build(Consumer<Consumer<String>> source) {
+            long start = System.nanoTime();
+            IdBloomFilter previous = current;
+            long expected = Math.max(sizing.getExpectedInsertions(),
+                    previous != null ? previous.approximateSize() * 2 : 0);
+            IdBloomFilter built = IdBloomFilter.create(expected, sizing.getFalsePositiveRate());
+            long startedAt = System.currentTimeMillis();
+
+            building = built;
+            try {
+                DataSourceRouting.onPrimary(() -> {
+                    source.accept(built::put);
+                    return null;
+                });
+                // 替換期間 builtFrom 取新舊兩者較早的時間，不論讀到哪個 Bloom Filter，
+                // 晚於其建立時間的訂單都會查詢資料庫
+                builtFrom = Math.min(builtFrom, startedAt);
+                current = built;
+                builtFrom = startedAt;
+            } finally {
+                building = null;
+            }
+            log.info("{} 編號 Bloom Filter 建立完成，編號數：{}，大小：{} KB，耗時：{} ms", type,
+                    built.approximateSize(), built.sizeInBytes() / 1024,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        private Counter lookups(MeterRegistry meterRegistry, String result) {
+            return Counter.builder("id.filter.lookups")
+                    .description("查詢單一商品 / 訂單前的 Bloom Filter 檢查")
+                    .tag("type", type)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
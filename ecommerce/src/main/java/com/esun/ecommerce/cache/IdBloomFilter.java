@@ -0,0 +1,131 @@
+package com.esun.ecommerce.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 編號的 Bloom Filter（可多執行緒同時讀寫，不加鎖）
+ *
+ * 判斷「一定不存在」或「可能存在」：放入過的編號一定回傳可能存在（不會漏判），
+ * 未放入的編號有 falsePositiveRate 的機率誤判為可能存在
+ *
+ * 依預期筆數 n 與誤判率 p 決定大小：
+ * 位元數 m = -n × ln(p) / (ln 2)²（1% 約每筆 9.6 bits），雜湊次數 k = m / n × ln 2（1% 為 7 次）。
+ * k 個位置以兩個 64 bits 雜湊組合產生（h1 + i × h2），位元以 CAS 設定
+ */
+public final class IdBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /* 放入時至少改變一個位元的次數（重複放入不計，約等於不重複的編號數） */
+    private final AtomicLong insertions = new AtomicLong();
+
+    private IdBloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * 建立 Bloom Filter
+     *
+     * @param expectedInsertions 預期筆數（超過時誤判率上升）
+     * @param falsePositiveRate 預期筆數下的誤判率（0 ~ 1）
+     */
+    public static IdBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("預期筆數必須大於 0：" + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("誤判率必須介於 0 ~ 1：" + falsePositiveRate);
+        }
+        long bits = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * LN2));
+        return new IdBloomFilter(bits, hashes);
+    }
+
+    /* 放入編號 */
+    public void put(String id) {
+        long hash1 = hash(id);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        boolean changed = false;
+        long combined = hash1;
+        for (int i = 0; i < hashCount; i++) {
+            changed |= setBit((combined & Long.MAX_VALUE) % bitCount);
+            combined += hash2;
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+    }
+
+    /* 編號可能存在（false 表示一定不存在） */
+    public boolean mightContain(String id) {
+        long hash1 = hash(id);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        long combined = hash1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            combined += hash2;
+        }
+        return true;
+    }
+
+    /* 放入的編號數（約略值） */
+    public long approximateSize() {
+        return insertions.get();
+    }
+
+    /* 依目前筆數估計的誤判率：(1 - e^(-k × n / m))^k */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions.get() / bitCount), hashCount);
+    }
+
+    /* 佔用的記憶體（bytes，不含物件標頭） */
+    public long sizeInBytes() {
+        return words.length() * 8L;
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 設定位元，回傳是否由 0 改為 1 */
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /* FNV-1a 64 bits 後再以 MurmurHash3 的 fmix64 打散 */
+    private static long hash(String id) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,167 @@
+package com.esun.ecommerce.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.esun.ecommerce.config.OrderSnapshotCacheProperties;
+import com.esun.ecommerce.datasource.DataSourceRouting;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.event.OrderPayStatusChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 訂單快照快取
+ *
+ * 訂單建立後明細不再異動，只有付款狀態（pay_status、updated_at）會改變，
+ * 查詢單一訂單的結果（含明細與商品名稱）以訂單編號快取：
+ * 1. 建立訂單時放入建立的結果，查詢未命中時放入查詢的結果
+ * 2. 更新付款狀態後發布 OrderPayStatusChangedEvent，於 Transaction 提交後清除該筆訂單
+ * 3. 依估計的記憶體大小（memoryBudget）淘汰，另有存活時間（其他主機更新的付款狀態最久在此時間後反映）
+ *
+ * 查詢期間若有付款狀態異動（generation 改變），查到的舊資料不放入快取；
+ * 同一筆訂單同時未命中時以 RequestCoalescer 合併成一次查詢。
+ * 啟用讀寫分離時，放入快取的查詢一律從 primary 讀取，replica 上尚未複寫的付款狀態不會被快取
+ *
+ * 命中 / 未命中 / 淘汰次數與估計大小透過 Actuator 的 cache.gets、cache.evictions、cache.evictions.weight 指標輸出
+ */
+@Component
+@Slf4j
+public class OrderSnapshotCache {
+
+    /* RequestCoalescer 的查詢名稱 */
+    private static final String ORDER_QUERY = "order";
+
+    /* 估計大小：訂單（物件、金額、時間、快取項目）與每筆明細的固定部分，字串另計（每字元 2 bytes） */
+    private static final int ORDER_BYTES = 400;
+    private static final int ITEM_BYTES = 200;
+
+    private final boolean enabled;
+    private final RequestCoalescer requestCoalescer;
+    private final Cache<String, OrderResponse> orders;
+
+    /* 每次清除快取加一，用來判斷載入期間是否有付款狀態異動 */
+    private final AtomicLong generation = new AtomicLong();
+
+    public OrderSnapshotCache(OrderSnapshotCacheProperties properties, RequestCoalescer requestCoalescer,
+            MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.requestCoalescer = requestCoalescer;
+        this.orders = Caffeine.newBuilder()
+                .maximumWeight(properties.getMemoryBudget().toBytes())
+                .weigher(OrderSnapshotCache::estimateBytes)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, "order.snapshots");
+    }
+
+    /**
+     * 查詢單一訂單
+     *
+     * @param orderId 訂單編號
+     * @param loader 未命中時的載入方法（回傳 null 表示訂單不存在，不會被快取）
+     * @return 訂單回應，不存在時回傳 null
+     */
+    public OrderResponse getOrder(String orderId, Function<String, OrderResponse> loader) {
+        long loadedAt = generation.get();
+        if (!enabled) {
+            return coalesce(orderId, loadedAt, loader);
+        }
+
+        OrderResponse cached = orders.getIfPresent(orderId);
+        if (cached != null) {
+            return cached;
+        }
+
+        OrderResponse loaded = coalesce(orderId, loadedAt,
+                id -> DataSourceRouting.onPrimary(() -> loader.apply(id)));
+        if (loaded != null) {
+            putIfUnchanged(orderId, loaded, loadedAt);
+        }
+        return loaded;
+    }
+
+    /* 放入剛建立的訂單（建立後第一次查詢不必查詢資料庫） */
+    public void put(OrderResponse order) {
+        if (enabled) {
+            putIfUnchanged(order.getOrderId(), order, generation.get());
+        }
+    }
+
+    /* 清除指定訂單 */
+    public void evict(String orderId) {
+        generation.incrementAndGet();
+        orders.invalidate(orderId);
+        log.debug("清除訂單快照快取，訂單編號：{}", orderId);
+    }
+
+    /* 清除全部快取 */
+    public void clear() {
+        generation.incrementAndGet();
+        orders.invalidateAll();
+    }
+
+    /* 快取統計（命中 / 未命中 / 淘汰） */
+    public CacheStats stats() {
+        return orders.stats();
+    }
+
+    /**
+     * 付款狀態異動後清除該筆訂單
+     *
+     * 在 Transaction 提交後執行；若發布時沒有 Transaction 則立即執行
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPayStatusChanged(OrderPayStatusChangedEvent event) {
+        evict(event.getOrderId());
+    }
+
+    // ========== 私有方法 ==========
+
+    private void putIfUnchanged(String orderId, OrderResponse order, long loadedAt) {
+        if (generation.get() != loadedAt) {
+            return;
+        }
+        orders.put(orderId, order);
+        // put 與清除同時發生時，以清除為準
+        if (generation.get() != loadedAt) {
+            orders.invalidate(orderId);
+        }
+    }
+
+    /* 合併相同 generation 下同時進行的相同查詢 */
+    private OrderResponse coalesce(String orderId, long loadedAt, Function<String, OrderResponse> loader) {
+        return requestCoalescer.execute(ORDER_QUERY, new GenerationKey(orderId, loadedAt),
+                () -> loader.apply(orderId));
+    }
+
+    /* 估計一筆訂單快照佔用的記憶體（bytes） */
+    private static int estimateBytes(String orderId, OrderResponse order) {
+        long bytes = ORDER_BYTES + 2L * (orderId.length() + length(order.getMemberId())
+                + length(order.getPayStatusText()));
+        if (order.getItems() != null) {
+            for (OrderResponse.OrderDetailResponse item : order.getItems()) {
+                bytes += ITEM_BYTES + 2L * (length(item.getProductId()) + length(item.getProductName()));
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private record GenerationKey(String orderId, long generation) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.esun.ecommerce.cache;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.util.ProductVersions;
+
+import lombok.Getter;
+
+/**
+ * 商品列表與其版本資訊
+ *
+ * 建立時一次計算 ETag 與 Last-Modified，與列表一起放入 ProductCatalogCache，
+ * 快取命中時條件式請求（If-None-Match / If-Modified-Since）不需再讀取或序列化整份列表
+ */
+@Getter
+public final class ProductCatalog {
+
+    private final List<ProductResponse> products;
+
+    /* ETag（不含引號） */
+    private final String etag;
+
+    /* 最後修改時間，空列表為 null */
+    private final Instant lastModified;
+
+    private ProductCatalog(List<ProductResponse> products) {
+        this.products = List.copyOf(products);
+        this.etag = ProductVersions.etag(this.products);
+        this.lastModified = ProductVersions.lastModified(this.products);
+    }
+
+    public static ProductCatalog of(List<ProductResponse> products) {
+        return new ProductCatalog(products);
+    }
+}
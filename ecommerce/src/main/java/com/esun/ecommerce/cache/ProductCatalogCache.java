@@ -0,0 +1,186 @@
+package com.esun.ecommerce.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.esun.ecommerce.config.CatalogCacheProperties;
+import com.esun.ecommerce.datasource.DataSourceRouting;
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品目錄快取
+ *
+ * 擋在 ProductRepository 前面的本地快取：
+ * 1. 單一商品：依筆數上限 + 存活時間淘汰
+ * 2. 商品列表（全部 / 可用）：整份列表連同 ETag、Last-Modified 快取，任何商品異動即失效
+ *
+ * 寫入路徑（新增商品、更新庫存、建立訂單）會發布 ProductChangedEvent，
+ * 於 Transaction 提交後清除對應商品與列表，避免讀到未提交的資料。
+ *
+ * 命中 / 未命中 / 淘汰次數透過 Actuator 的 cache.gets、cache.evictions 指標輸出
+ *
+ * 未命中時在快取的鎖外查詢資料庫：Caffeine 的 get(key, loader) 會在 ConcurrentHashMap 的
+ * synchronized 區塊內執行 loader，Virtual Thread 在 JDBC 等待期間會被釘住（pinned）在載體執行緒上。
+ * 查詢期間若有商品異動（generation 改變），查到的舊資料不放入快取；
+ * 啟用讀寫分離時，放入快取的查詢一律從 primary 讀取，replica 上尚未複寫的庫存不會被快取
+ *
+ * 同一個 key 同時未命中（例如熱門商品的快取剛被清除）時，以 RequestCoalescer 合併成一次查詢；
+ * 合併的 key 包含 generation，商品異動後才到的請求不會共用異動前開始的查詢
+ */
+@Component
+@Slf4j
+public class ProductCatalogCache {
+
+    private static final String ALL_PRODUCTS = "ALL";
+    private static final String AVAILABLE_PRODUCTS = "AVAILABLE";
+
+    /* RequestCoalescer 的查詢名稱 */
+    private static final String PRODUCT_QUERY = "product";
+    private static final String CATALOG_QUERY = "catalog";
+
+    private final boolean enabled;
+    private final RequestCoalescer requestCoalescer;
+    private final Cache<String, ProductResponse> products;
+    private final Cache<String, ProductCatalog> catalogs;
+
+    /* 每次清除快取加一，用來判斷載入期間是否有商品異動 */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCatalogCache(CatalogCacheProperties properties, RequestCoalescer requestCoalescer,
+            MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.requestCoalescer = requestCoalescer;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.catalogs = Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product.catalog.items");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogs, "product.catalog.lists");
+    }
+
+    /**
+     * 查詢單一商品
+     *
+     * @param productId 商品編號
+     * @param loader 未命中時的載入方法（回傳 null 表示商品不存在，不會被快取）
+     * @return 商品回應，不存在時回傳 null
+     */
+    public ProductResponse getProduct(String productId, Function<String, ProductResponse> loader) {
+        if (!enabled) {
+            return coalesce(PRODUCT_QUERY, productId, generation.get(), () -> loader.apply(productId));
+        }
+        return getOrLoad(products, PRODUCT_QUERY, productId, () -> loader.apply(productId));
+    }
+
+    /* 查詢所有商品列表（含 ETag、Last-Modified） */
+    public ProductCatalog getAllProducts(Supplier<List<ProductResponse>> loader) {
+        return getCatalog(ALL_PRODUCTS, loader);
+    }
+
+    /* 查詢可用商品列表（庫存 > 0，含 ETag、Last-Modified） */
+    public ProductCatalog getAvailableProducts(Supplier<List<ProductResponse>> loader) {
+        return getCatalog(AVAILABLE_PRODUCTS, loader);
+    }
+
+    /**
+     * 清除指定商品與所有列表快取
+     *
+     * @param productIds 異動的商品編號
+     */
+    public void evict(Collection<String> productIds) {
+        generation.incrementAndGet();
+        products.invalidateAll(productIds);
+        catalogs.invalidateAll();
+        log.debug("清除商品目錄快取，商品編號：{}", productIds);
+    }
+
+    /* 清除全部快取 */
+    public void clear() {
+        generation.incrementAndGet();
+        products.invalidateAll();
+        catalogs.invalidateAll();
+    }
+
+    /* 單一商品快取統計（命中 / 未命中 / 淘汰） */
+    public CacheStats productStats() {
+        return products.stats();
+    }
+
+    /* 商品列表快取統計 */
+    public CacheStats catalogStats() {
+        return catalogs.stats();
+    }
+
+    /**
+     * 商品異動後清除快取
+     *
+     * 在 Transaction 提交後執行；若發布時沒有 Transaction 則立即執行
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductIds());
+    }
+
+    // ========== 私有方法 ==========
+
+    private ProductCatalog getCatalog(String key, Supplier<List<ProductResponse>> loader) {
+        if (!enabled) {
+            return coalesce(CATALOG_QUERY, key, generation.get(), () -> ProductCatalog.of(loader.get()));
+        }
+        return getOrLoad(catalogs, CATALOG_QUERY, key, () -> ProductCatalog.of(loader.get()));
+    }
+
+    /**
+     * 查詢快取，未命中時在鎖外從 primary 載入並放入快取
+     *
+     * 同一個 key 同時未命中時合併成一次載入，其他請求等待並共用結果
+     * （合併後才切換到 primary，onPrimary 範圍內的查詢不會被合併）
+     */
+    private <V> V getOrLoad(Cache<String, V> cache, String name, String key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        V loaded = coalesce(name, key, loadedAt, () -> DataSourceRouting.onPrimary(loader));
+        if (loaded != null && generation.get() == loadedAt) {
+            cache.put(key, loaded);
+            // put 與清除同時發生時，以清除為準
+            if (generation.get() != loadedAt) {
+                cache.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /* 合併相同 generation 下同時進行的相同查詢 */
+    private <V> V coalesce(String name, String key, long loadedAt, Supplier<V> loader) {
+        return requestCoalescer.execute(name, new GenerationKey(key, loadedAt), loader);
+    }
+
+    private record GenerationKey(String key, long generation) {
+    }
+}
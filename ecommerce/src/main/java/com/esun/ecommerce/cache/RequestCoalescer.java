@@ -0,0 +1,125 @@
+package com.esun.ecommerce.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.esun.ecommerce.config.RequestCoalescingProperties;
+import com.esun.ecommerce.datasource.DataSourceRouting;
+import com.esun.ecommerce.exception.BusinessException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 合併同時進行的相同查詢（Single Flight）
+ *
+ * 同一個查詢（名稱 + key）同時有多個請求時，只有第一個請求實際查詢資料庫，
+ * 其他請求等待並共用它的結果（或例外）。查詢完成即移除，不保留結果，快取由 ProductCatalogCache 負責
+ *
+ * 等待超過逾時（可依查詢名稱設定）時不再等待，改為自行查詢，避免一個卡住的查詢拖住所有請求；
+ * onPrimary 範圍內的查詢不合併，避免 read-your-writes 的請求共用到 replica 的結果
+ *
+ * 每次呼叫記錄在 request.coalescing（tag：name 查詢名稱、result 結果），result：
+ * executed 實際查詢、coalesced 共用進行中查詢的結果、timeout 等待逾時後自行查詢
+ */
+@Component
+@Slf4j
+public class RequestCoalescer {
+
+    private static final String EXECUTED = "executed";
+    private static final String COALESCED = "coalesced";
+    private static final String TIMEOUT = "timeout";
+
+    private final RequestCoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /* 進行中的查詢 */
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(RequestCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("request.coalescing.in.flight", inFlight, Map::size)
+                .description("進行中（可被合併）的查詢數")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 執行查詢；相同查詢正在進行時等待並共用其結果
+     *
+     * @param name 查詢名稱（用於指標與逾時設定）
+     * @param key 查詢條件（須實作 equals / hashCode）
+     * @param loader 查詢方法
+     * @return 查詢結果（可為 null）
+     */
+    public <V> V execute(String name, Object key, Supplier<V> loader) {
+        if (!properties.isEnabled() || DataSourceRouting.isPrimaryRequired()) {
+            return loader.get();
+        }
+
+        FlightKey flightKey = new FlightKey(name, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            return await(name, existing, loader);
+        }
+
+        count(name, EXECUTED);
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(flightKey, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // 先移除再通知：完成之後才到的請求會重新查詢，不會拿到查詢開始前的結果
+        inFlight.remove(flightKey, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 等待進行中的查詢，逾時改為自行查詢 */
+    @SuppressWarnings("unchecked")
+    private <V> V await(String name, CompletableFuture<Object> flight, Supplier<V> loader) {
+        try {
+            V value = (V) flight.get(properties.timeoutOf(name).toNanos(), TimeUnit.NANOSECONDS);
+            count(name, COALESCED);
+            return value;
+        } catch (TimeoutException e) {
+            count(name, TIMEOUT);
+            log.warn("等待進行中的查詢逾時，改為自行查詢，查詢：{}", name);
+            return loader.get();
+        } catch (ExecutionException e) {
+            count(name, COALESCED);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("等待查詢結果時被中斷，查詢：" + name);
+        }
+    }
+
+    private void count(String name, String result) {
+        meterRegistry.counter("request.coalescing", "name", name, "result", result).increment();
+    }
+
+    private record FlightKey(String name, Object key) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.esun.ecommerce.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 大量讀取專用連線池（連線字串、帳號密碼同 spring.datasource.*，連線屬性另加 bulk-read.connection-properties）
+ *
+ * 第一次查詢時才建立連線，閒置時不保留連線
+ */
+@Configuration
+public class BulkReadPoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public BulkReadPool bulkReadPool(DataSourceProperties dataSourceProperties,
+            BulkReadPoolProperties properties,
+            MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("bulk-read");
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setMinimumIdle(0);
+        dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        dataSource.setReadOnly(true);
+        properties.getConnectionProperties().forEach(dataSource::addDataSourceProperty);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new BulkReadPool(dataSource);
+    }
+}
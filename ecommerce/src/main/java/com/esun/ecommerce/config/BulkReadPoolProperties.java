@@ -0,0 +1,34 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 大量讀取專用連線池設定
+ *
+ * 對應 application.properties 的 ecommerce.datasource.bulk-read.*
+ * 連線字串、帳號密碼沿用 spring.datasource.*（一律連到 primary）
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.datasource.bulk-read")
+public class BulkReadPoolProperties {
+
+    /* 連線數上限（同時進行的匯出、索引與 Bloom Filter 建立、銷售統計計算共用） */
+    private int maximumPoolSize = 3;
+
+    /* 等待連線的時間，逾時視為失敗 */
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 只加在此連線池的 JDBC Driver 連線屬性
+     *
+     * MySQL 需 useCursorFetch=true，fetch size 才會以伺服器端游標分批讀取；
+     * 此設定會讓連線上的所有查詢改用伺服器端 prepared statement，因此不加在 spring.datasource.url
+     */
+    private Map<String, String> connectionProperties = new HashMap<>(Map.of("useCursorFetch", "true"));
+}
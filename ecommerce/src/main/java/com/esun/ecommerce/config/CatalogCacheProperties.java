@@ -0,0 +1,26 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 商品目錄快取設定
+ *
+ * 對應 application.properties 的 ecommerce.cache.catalog.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.cache.catalog")
+public class CatalogCacheProperties {
+
+    /* 是否啟用商品目錄快取 */
+    private boolean enabled = true;
+
+    /* 單一商品快取最大筆數（超過時依使用頻率淘汰） */
+    private long maximumSize = 10_000;
+
+    /* 快取存活時間（寫入後計算） */
+    private Duration expireAfterWrite = Duration.ofSeconds(30);
+}
@@ -0,0 +1,95 @@
+package com.esun.ecommerce.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.esun.ecommerce.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 讀寫分離（ecommerce.datasource.routing.enabled=true 時啟用）
+ *
+ * 應用程式使用的 DataSource 為 LazyConnectionDataSourceProxy：
+ * Transaction 開始時不取得實際連線，到第一個 SQL 才依 Transaction 是否唯讀決定：
+ * 唯讀（@Transactional(readOnly = true)、Repository 預設的查詢方法）→ ReplicaDataSource，其他 → primary
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ecommerce.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /* primary：與 Spring Boot 預設建立的 DataSource 相同（spring.datasource.* + spring.datasource.hikari.*） */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * replica 連線池：大小與逾時設定沿用 primary，連線設為唯讀
+     *
+     * 啟動時 replica 無法連線不影響啟動（唯讀查詢改用 primary，健康檢查通過後才開始使用）
+     */
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties dataSourceProperties,
+            DataSourceRoutingProperties routingProperties,
+            MeterRegistry meterRegistry) {
+        List<DataSourceRoutingProperties.Replica> replicaProperties = routingProperties.getReplicas();
+        if (replicaProperties.isEmpty()) {
+            throw new IllegalStateException("已啟用讀寫分離，但未設定 ecommerce.datasource.routing.replicas");
+        }
+
+        List<HikariDataSource> replicas = new ArrayList<>(replicaProperties.size());
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = replicaProperties.get(i);
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername() != null
+                    ? replica.getUsername() : dataSourceProperties.determineUsername());
+            config.setPassword(replica.getPassword() != null
+                    ? replica.getPassword() : dataSourceProperties.determinePassword());
+            config.setDriverClassName(primaryDataSource.getDriverClassName());
+            config.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            config.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            config.setMinimumIdle(primaryDataSource.getMinimumIdle());
+            config.setIdleTimeout(primaryDataSource.getIdleTimeout());
+            config.setMaxLifetime(primaryDataSource.getMaxLifetime());
+            config.setConnectionTimeout(routingProperties.getConnectionTimeout().toMillis());
+            config.setInitializationFailTimeout(-1);
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+
+        return new ReplicaDataSource(primaryDataSource, replicas, routingProperties.getMaxLag(),
+                routingProperties.getLagQuery(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
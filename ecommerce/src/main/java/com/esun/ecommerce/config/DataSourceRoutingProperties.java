@@ -0,0 +1,54 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 讀寫分離設定
+ *
+ * 對應 application.properties 的 ecommerce.datasource.routing.*
+ * primary 沿用 spring.datasource.*，replica 的連線池設定（spring.datasource.hikari.*）與 primary 相同
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /* 是否啟用讀寫分離（唯讀 Transaction 改用 replica） */
+    private boolean enabled = false;
+
+    /* replica 清單，依序輪流使用 */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /* 複寫延遲上限，超過時該 replica 暫停使用（改用其他 replica 或 primary） */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    /* 健康檢查間隔 */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /* 取得 replica 連線的等待時間，逾時視為故障並改用 primary */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+
+    /**
+     * 查詢複寫延遲（秒）的 SQL
+     *
+     * 結果含 Seconds_Behind_Source 欄位時取該欄位，否則取第一個欄位；
+     * 值為 NULL 代表複寫已中斷，查無資料代表該資料庫未設定複寫（資料不會更新），兩者都視為不可用
+     */
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        /* 未設定時沿用 spring.datasource.username / password */
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,65 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 商品 / 訂單編號 Bloom Filter 設定
+ *
+ * 對應 application.properties 的 ecommerce.id-filter.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.id-filter")
+public class IdFilterProperties {
+
+    /* 是否以 Bloom Filter 擋下不存在的商品 / 訂單編號（不查詢資料庫） */
+    private boolean enabled = true;
+
+    /**
+     * 是否為單機部署
+     *
+     * 其他主機新增的商品不會通知本機，多台主機時商品編號不檢查（一律查詢資料庫），只檢查訂單編號；
+     * 單機部署時所有新增商品都經過本機，才以商品編號的 Bloom Filter 直接回傳不存在
+     */
+    private boolean singleNode = false;
+
+    /* 商品編號（singleNode 時才建立） */
+    private Sizing products = new Sizing(1_000_000, 0.01);
+
+    /* 訂單編號 */
+    private Sizing orders = new Sizing(10_000_000, 0.01);
+
+    /**
+     * 定期從資料庫重新建立的間隔（依實際筆數調整大小）
+     *
+     * 訂單編號含產生時間，晚於上次建立前 idempotency.ttl 的訂單一律查詢資料庫，不受其他主機建立的訂單影響
+     */
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    /* 建立時每次向資料庫取回的筆數 */
+    private int fetchSize = 10_000;
+
+    /* 建立失敗（例如資料庫無法連線）時，重試的間隔 */
+    private Duration retryInterval = Duration.ofSeconds(30);
+
+    @Data
+    public static class Sizing {
+
+        /* 預期筆數（實際筆數超過時，下次重新建立以實際筆數的 2 倍配置） */
+        private long expectedInsertions;
+
+        /* 預期筆數下的誤判率（誤判時才會查詢資料庫） */
+        private double falsePositiveRate;
+
+        public Sizing() {
+        }
+
+        Sizing(long expectedInsertions, double falsePositiveRate) {
+            this.expectedInsertions = expectedInsertions;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 庫存預留設定
+ *
+ * 對應 application.properties 的 ecommerce.inventory.reservation.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.inventory.reservation")
+public class InventoryProperties {
+
+    /**
+     * 是否啟用記憶體庫存預留
+     *
+     * 啟用後由本機記憶體判斷庫存是否足夠，訂單改以 JDBC 寫入且不鎖商品列，
+     * 扣庫存則定期批次寫回資料庫。同一商品的庫存異動必須都經過同一台主機
+     */
+    private boolean enabled = false;
+
+    /* 批次寫回資料庫的間隔 */
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    /* 關閉前寫回扣除量的最長等待時間（寫入失敗時持續重試） */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,88 @@
+package com.esun.ecommerce.config;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * 監控指標設定
+ *
+ * Spring Data 會為每次 Repository 方法呼叫記錄 spring.data.repository.invocations（tag：repository、method、state），
+ * 這裡再加上 procedure tag（@Query 為 CALL sp_xxx(...) 時為 SP 名稱，其他為 none），
+ * 方便在 /actuator/prometheus 直接依 SP 比較延遲
+ *
+ * JdbcTemplate Repository 不經過 Spring Data，改在類別加上 @Timed(JDBC_REPOSITORY_INVOCATIONS)，
+ * 每個方法記錄 jdbc.repository.invocations（tag：repository、method、exception）
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Pattern CALL_PATTERN = Pattern.compile("^\\s*CALL\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String NO_PROCEDURE = "none";
+
+    /* JdbcTemplate Repository 方法的延遲 */
+    public static final String JDBC_REPOSITORY_INVOCATIONS = "jdbc.repository.invocations";
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        return new StoredProcedureTagsProvider();
+    }
+
+    /**
+     * 處理 @Timed（本專案只用在 JdbcTemplate Repository）
+     *
+     * tag 與 spring.data.repository.invocations 一致：repository 為類別名稱、method 為方法名稱
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> tags = joinPoint -> Tags.of(
+                "repository", joinPoint.getTarget().getClass().getSimpleName(),
+                "method", joinPoint.getSignature().getName());
+        return new TimedAspect(meterRegistry, tags);
+    }
+
+    /**
+     * 在預設 tag 之外加上 procedure
+     *
+     * 每個方法只解析一次 @Query（結果快取），避免每次呼叫都做反射
+     */
+    static class StoredProcedureTagsProvider extends DefaultRepositoryTagsProvider {
+
+        private final Map<Method, Tag> procedures = new ConcurrentHashMap<>();
+
+        @Override
+        public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+            Tag procedure = procedures.computeIfAbsent(invocation.getMethod(),
+                    method -> Tag.of("procedure", procedureName(method)));
+            return Tags.of(super.repositoryTags(invocation)).and(procedure);
+        }
+
+        /* CALL sp_create_order(...) → sp_create_order */
+        static String procedureName(Method method) {
+            Query query = method.getAnnotation(Query.class);
+            if (query == null) {
+                return NO_PROCEDURE;
+            }
+            Matcher matcher = CALL_PATTERN.matcher(query.value());
+            return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : NO_PROCEDURE;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.esun.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 訂單編號產生器設定
+ *
+ * 對應 application.properties 的 ecommerce.order-id.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.order-id")
+public class OrderIdProperties {
+
+    /* 節點編號（0 ~ 1023），多台主機部署時每台必須不同 */
+    private long nodeId = 0;
+}
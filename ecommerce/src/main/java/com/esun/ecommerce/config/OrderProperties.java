@@ -0,0 +1,89 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 訂單相關設定
+ *
+ * 對應 application.properties 的 ecommerce.order.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.order")
+public class OrderProperties {
+
+    /**
+     * 訂單寫入方式
+     *
+     * STORED_PROCEDURE：調用 sp_create_order（訂單項目以 JSON 字串傳入）
+     * JDBC_BATCH：一句多列條件式 UPDATE 扣庫存 + 批次新增明細
+     */
+    private Persistence persistence = Persistence.STORED_PROCEDURE;
+
+    /* 訂單列表分頁 */
+    private Page page = new Page();
+
+    /* 建立訂單的 Group Commit */
+    private GroupCommit groupCommit = new GroupCommit();
+
+    /* 建立訂單的 Idempotency-Key */
+    private Idempotency idempotency = new Idempotency();
+
+    public enum Persistence {
+        STORED_PROCEDURE,
+        JDBC_BATCH
+    }
+
+    @Data
+    public static class Page {
+
+        /* 未指定 size 時的每頁筆數 */
+        private int defaultSize = 20;
+
+        /* 每頁筆數上限 */
+        private int maxSize = 100;
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        /**
+         * 是否啟用 Group Commit
+         *
+         * 啟用後同時進來的訂單會排入佇列，由單一寫入執行緒合併成一個 Transaction 提交，
+         * 訂單改以 JDBC 寫入（不經過 sp_create_order）
+         */
+        private boolean enabled = false;
+
+        /* 每批最多合併的訂單數 */
+        private int maxBatchSize = 50;
+
+        /* 收到第一筆訂單後最多等待多久再提交（0 表示不等待，只合併寫入上一批期間累積的訂單） */
+        private Duration linger = Duration.ofMillis(5);
+
+        /* 佇列容量，滿了直接拒絕新訂單 */
+        private int queueCapacity = 10000;
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /* key 的保存時間，超過後相同 key 視為新的請求 */
+        private Duration ttl = Duration.ofHours(24);
+
+        /* 本機快取已完成的 key 最大筆數（超過時依使用頻率淘汰，淘汰後改查資料表） */
+        private long maximumSize = 10_000;
+
+        /* 相同 key 的請求處理中時，重複請求最多等待多久 */
+        private Duration waitTimeout = Duration.ofSeconds(10);
+
+        /* 處理中超過多久沒有更新，視為原本處理的主機已中斷，由重試的請求接手 */
+        private Duration abandonAfter = Duration.ofMinutes(1);
+
+        /* 處理中的主機更新登記的間隔（須小於 abandonAfter） */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+    }
+}
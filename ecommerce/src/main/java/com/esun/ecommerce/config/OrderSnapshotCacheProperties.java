@@ -0,0 +1,31 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * 訂單快照快取設定
+ *
+ * 對應 application.properties 的 ecommerce.cache.order-snapshot.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.cache.order-snapshot")
+public class OrderSnapshotCacheProperties {
+
+    /* 是否啟用訂單快照快取 */
+    private boolean enabled = true;
+
+    /* 記憶體上限（依每筆訂單與明細估計的大小計算，超過時依使用頻率淘汰） */
+    private DataSize memoryBudget = DataSize.ofMegabytes(64);
+
+    /**
+     * 快取存活時間（寫入後計算）
+     *
+     * 本機更新付款狀態時會立即清除；其他主機或外部系統更新的付款狀態，最久在此時間後反映
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+}
@@ -0,0 +1,78 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+
+import lombok.Data;
+
+/**
+ * 商品查詢 API 的 HTTP 快取設定（Cache-Control）
+ *
+ * 對應 application.properties 的 ecommerce.product.http-cache.*，每個 API 各自設定；
+ * 回應一律帶 ETag / Last-Modified，過期後以條件式請求重新驗證，內容未變時回傳 304
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.product.http-cache")
+public class ProductHttpCacheProperties {
+
+    /* GET /api/products */
+    private Policy list = Policy.maxAge(Duration.ofSeconds(30));
+
+    /* GET /api/products/available（庫存變動頻繁，預設每次重新驗證） */
+    private Policy available = Policy.noCache();
+
+    /* GET /api/products/{productId} */
+    private Policy detail = Policy.maxAge(Duration.ofSeconds(10));
+
+    @Data
+    public static class Policy {
+
+        /* 瀏覽器可直接使用快取的時間（max-age），null 表示不設定 */
+        private Duration maxAge;
+
+        /* CDN 等共用快取可直接使用的時間（s-maxage），null 表示同 max-age */
+        private Duration sharedMaxAge;
+
+        /* 過期後可先回傳舊內容、同時在背景重新驗證的時間（stale-while-revalidate），null 表示不設定 */
+        private Duration staleWhileRevalidate;
+
+        /* 每次使用前都須重新驗證（no-cache），設定時忽略 max-age */
+        private boolean noCache;
+
+        /* 只允許瀏覽器快取，CDN 不可快取（private；預設為 public） */
+        private boolean privateCache;
+
+        static Policy maxAge(Duration maxAge) {
+            Policy policy = new Policy();
+            policy.setMaxAge(maxAge);
+            return policy;
+        }
+
+        static Policy noCache() {
+            Policy policy = new Policy();
+            policy.setNoCache(true);
+            return policy;
+        }
+
+        /* 轉換為 Cache-Control 標頭 */
+        public CacheControl toCacheControl() {
+            CacheControl cacheControl;
+            if (noCache) {
+                cacheControl = CacheControl.noCache();
+            } else if (maxAge != null) {
+                cacheControl = CacheControl.maxAge(maxAge);
+            } else {
+                cacheControl = CacheControl.empty();
+            }
+            if (sharedMaxAge != null) {
+                cacheControl = cacheControl.sMaxAge(sharedMaxAge);
+            }
+            if (staleWhileRevalidate != null) {
+                cacheControl = cacheControl.staleWhileRevalidate(staleWhileRevalidate);
+            }
+            return privateCache ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+        }
+    }
+}
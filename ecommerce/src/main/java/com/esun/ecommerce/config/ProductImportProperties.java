@@ -0,0 +1,21 @@
+package com.esun.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 商品批次匯入設定
+ *
+ * 對應 application.properties 的 ecommerce.product.import.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.product.import")
+public class ProductImportProperties {
+
+    /* 每個 Transaction 新增的商品數（再依 hibernate.jdbc.batch_size 分批送出） */
+    private int commitSize = 1000;
+
+    /* 回應中最多列出的錯誤數 */
+    private int maxErrors = 1000;
+}
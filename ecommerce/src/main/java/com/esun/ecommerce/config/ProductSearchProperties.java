@@ -0,0 +1,32 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 商品搜尋設定
+ *
+ * 對應 application.properties 的 ecommerce.product.search.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.product.search")
+public class ProductSearchProperties {
+
+    /* 是否啟用商品搜尋（啟動時建立記憶體索引） */
+    private boolean enabled = true;
+
+    /* 建立索引時每次向資料庫取回的筆數 */
+    private int fetchSize = 1000;
+
+    /* 建立或更新索引失敗（例如資料庫無法連線）時，重試的間隔 */
+    private Duration retryInterval = Duration.ofSeconds(30);
+
+    /* 未指定時的每頁筆數 */
+    private int defaultSize = 20;
+
+    /* 每頁筆數上限 */
+    private int maxSize = 100;
+}
@@ -0,0 +1,33 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 相同查詢合併設定（Single Flight）
+ *
+ * 對應 application.properties 的 ecommerce.coalescing.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.coalescing")
+public class RequestCoalescingProperties {
+
+    /* 是否合併同時進行的相同查詢 */
+    private boolean enabled = true;
+
+    /* 等待進行中查詢的時間上限，逾時改為自行查詢 */
+    private Duration timeout = Duration.ofSeconds(3);
+
+    /* 個別查詢的等待上限（key 為查詢名稱：product、catalog、order），未設定時使用 timeout */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /* 查詢名稱對應的等待上限 */
+    public Duration timeoutOf(String name) {
+        return timeouts.getOrDefault(name, timeout);
+    }
+}
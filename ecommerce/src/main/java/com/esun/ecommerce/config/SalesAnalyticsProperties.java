@@ -0,0 +1,51 @@
+package com.esun.ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 銷售統計設定
+ *
+ * 對應 application.properties 的 ecommerce.analytics.*
+ */
+@Data
+@ConfigurationProperties(prefix = "ecommerce.analytics")
+public class SalesAnalyticsProperties {
+
+    /* 是否啟用銷售統計（啟動時從資料庫計算一次，之後建立訂單時逐筆加入） */
+    private boolean enabled = true;
+
+    /* 從資料庫計算時每個區段涵蓋的建立時間長度（各區段平行讀取） */
+    private Duration chunkPeriod = Duration.ofDays(1);
+
+    /* 同時讀取的區段數（使用大量讀取專用連線池，超過其連線數時以連線數為準） */
+    private int parallelism = 2;
+
+    /* 每次向資料庫取回的筆數 */
+    private int fetchSize = 10_000;
+
+    /**
+     * 從資料庫計算時，只讀取此時間之前建立的訂單，之後建立的訂單逐筆加入
+     *
+     * 應大於建立訂單 Transaction 的最長時間：建立時間早於基準時間、但讀取後才提交的訂單不會被計入
+     */
+    private Duration settleWindow = Duration.ofSeconds(5);
+
+    /* 計算失敗（例如資料庫無法連線）時，重試的間隔 */
+    private Duration retryInterval = Duration.ofSeconds(30);
+
+    /* 營收查詢的期間上限（天） */
+    private int maxDays = 366;
+
+    /* 商品排名的筆數上限 */
+    private int maxTopProducts = 100;
+
+    /* 兩次比對（POST /api/analytics/reconcile）的最短間隔，每次比對都會從資料庫重新讀取所有訂單 */
+    private Duration reconcileMinInterval = Duration.ofMinutes(10);
+
+    /* 比對結果回傳不一致統計值的筆數上限 */
+    private int maxDifferences = 50;
+}
@@ -1,19 +1,29 @@
 package com.esun.ecommerce.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.esun.ecommerce.dto.request.CreateOrderRequest;
 import com.esun.ecommerce.dto.response.ApiResponse;
+import com.esun.ecommerce.dto.response.CursorPage;
 import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.service.OrderExportFormat;
+import com.esun.ecommerce.service.OrderExportService;
 import com.esun.ecommerce.service.OrderService;
 
 import jakarta.validation.Valid;
@@ -27,11 +37,16 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderController {
 
      private final OrderService orderService;
+     private final OrderExportService orderExportService;
+
      /**
      * 建立訂單
      * 
      * POST /api/orders
      * 
+     * Header（選用）：Idempotency-Key: {用戶端產生的唯一值，例如 UUID}
+     * 逾時重試時帶相同的值，只會建立一筆訂單，重複的請求回傳第一次建立的訂單
+     * 
      * Request Body:
      * {
      *   "memberId": "12345",
@@ -51,13 +66,15 @@ public class OrderController {
      */
     @PostMapping
     public ResponseEntity<ApiResponse<OrderResponse>> createOrder(
-            @Valid @RequestBody CreateOrderRequest request) {
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         
-        log.info("收到建立訂單請求，會員編號：{}，商品數量：{}", 
+        log.info("收到建立訂單請求，會員編號：{}，商品數量：{}，Idempotency-Key：{}", 
                 request.getMemberId(), 
-                request.getItems().size());
+                request.getItems().size(),
+                idempotencyKey);
         
-        OrderResponse order = orderService.createOrder(request);
+        OrderResponse order = orderService.createOrder(request, idempotencyKey);
         
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -65,22 +82,54 @@ public class OrderController {
     }
 
     /**
-     * 查詢所有訂單
+     * 查詢所有訂單（游標分頁）
      * 
-     * GET /api/orders
+     * GET /api/orders?size=20
+     * GET /api/orders?size=20&cursor={上一頁回傳的 nextCursor}
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<OrderResponse>>> getAllOrders() {
+    public ResponseEntity<ApiResponse<List<OrderResponse>>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         
         log.info("收到查詢所有訂單請求");
         
-        List<OrderResponse> orders = orderService.getAllOrders();
+        CursorPage<OrderResponse> orders = orderService.getAllOrders(cursor, size);
         
         return ResponseEntity.ok(
                 ApiResponse.success("查詢成功", orders)
         );
     }
 
+    /**
+     * 匯出訂單與明細（串流輸出，不受資料量影響）
+     * 
+     * GET /api/orders/export?format=ndjson
+     * GET /api/orders/export?format=csv&from=2025-02-01&to=2025-02-28&payStatus=1
+     * 
+     * 每列為一筆訂單明細（含訂單主檔欄位），依建立時間排序
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer payStatus) {
+        
+        log.info("收到匯出訂單請求，格式：{}，日期：{} ~ {}，付款狀態：{}", format, from, to, payStatus);
+        
+        OrderExportFormat exportFormat = OrderExportFormat.parse(format);
+        orderExportService.validate(from, to, payStatus);
+        String fileName = "orders-" + LocalDate.now() + "." + exportFormat.getExtension();
+        
+        StreamingResponseBody body = out -> orderExportService.export(exportFormat, from, to, payStatus, out);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     /**
      * 根據訂單編號查詢訂單
      * 
@@ -100,17 +149,19 @@ public class OrderController {
     }
 
     /**
-     * 根據會員編號查詢訂單
+     * 根據會員編號查詢訂單（游標分頁）
      * 
-     * GET /api/orders/member/{memberId}
+     * GET /api/orders/member/{memberId}?size=20&cursor={上一頁回傳的 nextCursor}
      */
     @GetMapping("/member/{memberId}")
     public ResponseEntity<ApiResponse<List<OrderResponse>>> getOrdersByMemberId(
-            @PathVariable String memberId) {
+            @PathVariable String memberId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         
         log.info("收到查詢會員訂單請求，會員編號：{}", memberId);
         
-        List<OrderResponse> orders = orderService.getOrdersByMemberId(memberId);
+        CursorPage<OrderResponse> orders = orderService.getOrdersByMemberId(memberId, cursor, size);
         
         return ResponseEntity.ok(
                 ApiResponse.success("查詢成功", orders)
@@ -1,20 +1,38 @@
 package com.esun.ecommerce.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import com.esun.ecommerce.cache.ProductCatalog;
+import com.esun.ecommerce.config.ProductHttpCacheProperties;
 import com.esun.ecommerce.dto.request.CreateProductRequest;
 import com.esun.ecommerce.dto.response.ApiResponse;
+import com.esun.ecommerce.dto.response.ProductImportResult;
 import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.dto.response.ProductSearchResult;
+import com.esun.ecommerce.service.ProductImportFormat;
+import com.esun.ecommerce.service.ProductImportService;
+import com.esun.ecommerce.service.ProductSearchService;
 import com.esun.ecommerce.service.ProductService;
+import com.esun.ecommerce.util.ProductVersions;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +45,9 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductSearchService productSearchService;
+    private final ProductHttpCacheProperties httpCacheProperties;
 
     /**
      * 新增商品
@@ -54,44 +75,117 @@ public class ProductController {
                 .body(ApiResponse.success("商品新增成功", product));
     }
 
+    /**
+     * 批次匯入商品（上傳檔案，受 spring.servlet.multipart.max-file-size 限制）
+     * 
+     * POST /api/products/import（multipart/form-data，欄位 file；格式依副檔名 .csv / .ndjson，或以 format 參數指定）
+     * 
+     * 每列的欄位與驗證規則同新增商品；失敗的列不影響其他列，錯誤明細列在回應的 errors
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ProductImportResult>> importProductFile(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String format) throws IOException {
+        
+        log.info("收到商品匯入請求，檔案：{}，大小：{} bytes", file.getOriginalFilename(), file.getSize());
+        
+        ProductImportFormat importFormat = format != null
+                ? ProductImportFormat.parse(format)
+                : ProductImportFormat.fromFileName(file.getOriginalFilename());
+        
+        try (InputStream in = file.getInputStream()) {
+            return imported(productImportService.importProducts(importFormat, in));
+        }
+    }
+
+    /**
+     * 批次匯入商品（請求內容直接串流讀取，不受上傳檔案大小限制）
+     * 
+     * POST /api/products/import
+     * Content-Type: text/csv
+     *   productId,productName,price,quantity
+     *   P001,商品名稱,1000.00,50
+     * 
+     * Content-Type: application/x-ndjson
+     *   {"productId":"P001","productName":"商品名稱","price":1000.00,"quantity":50}
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ApiResponse<ProductImportResult>> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        
+        log.info("收到商品匯入請求，Content-Type：{}", contentType);
+        
+        return imported(productImportService.importProducts(ProductImportFormat.fromContentType(contentType), body));
+    }
+
+    /**
+     * 搜尋商品（依商品名稱，結果依相關程度排序）
+     * 
+     * GET /api/products/search?keyword=蛋糕&inStock=true&minPrice=100&maxPrice=500&page=1&size=20
+     * 
+     * 中文以兩字一組比對（「蛋糕」可找到「草莓起司蛋糕」），英數以單字比對，最後一個字可只輸入開頭
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<ProductSearchResult>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        
+        log.info("收到搜尋商品請求，關鍵字：{}", keyword);
+        
+        ProductSearchResult result = productSearchService.search(keyword, inStock, minPrice, maxPrice, page, size);
+        
+        return ResponseEntity.ok(
+                ApiResponse.success("查詢成功", result)
+        );
+    }
+
     /**
      * 查詢所有可用商品（庫存 > 0）
      * 
      * GET /api/products/available
+     * 
+     * 回應帶 ETag / Last-Modified；If-None-Match 符合時回傳 304（列表已在快取中時不查詢資料庫、不序列化）
      */
     @GetMapping("/available")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getAvailableProducts() {
         
         log.info("收到查詢可用商品請求");
         
-        List<ProductResponse> products = productService.getAvailableProducts();
+        ProductCatalog catalog = productService.getAvailableProducts();
         
-        return ResponseEntity.ok(
-                ApiResponse.success("查詢成功", products)
-        );
+        return cacheable(httpCacheProperties.getAvailable(), catalog.getEtag(), catalog.getLastModified(),
+                catalog.getProducts());
     }
 
     /**
      * 查詢所有商品
      * 
      * GET /api/products
+     * 
+     * 回應帶 ETag / Last-Modified；If-None-Match 符合時回傳 304（列表已在快取中時不查詢資料庫、不序列化）
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getAllProducts() {
         
         log.info("收到查詢所有商品請求");
         
-        List<ProductResponse> products = productService.getAllProducts();
+        ProductCatalog catalog = productService.getAllProducts();
         
-        return ResponseEntity.ok(
-                ApiResponse.success("查詢成功", products)
-        );
+        return cacheable(httpCacheProperties.getList(), catalog.getEtag(), catalog.getLastModified(),
+                catalog.getProducts());
     }
 
     /**
      * 根據商品編號查詢商品
      * 
      * GET /api/products/{productId}
+     * 
+     * 回應帶 ETag / Last-Modified；If-None-Match 符合時回傳 304
      */
     @GetMapping("/{productId}")
     public ResponseEntity<ApiResponse<ProductResponse>> getProductById(
@@ -101,8 +195,32 @@ public class ProductController {
         
         ProductResponse product = productService.getProductById(productId);
         
-        return ResponseEntity.ok(
-                ApiResponse.success("查詢成功", product)
-        );
+        return cacheable(httpCacheProperties.getDetail(), ProductVersions.etag(product),
+                ProductVersions.lastModified(product), product);
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 加上 ETag、Last-Modified 與 Cache-Control 的查詢回應
+     * 
+     * 條件式請求（If-None-Match 優先，其次 If-Modified-Since）由 Spring MVC 比對，
+     * 內容未變時回傳 304 且不序列化回應內容
+     */
+    private <T> ResponseEntity<ApiResponse<T>> cacheable(ProductHttpCacheProperties.Policy policy, String etag,
+            Instant lastModified, T data) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(policy.toCacheControl());
+        if (lastModified != null) {
+            builder.lastModified(lastModified);
+        }
+        return builder.body(ApiResponse.success("查詢成功", data));
+    }
+
+    private ResponseEntity<ApiResponse<ProductImportResult>> imported(ProductImportResult result) {
+        return ResponseEntity.ok(ApiResponse.success(
+                String.format("商品匯入完成，成功 %d 筆，失敗 %d 筆", result.getImportedRows(), result.getFailedRows()),
+                result));
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.esun.ecommerce.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.esun.ecommerce.dto.response.ApiResponse;
+import com.esun.ecommerce.dto.response.MemberSalesResponse;
+import com.esun.ecommerce.dto.response.ProductSalesResponse;
+import com.esun.ecommerce.dto.response.SalesPeriodResponse;
+import com.esun.ecommerce.dto.response.SalesReconcileResult;
+import com.esun.ecommerce.service.SalesAnalyticsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 銷售統計 API（由記憶體內的彙總回答，不查詢資料庫）
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class SalesAnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    /**
+     * 每日 / 每小時營收
+     *
+     * GET /api/analytics/revenue?granularity=day&from=2025-02-01&to=2025-02-28
+     * GET /api/analytics/revenue?granularity=hour&from=2025-02-06&to=2025-02-06
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<ApiResponse<List<SalesPeriodResponse>>> getRevenue(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        List<SalesPeriodResponse> revenue = salesAnalyticsService.getRevenue(granularity, from, to);
+
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", revenue));
+    }
+
+    /**
+     * 銷售排名前 N 名的商品
+     *
+     * GET /api/analytics/products/top?sort=units&limit=10
+     */
+    @GetMapping("/products/top")
+    public ResponseEntity<ApiResponse<List<ProductSalesResponse>>> getTopProducts(
+            @RequestParam(defaultValue = "units") String sort,
+            @RequestParam(required = false) Integer limit) {
+
+        List<ProductSalesResponse> products = salesAnalyticsService.getTopProducts(sort, limit);
+
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", products));
+    }
+
+    /**
+     * 單一商品的銷售統計
+     *
+     * GET /api/analytics/products/{productId}
+     */
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ApiResponse<ProductSalesResponse>> getProductSales(@PathVariable String productId) {
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", salesAnalyticsService.getProductSales(productId)));
+    }
+
+    /**
+     * 會員的訂單統計
+     *
+     * GET /api/analytics/members/{memberId}
+     */
+    @GetMapping("/members/{memberId}")
+    public ResponseEntity<ApiResponse<MemberSalesResponse>> getMemberSales(@PathVariable String memberId) {
+        return ResponseEntity.ok(ApiResponse.success("查詢成功", salesAnalyticsService.getMemberSales(memberId)));
+    }
+
+    /**
+     * 從資料庫重新計算並比對（之後以重新計算的結果取代）
+     *
+     * POST /api/analytics/reconcile
+     */
+    @PostMapping("/reconcile")
+    public ResponseEntity<ApiResponse<SalesReconcileResult>> reconcile() {
+        log.info("收到銷售統計比對請求");
+
+        SalesReconcileResult result = salesAnalyticsService.reconcile();
+
+        return ResponseEntity.ok(ApiResponse.success(
+                result.isConsistent() ? "銷售統計一致" : "銷售統計不一致，已以重新計算的結果取代", result));
+    }
+}
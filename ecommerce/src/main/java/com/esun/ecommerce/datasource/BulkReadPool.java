@@ -0,0 +1,44 @@
+package com.esun.ecommerce.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 大量讀取專用的連線池（連到 primary）
+ *
+ * 訂單匯出、建立搜尋索引與 Bloom Filter 等以游標逐列讀取整張表的查詢使用，
+ * 與 API 的連線池分開：長時間的讀取不會佔用下單的連線，伺服器端游標的連線屬性也只套用在這裡
+ *
+ * 不是 DataSource Bean（避免取代 Spring Boot 預設的 DataSource），不參與 Transaction，每個查詢各自取得連線
+ */
+public class BulkReadPool implements AutoCloseable {
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkReadPool(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /* 未設定 fetch size 的 JdbcTemplate（由各查詢的 PreparedStatement 設定） */
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
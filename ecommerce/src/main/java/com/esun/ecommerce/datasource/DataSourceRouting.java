@@ -0,0 +1,35 @@
+package com.esun.ecommerce.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 讀寫分離的執行緒範圍設定
+ *
+ * onPrimary 範圍內的唯讀查詢一律使用 primary（read-your-writes：剛寫入的資料可能還沒複寫到 replica）。
+ * 未啟用讀寫分離時沒有作用
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /* 在 primary 上執行（可巢狀呼叫） */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (isPrimaryRequired()) {
+            return action.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /* 目前是否在 onPrimary 範圍內 */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,183 @@
+package com.esun.ecommerce.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 唯讀 Transaction 使用的 DataSource（LazyConnectionDataSourceProxy 的 readOnlyDataSource）
+ *
+ * 依序輪流使用可用的 replica，以下情況改用 primary：
+ * 1. 在 DataSourceRouting.onPrimary 範圍內（read-your-writes）
+ * 2. 所有 replica 都無法連線，或複寫延遲超過 maxLag（由定期健康檢查判斷）
+ * 3. 取得 replica 連線失敗（同時標記為不可用，等下次健康檢查恢復）
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas, Duration maxLag, String lagQuery,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.lagQuery = lagQuery;
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("replica 是否可供唯讀查詢使用")
+                    .tag("pool", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("最近一次健康檢查的複寫延遲（秒，-1 代表無法取得）")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceRouting.isPrimaryRequired() || replicas.isEmpty()) {
+            return primary.getConnection();
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markUnavailable(-1);
+                log.warn("replica {} 無法連線，暫停使用：{}", replica.name(), e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("ReplicaDataSource 不支援指定帳號密碼取得連線");
+    }
+
+    /**
+     * 健康檢查：可連線且複寫延遲不超過 maxLag 的 replica 才會被使用
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.datasource.routing.health-check-interval:5s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            long lag;
+            try {
+                lag = queryLag(replica.dataSource);
+            } catch (SQLException e) {
+                if (replica.markUnavailable(-1)) {
+                    log.warn("replica {} 健康檢查失敗，暫停使用：{}", replica.name(), e.getMessage());
+                }
+                continue;
+            }
+
+            if (lag < 0) {
+                if (replica.markUnavailable(lag)) {
+                    log.warn("replica {} 複寫已中斷或未設定複寫，暫停使用", replica.name());
+                }
+            } else if (lag > maxLagSeconds) {
+                if (replica.markUnavailable(lag)) {
+                    log.warn("replica {} 複寫延遲 {} 秒（上限 {} 秒），暫停使用", replica.name(), lag, maxLagSeconds);
+                }
+            } else if (replica.markAvailable(lag)) {
+                log.info("replica {} 可供使用，複寫延遲 {} 秒", replica.name(), lag);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 複寫延遲（秒）；複寫中斷或未設定複寫（查無資料）時回傳 -1 */
+    private long queryLag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return -1;
+            }
+            long lag = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+            return resultSet.wasNull() ? -1 : lag;
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    /* 單一 replica 的連線池與健康狀態（啟動後第一次健康檢查通過才開始使用） */
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean available;
+        private volatile long lagSeconds = -1;
+        private boolean checked;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return dataSource.getPoolName();
+        }
+
+        /* 回傳狀態是否改變（第一次檢查一律視為改變，記錄初始狀態） */
+        synchronized boolean markAvailable(long lag) {
+            lagSeconds = lag;
+            boolean changed = !available || !checked;
+            available = true;
+            checked = true;
+            return changed;
+        }
+
+        synchronized boolean markUnavailable(long lag) {
+            lagSeconds = lag;
+            boolean changed = available || !checked;
+            available = false;
+            checked = true;
+            return changed;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.esun.ecommerce.dto.response;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 
@@ -20,6 +21,15 @@ import lombok.NoArgsConstructor;
  *   "timestamp": "2025-02-06T10:30:00"
  * }
  * 
+ * 分頁範例（nextCursor 帶入下一次請求的 cursor 參數）：
+ * {
+ *   "success": true,
+ *   "message": "查詢成功",
+ *   "data": [...],
+ *   "nextCursor": "MjAyNS0wMi0wNlQxMDozMDowMHxNczAwMDA...",
+ *   "timestamp": "2025-02-06T10:30:00"
+ * }
+ * 
  * 失敗範例：
  * {
  *   "success": false,
@@ -39,6 +49,7 @@ public class ApiResponse<T> {
     private String message;
     private T data;
     private String errorCode;
+    private String nextCursor;  // 游標分頁：下一頁 token（最後一頁時不回傳）
 
     @Builder.Default
     private LocalDateTime timestamp = LocalDateTime.now();
@@ -66,6 +77,17 @@ public class ApiResponse<T> {
     }
 
 
+    /* 成功回應（分頁資料 + 下一頁游標）*/
+    public static <T> ApiResponse<List<T>> success(String message, CursorPage<T> page) {
+        return ApiResponse.<List<T>>builder()
+                .success(true)
+                .message(message)
+                .data(page.getItems())
+                .nextCursor(page.getNextCursor())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     /* 成功回應（無資料) */
     public static <T> ApiResponse<T> success(String message) {
         return ApiResponse.<T>builder()
@@ -0,0 +1,26 @@
+package com.esun.ecommerce.dto.response;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 會員訂單統計
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberSalesResponse {
+
+    private String memberId;
+
+    /* 訂單數 */
+    private long orders;
+
+    /* 訂單總金額 */
+    private BigDecimal revenue;
+}
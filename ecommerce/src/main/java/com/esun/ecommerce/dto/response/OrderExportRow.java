@@ -0,0 +1,24 @@
+package com.esun.ecommerce.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單匯出資料列
+ *
+ * 一列代表一筆訂單明細（含訂單主檔欄位）；沒有明細的訂單明細欄位為 null
+ */
+public record OrderExportRow(
+        String orderId,
+        String memberId,
+        BigDecimal totalPrice,
+        Integer payStatus,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long orderItemSn,
+        String productId,
+        String productName,
+        Integer quantity,
+        BigDecimal standPrice,
+        BigDecimal itemPrice) {
+}
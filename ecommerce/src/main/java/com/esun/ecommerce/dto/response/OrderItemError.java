@@ -0,0 +1,36 @@
+package com.esun.ecommerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 訂單項目驗證錯誤
+ *
+ * 範例：
+ * {
+ *   "index": 1,
+ *   "productId": "P002",
+ *   "errorCode": "INSUFFICIENT_STOCK",
+ *   "message": "商品庫存不足：網友最愛起司蛋糕，需要：60，剩餘：50"
+ * }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderItemError {
+
+    /* 項目在 items 中的位置（從 0 開始） */
+    private Integer index;
+
+    /* 商品編號 */
+    private String productId;
+
+    /* 錯誤代碼 */
+    private String errorCode;
+
+    /* 錯誤訊息 */
+    private String message;
+}
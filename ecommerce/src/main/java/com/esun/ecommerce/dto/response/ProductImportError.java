@@ -0,0 +1,36 @@
+package com.esun.ecommerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品匯入的單列錯誤
+ *
+ * 範例：
+ * {
+ *   "row": 12,
+ *   "productId": "P012",
+ *   "errorCode": "VALIDATION_ERROR",
+ *   "message": "售價必須大於 0"
+ * }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportError {
+
+    /* 資料列號（從 1 開始；CSV 不含標題列，NDJSON 為行號） */
+    private Long row;
+
+    /* 商品編號（無法解析時為 null） */
+    private String productId;
+
+    /* 錯誤代碼 */
+    private String errorCode;
+
+    /* 錯誤訊息 */
+    private String message;
+}
@@ -0,0 +1,38 @@
+package com.esun.ecommerce.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品匯入結果
+ *
+ * errors 最多回傳 ecommerce.product.import.max-errors 筆，失敗總數以 failedRows 為準
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResult {
+
+    /* 資料列數 */
+    private long totalRows;
+
+    /* 成功新增的商品數 */
+    private long importedRows;
+
+    /* 失敗列數 */
+    private long failedRows;
+
+    /* 耗時（毫秒） */
+    private long elapsedMillis;
+
+    /* 每秒處理列數 */
+    private long rowsPerSecond;
+
+    /* 失敗列的錯誤明細 */
+    private List<ProductImportError> errors;
+}
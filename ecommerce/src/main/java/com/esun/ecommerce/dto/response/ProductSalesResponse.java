@@ -0,0 +1,29 @@
+package com.esun.ecommerce.dto.response;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品銷售統計
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSalesResponse {
+
+    private String productId;
+
+    /* 包含此商品的訂單數 */
+    private long orders;
+
+    /* 售出件數 */
+    private long units;
+
+    /* 營收 */
+    private BigDecimal revenue;
+}
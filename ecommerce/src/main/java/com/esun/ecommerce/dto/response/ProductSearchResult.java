@@ -0,0 +1,26 @@
+package com.esun.ecommerce.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 商品搜尋結果（依相關程度排序）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+
+    private List<ProductResponse> items;
+
+    /* 符合條件的總筆數 */
+    private long total;
+
+    /* 頁碼（從 1 開始） */
+    private int page;
+
+    private int size;
+}
@@ -0,0 +1,31 @@
+package com.esun.ecommerce.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 每日 / 每小時營收
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesPeriodResponse {
+
+    /* 期間開始時間（每日為 00:00，每小時為整點） */
+    private LocalDateTime period;
+
+    /* 訂單數 */
+    private long orders;
+
+    /* 件數 */
+    private long units;
+
+    /* 營收 */
+    private BigDecimal revenue;
+}
@@ -0,0 +1,59 @@
+package com.esun.ecommerce.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 銷售統計與重新計算結果的比對
+ *
+ * differences 最多回傳 ecommerce.analytics.max-differences 筆，不一致總數以 differenceCount 為準
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesReconcileResult {
+
+    /* 重新計算的基準時間（讀取此時間之前建立的訂單，之後的訂單逐筆加入） */
+    private LocalDateTime cutoff;
+
+    /* 是否完全一致 */
+    private boolean consistent;
+
+    /* 不一致的統計值數（日、小時、商品、會員） */
+    private int differenceCount;
+
+    /* 重新計算的訂單數與營收 */
+    private long orders;
+    private BigDecimal revenue;
+
+    /* 重新計算的耗時（毫秒） */
+    private long elapsedMillis;
+
+    /* 不一致的統計值 */
+    private List<Difference> differences;
+
+    /**
+     * 不一致的統計值（expected 為重新計算的值，actual 為比對前的值）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Difference {
+        private String dimension;
+        private String key;
+        private long expectedOrders;
+        private long actualOrders;
+        private long expectedUnits;
+        private long actualUnits;
+        private BigDecimal expectedRevenue;
+        private BigDecimal actualRevenue;
+    }
+}
@@ -0,0 +1,54 @@
+package com.esun.ecommerce.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 建立訂單的 Idempotency-Key（讀寫由 OrderIdempotencyRepository 以 JDBC 執行）
+ *
+ * 訂單編號在登記時預先產生，建立訂單時使用同一個編號
+ */
+@Entity
+@Table(name = "order_idempotency_key")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderIdempotencyKey {
+
+    /* 處理中 */
+    public static final int PROCESSING = 0;
+
+    /* 訂單已建立 */
+    public static final int COMPLETED = 1;
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "member_id", nullable = false, length = 50)
+    private String memberId;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id", nullable = false, length = 50)
+    private String orderId;
+
+    @Column(name = "status", nullable = false)
+    private Integer status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.esun.ecommerce.event;
+
+import lombok.Getter;
+
+/**
+ * 訂單付款狀態異動事件
+ *
+ * 提交後清除該訂單的快照快取（OrderSnapshotCache）
+ */
+@Getter
+public class OrderPayStatusChangedEvent {
+
+    /* 異動的訂單編號 */
+    private final String orderId;
+
+    public OrderPayStatusChangedEvent(String orderId) {
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,27 @@
+package com.esun.ecommerce.event;
+
+import java.util.Collection;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 商品異動事件
+ *
+ * 新增商品、更新庫存、建立訂單（扣庫存）後發布，
+ * 供快取等元件在 Transaction 提交後同步更新
+ */
+@Getter
+public class ProductChangedEvent {
+
+    /* 異動的商品編號 */
+    private final List<String> productIds;
+
+    public ProductChangedEvent(Collection<String> productIds) {
+        this.productIds = List.copyOf(productIds);
+    }
+
+    public ProductChangedEvent(String productId) {
+        this.productIds = List.of(productId);
+    }
+}
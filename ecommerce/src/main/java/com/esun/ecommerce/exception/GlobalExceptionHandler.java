@@ -1,6 +1,10 @@
 package com.esun.ecommerce.exception;
 
 import com.esun.ecommerce.dto.response.ApiResponse;
+import com.esun.ecommerce.dto.response.OrderItemError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,17 +17,22 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 全域異常處理器
  * 
- * 統一處理所有異常，回傳標準的 ApiResponse 格式
+ * 統一處理所有異常，回傳標準的 ApiResponse 格式，
+ * 並依異常類型與錯誤代碼累計 api.errors（/actuator/prometheus）
  */
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     /**
      * 處理業務邏輯異常
      */
@@ -31,10 +40,28 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleBusinessException(BusinessException e) {
         log.error("業務邏輯異常：{}", e.getMessage());
         
-        ApiResponse<Void> response = ApiResponse.error(
-                e.getMessage(),
-                e.getErrorCode() != null ? e.getErrorCode() : "BUSINESS_ERROR"
-        );
+        String errorCode = e.getErrorCode() != null ? e.getErrorCode() : "BUSINESS_ERROR";
+        countError(e, errorCode);
+        ApiResponse<Void> response = ApiResponse.error(e.getMessage(), errorCode);
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    /**
+     * 處理訂單項目驗證異常（回傳每個項目的錯誤明細）
+     */
+    @ExceptionHandler(OrderValidationException.class)
+    public ResponseEntity<ApiResponse<List<OrderItemError>>> handleOrderValidationException(
+            OrderValidationException e) {
+        log.error("訂單項目驗證失敗：{}", e.getMessage());
+        
+        countError(e, e.getErrorCode());
+        ApiResponse<List<OrderItemError>> response = ApiResponse.<List<OrderItemError>>builder()
+                .success(false)
+                .message(e.getMessage())
+                .errorCode(e.getErrorCode())
+                .data(e.getErrors())
+                .build();
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
@@ -46,6 +73,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleResourceNotFoundException(ResourceNotFoundException e) {
         log.error("資源不存在：{}", e.getMessage());
         
+        countError(e, "RESOURCE_NOT_FOUND");
         ApiResponse<Void> response = ApiResponse.error(e.getMessage(), "RESOURCE_NOT_FOUND");
         
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
@@ -59,6 +87,7 @@ public class GlobalExceptionHandler {
             MethodArgumentNotValidException e) {
         log.error("參數驗證失敗：{}", e.getMessage());
         
+        countError(e, "VALIDATION_ERROR");
         Map<String, String> errors = new HashMap<>();
         e.getBindingResult().getAllErrors().forEach(error -> {
             String fieldName = ((FieldError) error).getField();
@@ -83,6 +112,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Map<String, String>>> handleBindException(BindException e) {
         log.error("參數綁定失敗：{}", e.getMessage());
         
+        countError(e, "BIND_ERROR");
         Map<String, String> errors = new HashMap<>();
         e.getBindingResult().getAllErrors().forEach(error -> {
             String fieldName = ((FieldError) error).getField();
@@ -108,6 +138,7 @@ public class GlobalExceptionHandler {
             MethodArgumentTypeMismatchException e) {
         log.error("參數類型錯誤：{}", e.getMessage());
         
+        countError(e, "TYPE_MISMATCH");
         String message = String.format("參數 '%s' 的值 '%s' 類型錯誤，應為 %s",
                 e.getName(),
                 e.getValue(),
@@ -126,6 +157,7 @@ public class GlobalExceptionHandler {
         log.error("資料庫異常：SQLState={}, ErrorCode={}, Message={}",
                 e.getSQLState(), e.getErrorCode(), e.getMessage());
         
+        countError(e, "DATABASE_ERROR");
         // 解析 SP 拋出的錯誤訊息
         String message = e.getMessage();
         if (message != null && message.contains("SQLSTATE[45000]")) {
@@ -151,6 +183,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleIllegalArgumentException(IllegalArgumentException e) {
         log.error("非法參數：{}", e.getMessage());
         
+        countError(e, "ILLEGAL_ARGUMENT");
         ApiResponse<Void> response = ApiResponse.error(e.getMessage(), "ILLEGAL_ARGUMENT");
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
@@ -163,6 +196,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleNullPointerException(NullPointerException e) {
         log.error("空指標異常", e);
         
+        countError(e, "NULL_POINTER_ERROR");
         ApiResponse<Void> response = ApiResponse.error(
                 "系統內部錯誤：資料為空",
                 "NULL_POINTER_ERROR"
@@ -178,6 +212,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleGlobalException(Exception e) {
         log.error("系統異常", e);
         
+        countError(e, "INTERNAL_SERVER_ERROR");
         ApiResponse<Void> response = ApiResponse.error(
                 "系統內部錯誤：" + e.getMessage(),
                 "INTERNAL_SERVER_ERROR"
@@ -185,4 +220,16 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
-}
\ No newline at end of file
+
+    // ========== 私有方法 ==========
+
+    /* 依異常類型與錯誤代碼累計（錯誤代碼為程式內的固定字串，不會無限增加 tag 值） */
+    private void countError(Exception e, String errorCode) {
+        Counter.builder("api.errors")
+                .description("GlobalExceptionHandler 處理的異常數")
+                .tag("exception", e.getClass().getSimpleName())
+                .tag("error.code", errorCode != null ? errorCode : "UNKNOWN")
+                .register(meterRegistry)
+                .increment();
+    }
+}
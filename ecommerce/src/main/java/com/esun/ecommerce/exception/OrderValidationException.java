@@ -0,0 +1,28 @@
+package com.esun.ecommerce.exception;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.esun.ecommerce.dto.response.OrderItemError;
+
+/**
+ * 訂單項目驗證異常
+ * 
+ * 用途：一次回報所有訂單項目的錯誤
+ * 例如：商品不存在、商品重複、庫存不足、價格不符等
+ */
+public class OrderValidationException extends BusinessException {
+
+    private final List<OrderItemError> errors;
+
+    public OrderValidationException(List<OrderItemError> errors) {
+        super(errors.stream()
+                .map(OrderItemError::getMessage)
+                .collect(Collectors.joining("；")), "ORDER_VALIDATION_ERROR");
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<OrderItemError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,112 @@
+package com.esun.ecommerce.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.esun.ecommerce.config.MetricsConfig;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.esun.ecommerce.dto.response.OrderExportRow;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * 訂單匯出查詢
+ *
+ * 以 forward-only 游標逐列讀取 order JOIN order_detail，
+ * 每讀一列就交給 callback 處理，不在記憶體中累積結果
+ *
+ * 使用大量讀取專用的連線池（BulkReadPool，MySQL 以伺服器端游標分批讀取），不佔用 API 的連線
+ */
+@Repository
+@Timed(MetricsConfig.JDBC_REPOSITORY_INVOCATIONS)
+public class OrderExportRepository {
+
+    private static final String BASE_SQL = """
+            SELECT o.order_id, o.member_id, o.total_price, o.pay_status, o.created_at, o.updated_at,
+                   od.order_item_sn, od.product_id, p.product_name, od.quantity, od.stand_price, od.item_price
+            FROM `order` o
+            LEFT JOIN order_detail od ON od.order_id = o.order_id
+            LEFT JOIN product p ON p.product_id = od.product_id
+            WHERE 1 = 1
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OrderExportRepository(BulkReadPool bulkReadPool,
+            @Value("${ecommerce.export.fetch-size:1000}") int fetchSize) {
+        // 匯出專用的 JdbcTemplate，避免 fetch size 影響其他查詢
+        JdbcTemplate streamingTemplate = new JdbcTemplate(bulkReadPool.getDataSource());
+        streamingTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+    }
+
+    /**
+     * 逐列讀取訂單與明細（依建立時間、訂單編號排序）
+     *
+     * @param from 建立時間起（含），null 表示不限
+     * @param to 建立時間迄（不含），null 表示不限
+     * @param payStatus 付款狀態，null 表示不限
+     * @param consumer 每列資料的處理方法
+     */
+    public void streamOrderRows(LocalDateTime from, LocalDateTime to, Integer payStatus,
+            Consumer<OrderExportRow> consumer) {
+        StringBuilder sql = new StringBuilder(BASE_SQL);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        // 建立時間區間（idx_created_at）
+        if (from != null) {
+            sql.append(" AND o.created_at >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND o.created_at < :to");
+            params.addValue("to", to);
+        }
+
+        // 付款狀態（idx_pay_status）
+        if (payStatus != null) {
+            sql.append(" AND o.pay_status = :payStatus");
+            params.addValue("payStatus", payStatus);
+        }
+
+        // 明細依 idx_order_id 逐筆關聯，順序即為 order_item_sn，不需再排序
+        sql.append(" ORDER BY o.created_at, o.order_id");
+
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    // ========== 私有方法 ==========
+
+    private OrderExportRow mapRow(ResultSet rs) throws SQLException {
+        long orderItemSn = rs.getLong("order_item_sn");
+        boolean hasDetail = !rs.wasNull();
+
+        return new OrderExportRow(
+                rs.getString("order_id"),
+                rs.getString("member_id"),
+                rs.getBigDecimal("total_price"),
+                rs.getInt("pay_status"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")),
+                hasDetail ? orderItemSn : null,
+                rs.getString("product_id"),
+                rs.getString("product_name"),
+                hasDetail ? rs.getInt("quantity") : null,
+                rs.getBigDecimal("stand_price"),
+                rs.getBigDecimal("item_price"));
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
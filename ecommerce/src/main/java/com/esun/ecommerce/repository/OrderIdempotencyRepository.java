@@ -0,0 +1,120 @@
+package com.esun.ecommerce.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.esun.ecommerce.config.MetricsConfig;
+import com.esun.ecommerce.entity.OrderIdempotencyKey;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 建立訂單的 Idempotency-Key 登記
+ *
+ * 每句 SQL 各自提交（不加入呼叫端的 Transaction），其他主機才看得到登記狀態；
+ * 多台主機同時登記同一個 key 時以主鍵判斷誰先登記
+ */
+@Repository
+@Timed(MetricsConfig.JDBC_REPOSITORY_INVOCATIONS)
+@RequiredArgsConstructor
+public class OrderIdempotencyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 登記 key（狀態為處理中）
+     *
+     * @return 是否登記成功，key 已存在時回傳 false
+     */
+    public boolean insert(String idempotencyKey, String memberId, String requestHash, String orderId,
+            LocalDateTime now) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO order_idempotency_key "
+                            + "(idempotency_key, member_id, request_hash, order_id, status, created_at, updated_at) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    idempotencyKey, memberId, requestHash, orderId, OrderIdempotencyKey.PROCESSING, now, now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /* 查詢 key，不存在時回傳 null */
+    public OrderIdempotencyKey find(String idempotencyKey) {
+        List<OrderIdempotencyKey> rows = jdbcTemplate.query(
+                "SELECT idempotency_key, member_id, request_hash, order_id, status, created_at, updated_at "
+                        + "FROM order_idempotency_key WHERE idempotency_key = ?",
+                (rs, rowNum) -> OrderIdempotencyKey.builder()
+                        .idempotencyKey(rs.getString("idempotency_key"))
+                        .memberId(rs.getString("member_id"))
+                        .requestHash(rs.getString("request_hash"))
+                        .orderId(rs.getString("order_id"))
+                        .status(rs.getInt("status"))
+                        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                        .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+                        .build(),
+                idempotencyKey);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /* 訂單已建立 */
+    public void complete(String idempotencyKey, String orderId, LocalDateTime now) {
+        jdbcTemplate.update(
+                "UPDATE order_idempotency_key SET status = ?, updated_at = ? "
+                        + "WHERE idempotency_key = ? AND order_id = ?",
+                OrderIdempotencyKey.COMPLETED, now, idempotencyKey, orderId);
+    }
+
+    /**
+     * 處理中的主機定期更新 updated_at，表示仍在處理（避免處理較久的請求被其他主機接手）
+     *
+     * @return 登記是否仍為處理中
+     */
+    public boolean heartbeat(String idempotencyKey, String orderId, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE order_idempotency_key SET updated_at = ? "
+                        + "WHERE idempotency_key = ? AND order_id = ? AND status = ?",
+                now, idempotencyKey, orderId, OrderIdempotencyKey.PROCESSING) > 0;
+    }
+
+    /* 建立訂單失敗，刪除處理中的登記（相同 key 重試時重新建立） */
+    public void release(String idempotencyKey, String orderId) {
+        jdbcTemplate.update(
+                "DELETE FROM order_idempotency_key WHERE idempotency_key = ? AND order_id = ? AND status = ?",
+                idempotencyKey, orderId, OrderIdempotencyKey.PROCESSING);
+    }
+
+    /**
+     * 接手處理中、但超過 staleBefore 沒有更新的登記（原本處理的主機可能已中斷）
+     *
+     * @return 是否接手成功，同時只有一台主機會成功
+     */
+    public boolean takeOver(String idempotencyKey, String orderId, LocalDateTime staleBefore, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE order_idempotency_key SET updated_at = ? "
+                        + "WHERE idempotency_key = ? AND order_id = ? AND status = ? AND updated_at < ?",
+                now, idempotencyKey, orderId, OrderIdempotencyKey.PROCESSING, staleBefore) > 0;
+    }
+
+    /* 刪除指定 key 已過期的登記 */
+    public void deleteExpired(String idempotencyKey, LocalDateTime createdBefore) {
+        jdbcTemplate.update(
+                "DELETE FROM order_idempotency_key WHERE idempotency_key = ? AND created_at < ?",
+                idempotencyKey, createdBefore);
+    }
+
+    /**
+     * 刪除所有已過期的登記
+     *
+     * @return 刪除筆數
+     */
+    public int deleteCreatedBefore(LocalDateTime createdBefore) {
+        return jdbcTemplate.update("DELETE FROM order_idempotency_key WHERE created_at < ?", createdBefore);
+    }
+}
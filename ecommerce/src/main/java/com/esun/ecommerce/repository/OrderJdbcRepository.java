@@ -0,0 +1,160 @@
+package com.esun.ecommerce.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.esun.ecommerce.config.MetricsConfig;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 訂單 JDBC 寫入
+ *
+ * 直接新增訂單主檔與明細（不扣庫存、不鎖商品列）、更新付款狀態，
+ * 須在呼叫端的 Transaction 內執行；另提供逐列讀取所有訂單編號（建立 Bloom Filter 用）
+ */
+@Repository
+@Timed(MetricsConfig.JDBC_REPOSITORY_INVOCATIONS)
+@RequiredArgsConstructor
+public class OrderJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkReadPool bulkReadPool;
+
+    /**
+     * 新增訂單主檔與明細（建立時間為資料庫目前時間）
+     *
+     * @param orderId 訂單編號
+     * @param memberId 會員編號
+     * @param items 訂單項目
+     * @return 建立時間與明細流水號
+     */
+    public PersistedOrder insertOrderWithDetails(String orderId, String memberId, List<OrderItemRequest> items) {
+        return insertOrderWithDetails(orderId, memberId, items, currentTimestamp());
+    }
+
+    /**
+     * 新增訂單主檔與明細（訂單總金額 = 各明細單價 × 數量加總）
+     *
+     * @param orderId 訂單編號
+     * @param memberId 會員編號
+     * @param items 訂單項目
+     * @param createdAt 建立時間（須取自 currentTimestamp）
+     * @return 建立時間與明細流水號
+     */
+    public PersistedOrder insertOrderWithDetails(String orderId, String memberId, List<OrderItemRequest> items,
+            LocalDateTime createdAt) {
+        BigDecimal totalPrice = items.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        insertOrder(orderId, memberId, totalPrice, createdAt);
+        List<Long> orderItemSns = insertOrderDetails(orderId, items, createdAt);
+        return new PersistedOrder(createdAt, createdAt, orderItemSns);
+    }
+
+    /**
+     * 資料庫目前時間（精確到秒）
+     *
+     * 與 sp_create_order、資料表預設值使用同一個時鐘，不受各主機時鐘誤差影響
+     * （游標分頁與銷售統計的基準時間都依 created_at 排序）
+     */
+    public LocalDateTime currentTimestamp() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class)
+                .truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /* 新增訂單主檔 */
+    public void insertOrder(String orderId, String memberId, BigDecimal totalPrice, LocalDateTime createdAt) {
+        jdbcTemplate.update(
+                "INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 0, ?, ?)",
+                orderId, memberId, totalPrice, createdAt, createdAt);
+    }
+
+    /* 批次新增訂單明細（單品項總價 = 單價 × 數量），回傳依項目順序產生的明細流水號 */
+    public List<Long> insertOrderDetails(String orderId, List<OrderItemRequest> items, LocalDateTime createdAt) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(
+                        "INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                                + "VALUES (?, ?, ?, ?, ?, ?)",
+                        new String[] { "order_item_sn" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        OrderItemRequest item = items.get(i);
+                        statement.setString(1, orderId);
+                        statement.setString(2, item.getProductId());
+                        statement.setInt(3, item.getQuantity());
+                        statement.setBigDecimal(4, item.getPrice());
+                        statement.setBigDecimal(5, item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                        statement.setObject(6, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keyHolder);
+
+        // 每列只有一個自動產生的欄位（MySQL 的欄位名稱為 GENERATED_KEY，H2 為 order_item_sn）
+        List<Long> orderItemSns = keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+        if (orderItemSns.size() != items.size()) {
+            throw new IllegalStateException(String.format("明細流水號數量不符，項目數：%d，流水號數：%d",
+                    items.size(), orderItemSns.size()));
+        }
+        return orderItemSns;
+    }
+
+    /**
+     * 更新付款狀態
+     *
+     * @param orderId 訂單編號
+     * @param payStatus 付款狀態（0：未付款、1：已付款）
+     * @return 更新筆數（訂單不存在時為 0）
+     */
+    public int updatePayStatus(String orderId, int payStatus) {
+        return jdbcTemplate.update(
+                "UPDATE `order` SET pay_status = ?, updated_at = CURRENT_TIMESTAMP WHERE order_id = ?",
+                payStatus, orderId);
+    }
+
+    /**
+     * 逐列讀取所有訂單編號（forward-only 游標，不在記憶體中累積結果）
+     *
+     * 使用大量讀取專用的連線池（BulkReadPool，MySQL 以伺服器端游標分批讀取），不參與呼叫端的 Transaction
+     *
+     * @param fetchSize 每次向資料庫取回的筆數
+     * @param consumer 每個訂單編號的處理方法
+     */
+    public void streamOrderIds(int fetchSize, Consumer<String> consumer) {
+        bulkReadPool.getJdbcTemplate().query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement("SELECT order_id FROM `order`",
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+}
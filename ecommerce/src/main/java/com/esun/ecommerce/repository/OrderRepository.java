@@ -1,10 +1,12 @@
 package com.esun.ecommerce.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,17 +14,22 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.esun.ecommerce.entity.Order;
 
+/* 查詢方法一律唯讀（啟用讀寫分離時使用 replica），寫入方法各自標註 @Transactional */
 @Repository
+@Transactional(readOnly = true)
 public interface OrderRepository extends JpaRepository<Order, String> {
 
     /**
      * 建立訂單
      * JSON格式範例: [{"productId":"P001","quantity":2,"price":98000}]
+     * 
+     * 回傳 訂單主檔 & 明細（每個明細一列，依 order_item_sn 排序）：
+     * order_id, member_id, total_price, pay_status, created_at, updated_at,
+     * order_item_sn, product_id, quantity, stand_price, item_price
      */
-    @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Transactional
     @Query(value = "CALL sp_create_order(:p_order_id, :p_member_id, :p_order_items)", nativeQuery = true)
-    void createOrder(
+    List<Object[]> createOrder(
             @Param("p_order_id") String orderId,
             @Param("p_member_id") String memberId,
             @Param("p_order_items") String orderItemsJson
@@ -44,10 +51,46 @@ public interface OrderRepository extends JpaRepository<Order, String> {
     /* 根據會員編號查詢訂單 */
     List<Order> findByMemberId(String memberId);
 
+    // ========== 游標分頁（依 created_at DESC, order_id DESC，走 idx_created_at / idx_member_created_at） ==========
+
+    /* 訂單列表第一頁 */
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<Order> findFirstPage(Limit limit);
+
+    /* 訂單列表下一頁（游標之後） */
+    @Query("SELECT o FROM Order o "
+            + "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.orderId < :orderId) "
+            + "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<Order> findPageAfter(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("orderId") String orderId,
+            Limit limit
+    );
+
+    /* 會員訂單第一頁 */
+    @Query("SELECT o FROM Order o WHERE o.memberId = :memberId ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<Order> findFirstPageByMemberId(@Param("memberId") String memberId, Limit limit);
+
+    /* 會員訂單下一頁（游標之後） */
+    @Query("SELECT o FROM Order o WHERE o.memberId = :memberId "
+            + "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.orderId < :orderId)) "
+            + "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<Order> findPageAfterByMemberId(
+            @Param("memberId") String memberId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("orderId") String orderId,
+            Limit limit
+    );
+
     /* 根據付款狀態查詢訂單 */
     List<Order> findByPayStatus(Integer payStatus);
 
-    /* 根據訂單編號查詢（含明細 */
-    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderDetails WHERE o.orderId = :orderId")
+    /* 根據訂單編號查詢（含明細與商品，一次查詢） */
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderDetails d LEFT JOIN FETCH d.product WHERE o.orderId = :orderId")
     Order findByIdWithDetails(@Param("orderId") String orderId);
+
+    /* 批次查詢多筆訂單（含明細與商品，一次查詢） */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderDetails d LEFT JOIN FETCH d.product "
+            + "WHERE o.orderId IN :orderIds")
+    List<Order> findAllWithDetailsByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
 }
@@ -0,0 +1,14 @@
+package com.esun.ecommerce.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 新增訂單後由資料庫產生的欄位（建立訂單的回應由此組成，不必重新查詢訂單）
+ *
+ * @param createdAt 訂單建立時間
+ * @param updatedAt 訂單更新時間
+ * @param orderItemSns 明細流水號（順序與訂單項目相同）
+ */
+public record PersistedOrder(LocalDateTime createdAt, LocalDateTime updatedAt, List<Long> orderItemSns) {
+}
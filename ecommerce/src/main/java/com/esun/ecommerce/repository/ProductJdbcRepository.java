@@ -0,0 +1,208 @@
+package com.esun.ecommerce.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.esun.ecommerce.config.MetricsConfig;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.esun.ecommerce.dto.request.CreateProductRequest;
+import com.esun.ecommerce.dto.response.ProductResponse;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 商品 JDBC 批次操作
+ *
+ * 不經過 JPA Persistence Context，用於大量或高頻的庫存更新
+ */
+@Repository
+@Timed(MetricsConfig.JDBC_REPOSITORY_INVOCATIONS)
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final BulkReadPool bulkReadPool;
+
+    /**
+     * 查詢多個商品的目前庫存
+     *
+     * @param productIds 商品編號
+     * @return 商品編號 → 庫存（不存在的商品不會出現在結果中）
+     */
+    public Map<String, Integer> findQuantities(Collection<String> productIds) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return quantities;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT product_id, quantity FROM product WHERE product_id IN (:productIds)",
+                Map.of("productIds", productIds),
+                rs -> {
+                    quantities.put(rs.getString("product_id"), rs.getInt("quantity"));
+                });
+        return quantities;
+    }
+
+    /**
+     * 批次扣庫存（條件式更新，庫存不足的商品不會被扣）
+     *
+     * @param decrements 商品編號 → 扣除數量
+     * @return 每個商品的更新筆數（與 decrements 的走訪順序相同），0 表示庫存不足或商品不存在
+     */
+    public int[] decrementStock(List<Map.Entry<String, Integer>> decrements) {
+        List<Object[]> args = new ArrayList<>(decrements.size());
+        for (Map.Entry<String, Integer> decrement : decrements) {
+            args.add(new Object[] { decrement.getValue(), decrement.getKey(), decrement.getValue() });
+        }
+        return jdbcTemplate.batchUpdate(
+                "UPDATE product SET quantity = quantity - ?, updated_at = CURRENT_TIMESTAMP "
+                        + "WHERE product_id = ? AND quantity >= ?",
+                args);
+    }
+
+    /**
+     * 以一句 UPDATE 扣除多個商品的庫存（條件式更新，庫存不足的商品不會被扣）
+     *
+     * UPDATE product SET quantity = quantity - CASE product_id WHEN ? THEN ? ... END
+     * WHERE product_id IN (...) AND quantity >= CASE product_id WHEN ? THEN ? ... END
+     *
+     * 回傳筆數小於商品數時代表有商品庫存不足或不存在，呼叫端須回滾 Transaction
+     *
+     * @param decrements 商品編號 → 扣除數量（商品編號不可重複）
+     * @return 實際扣除的商品數
+     */
+    public int decrementStockIfAvailable(Map<String, Integer> decrements) {
+        if (decrements.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder quantityCase = new StringBuilder("CASE product_id");
+        List<Object> caseArgs = new ArrayList<>(decrements.size() * 2);
+        decrements.forEach((productId, quantity) -> {
+            quantityCase.append(" WHEN ? THEN ?");
+            caseArgs.add(productId);
+            caseArgs.add(quantity);
+        });
+        quantityCase.append(" END");
+        String placeholders = String.join(", ", Collections.nCopies(decrements.size(), "?"));
+
+        List<Object> args = new ArrayList<>(caseArgs.size() * 2 + decrements.size());
+        args.addAll(caseArgs);
+        args.addAll(decrements.keySet());
+        args.addAll(caseArgs);
+
+        return jdbcTemplate.update(
+                "UPDATE product SET quantity = quantity - " + quantityCase + ", updated_at = CURRENT_TIMESTAMP "
+                        + "WHERE product_id IN (" + placeholders + ") AND quantity >= " + quantityCase,
+                args.toArray());
+    }
+
+    /**
+     * 查詢已存在的商品編號
+     *
+     * @param productIds 商品編號
+     * @return 其中已存在的商品編號
+     */
+    public Set<String> findExistingIds(Collection<String> productIds) {
+        Set<String> existing = new HashSet<>();
+        if (productIds.isEmpty()) {
+            return existing;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT product_id FROM product WHERE product_id IN (:productIds)",
+                Map.of("productIds", productIds),
+                rs -> {
+                    existing.add(rs.getString("product_id"));
+                });
+        return existing;
+    }
+
+    /**
+     * 批次新增商品（每 batchSize 筆送出一次；連線字串含 rewriteBatchedStatements=true 時合併成多列 INSERT）
+     *
+     * @param products 商品（商品編號不可已存在）
+     * @param batchSize 每批筆數
+     */
+    public void insertProducts(List<CreateProductRequest> products, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                products,
+                batchSize,
+                (ps, product) -> {
+                    ps.setString(1, product.getProductId());
+                    ps.setString(2, product.getProductName());
+                    ps.setBigDecimal(3, product.getPrice());
+                    ps.setInt(4, product.getQuantity());
+                });
+    }
+
+    /**
+     * 依商品編號逐列讀取所有商品（forward-only 游標，每讀一列就交給 callback 處理，不在記憶體中累積結果）
+     *
+     * 使用大量讀取專用的連線池（BulkReadPool，MySQL 以伺服器端游標分批讀取），不參與呼叫端的 Transaction
+     *
+     * @param fetchSize 每次向資料庫取回的筆數
+     * @param consumer 每個商品的處理方法
+     */
+    public void streamProducts(int fetchSize, Consumer<ProductResponse> consumer) {
+        bulkReadPool.getJdbcTemplate().query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "SELECT product_id, product_name, price, quantity, created_at, updated_at FROM product "
+                                    + "ORDER BY product_id",
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(ProductResponse.builder()
+                        .productId(rs.getString("product_id"))
+                        .productName(rs.getString("product_name"))
+                        .price(rs.getBigDecimal("price"))
+                        .quantity(rs.getInt("quantity"))
+                        .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                        .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                        .build()));
+    }
+
+    /**
+     * 逐列讀取所有商品編號（forward-only 游標，同 streamProducts）
+     *
+     * @param fetchSize 每次向資料庫取回的筆數
+     * @param consumer 每個商品編號的處理方法
+     */
+    public void streamProductIds(int fetchSize, Consumer<String> consumer) {
+        bulkReadPool.getJdbcTemplate().query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement("SELECT product_id FROM product",
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+
+    // ========== 私有方法 ==========
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -12,7 +12,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.esun.ecommerce.entity.Product;
 
+/* 查詢方法一律唯讀（啟用讀寫分離時使用 replica），寫入方法各自標註 @Transactional */
 @Repository
+@Transactional(readOnly = true)
 public interface  ProductRepository extends JpaRepository<Product, String>{
 
     /* 新增商品 */
@@ -27,8 +29,6 @@ public interface  ProductRepository extends JpaRepository<Product, String>{
     );
 
     /* 查詢可用商品 */
-    @Modifying
-    @Transactional
     @Query(value = "CALL sp_get_available_products()", nativeQuery = true)
     List<Product> getAvailableProducts();
 
@@ -37,6 +37,7 @@ public interface  ProductRepository extends JpaRepository<Product, String>{
     Product getProductById(@Param("p_product_id") String productId);
 
     /* 更新庫存 */
+    @Transactional
     @Query(value = "CALL sp_update_inventory(:p_product_id, :p_quantity)", nativeQuery = true)
     void updateInventory(
             @Param("p_product_id") String productId,
@@ -0,0 +1,104 @@
+package com.esun.ecommerce.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.esun.ecommerce.config.MetricsConfig;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 銷售統計查詢
+ *
+ * 依建立時間區段（idx_created_at）逐列讀取訂單與明細，不在記憶體中累積結果，
+ * 各區段可在不同連線上平行讀取
+ *
+ * 使用大量讀取專用的連線池（BulkReadPool，連到 primary，MySQL 以伺服器端游標分批讀取），不佔用 API 的連線
+ */
+@Repository
+@Timed(MetricsConfig.JDBC_REPOSITORY_INVOCATIONS)
+@RequiredArgsConstructor
+public class SalesAnalyticsRepository {
+
+    private final BulkReadPool bulkReadPool;
+
+    /* 訂單主檔的處理方法 */
+    @FunctionalInterface
+    public interface OrderRowHandler {
+        void accept(String memberId, LocalDateTime createdAt, BigDecimal totalPrice);
+    }
+
+    /* 訂單明細的處理方法 */
+    @FunctionalInterface
+    public interface ItemRowHandler {
+        void accept(String productId, LocalDateTime createdAt, int quantity, BigDecimal itemPrice);
+    }
+
+    /* 資料庫目前時間（精確到秒，與訂單 created_at 使用同一個時鐘） */
+    public LocalDateTime currentTimestamp() {
+        return bulkReadPool.getJdbcTemplate().queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class)
+                .truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /* 建立時間早於 before 的第一筆訂單的建立時間 */
+    public Optional<LocalDateTime> findFirstCreatedAt(LocalDateTime before) {
+        Timestamp first = bulkReadPool.getJdbcTemplate().queryForObject(
+                "SELECT MIN(created_at) FROM `order` WHERE created_at < ?", Timestamp.class, before);
+        return Optional.ofNullable(first).map(Timestamp::toLocalDateTime);
+    }
+
+    /**
+     * 逐列讀取建立時間在區段內的訂單主檔
+     *
+     * @param from 建立時間起（含）
+     * @param to 建立時間迄（不含）
+     * @param fetchSize 每次向資料庫取回的筆數
+     * @param handler 每筆訂單的處理方法
+     */
+    public void streamOrders(LocalDateTime from, LocalDateTime to, int fetchSize, OrderRowHandler handler) {
+        stream("SELECT member_id, created_at, total_price FROM `order` WHERE created_at >= ? AND created_at < ?",
+                from, to, fetchSize,
+                rs -> handler.accept(rs.getString(1), rs.getTimestamp(2).toLocalDateTime(), rs.getBigDecimal(3)));
+    }
+
+    /**
+     * 逐列讀取建立時間在區段內的訂單明細（依訂單的建立時間）
+     *
+     * @param from 訂單建立時間起（含）
+     * @param to 訂單建立時間迄（不含）
+     * @param fetchSize 每次向資料庫取回的筆數
+     * @param handler 每筆明細的處理方法
+     */
+    public void streamItems(LocalDateTime from, LocalDateTime to, int fetchSize, ItemRowHandler handler) {
+        stream("SELECT od.product_id, o.created_at, od.quantity, od.item_price "
+                        + "FROM `order` o JOIN order_detail od ON od.order_id = o.order_id "
+                        + "WHERE o.created_at >= ? AND o.created_at < ?",
+                from, to, fetchSize,
+                rs -> handler.accept(rs.getString(1), rs.getTimestamp(2).toLocalDateTime(), rs.getInt(3),
+                        rs.getBigDecimal(4)));
+    }
+
+    // ========== 私有方法 ==========
+
+    private void stream(String sql, LocalDateTime from, LocalDateTime to, int fetchSize, RowCallbackHandler handler) {
+        bulkReadPool.getJdbcTemplate().query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    ps.setObject(1, from);
+                    ps.setObject(2, to);
+                    return ps;
+                },
+                handler);
+    }
+}
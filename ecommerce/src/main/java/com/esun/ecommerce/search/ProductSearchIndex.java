@@ -0,0 +1,416 @@
+package com.esun.ecommerce.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.search.ProductSearchTokenizer.QueryTerm;
+
+/**
+ * 商品名稱倒排索引（記憶體內）
+ *
+ * 每個商品給一個遞增的文件編號（docId），每個詞記錄出現過的文件編號（由小到大排序的 int 陣列）：
+ * 1. 查詢：取出現次數最少的查詢詞為候選，再逐一確認其他查詢詞（AND）與篩選條件
+ * 2. 前綴比對：以排序的詞典（TreeSet）找出所有以該字串開頭的詞，任一詞出現即符合
+ * 3. 排序：名稱以查詢字串開頭 > 名稱包含查詢字串 > 其他，再依查詢詞佔名稱詞數的比例（名稱越短越前面），
+ *    同分依文件編號（建立索引時依商品編號讀取）；只保留 offset + limit 筆（heap），不排序全部結果
+ *
+ * 候選文件逐一檢查時只讀取以文件編號為索引的基本型別陣列（庫存、價格、詞數），依遞增順序存取；
+ * 商品名稱只在可能進入前 offset + limit 筆時才比對，名稱開頭另以「第一個詞」的倒排列表先行篩選
+ *
+ * 商品名稱不變時（庫存、價格異動）直接替換文件內容；名稱改變或刪除時舊文件標記為刪除，
+ * 其文件編號仍留在倒排列表中（查詢時略過），累積過多時由呼叫端重建索引
+ *
+ * 查詢使用讀鎖、異動使用寫鎖，可同時查詢
+ */
+public class ProductSearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /* 名稱第一個詞的倒排列表（詞前加上此字元，與一般詞共用詞典；斷詞不會產生控制字元） */
+    private static final char LEADING = '\u0001';
+
+    /* 排序：分數高的在前，同分依文件編號 */
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingInt(Hit::docId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* 詞 → 倒排列表 */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /* 排序的詞典（前綴比對用） */
+    private final NavigableSet<String> dictionary = new TreeSet<>();
+
+    /* 商品編號 → 文件編號 */
+    private final Map<String, Integer> docIds = new HashMap<>();
+
+    /* 文件編號 → 商品（已刪除為 null）、正規化後的名稱、索引詞數、庫存、價格（分） */
+    private ProductResponse[] products = new ProductResponse[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] termCounts = new int[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int nextDocId;
+
+    /**
+     * 篩選條件
+     *
+     * @param inStock 只列出庫存 > 0 的商品
+     * @param minPrice 價格下限（含），null 表示不限
+     * @param maxPrice 價格上限（含），null 表示不限
+     */
+    public record Filter(boolean inStock, BigDecimal minPrice, BigDecimal maxPrice) {
+
+        public static final Filter NONE = new Filter(false, null, null);
+    }
+
+    /**
+     * 查詢結果
+     *
+     * @param items 本頁商品
+     * @param total 符合條件的總筆數
+     */
+    public record SearchHits(List<ProductResponse> items, long total) {
+
+        public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+    }
+
+    /**
+     * 新增或更新商品
+     *
+     * @param product 商品（商品名稱、價格、庫存不可為 null）
+     */
+    public void put(ProductResponse product) {
+        String name = ProductSearchTokenizer.normalize(product.getProductName());
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIds.get(product.getProductId());
+            if (docId != null && names[docId].equals(name)) {
+                setDocument(docId, product);
+                return;
+            }
+            if (docId != null) {
+                delete(docId);
+            }
+            add(product, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除商品
+     *
+     * @param productId 商品編號
+     * @return 商品是否在索引中
+     */
+    public boolean remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIds.remove(productId);
+            if (docId == null) {
+                return false;
+            }
+            delete(docId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 索引中的商品數 */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* 已刪除但仍留在倒排列表中的文件數 */
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return nextDocId - docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查詢商品
+     *
+     * @param query 查詢字串
+     * @param filter 篩選條件
+     * @param offset 略過的筆數
+     * @param limit 回傳的筆數（大於 0）
+     * @return 本頁商品與符合條件的總筆數
+     */
+    public SearchHits search(String query, Filter filter, int offset, int limit) {
+        List<QueryTerm> terms = ProductSearchTokenizer.queryTerms(query);
+        if (terms.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+        String phrase = ProductSearchTokenizer.normalize(query).strip();
+        // 只有一個查詢詞且就是查詢字串時，符合的商品名稱一定包含查詢字串，不需再比對
+        boolean phraseImplied = terms.size() == 1 && terms.get(0).term().equals(phrase);
+        long minPrice = filter.minPrice() != null ? toCents(filter.minPrice(), RoundingMode.CEILING) : Long.MIN_VALUE;
+        long maxPrice = filter.maxPrice() != null ? toCents(filter.maxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+        double termCount = terms.size();
+
+        lock.readLock().lock();
+        try {
+            List<List<Postings>> matches = new ArrayList<>(terms.size());
+            for (QueryTerm term : terms) {
+                List<Postings> match = lookup(term.term(), term.prefix());
+                if (match.isEmpty()) {
+                    return SearchHits.EMPTY;
+                }
+                matches.add(match);
+            }
+            // 名稱以查詢字串開頭時，名稱的第一個詞一定符合第一個查詢詞
+            QueryTerm first = terms.get(0);
+            Cursor leading = new Cursor(union(lookup(LEADING + first.term(), first.prefix())));
+            matches.sort(Comparator.comparingLong(ProductSearchIndex::postingCount));
+            Postings candidates = union(matches.get(0));
+            Cursor[][] required = new Cursor[matches.size() - 1][];
+            for (int i = 1; i < matches.size(); i++) {
+                required[i - 1] = matches.get(i).stream().map(Cursor::new).toArray(Cursor[]::new);
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(RANKING.reversed());
+            int keep = offset + limit;
+            long total = 0;
+            for (int i = 0; i < candidates.size; i++) {
+                int docId = candidates.docIds[i];
+                if (products[docId] == null
+                        || (filter.inStock() && quantities[docId] <= 0)
+                        || prices[docId] < minPrice || prices[docId] > maxPrice
+                        || !containsAll(required, docId)) {
+                    continue;
+                }
+                total++;
+
+                boolean mayStartWith = leading.advanceTo(docId);
+                double coverage = Math.min(termCount / termCounts[docId], 1.0);
+                boolean full = top.size() == keep;
+                // 候選依文件編號遞增走訪，同分時先進入的排在前面，之後的文件分數須更高才能進入
+                if (full && coverage + (mayStartWith ? 3 : 2) <= top.peek().score()) {
+                    continue;
+                }
+                double score = coverage + phraseBonus(docId, phrase, mayStartWith, phraseImplied);
+                if (full) {
+                    if (score <= top.peek().score()) {
+                        continue;
+                    }
+                    top.poll();
+                }
+                top.add(new Hit(docId, score));
+            }
+            return new SearchHits(page(top, offset), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private void add(ProductResponse product, String name) {
+        int docId = nextDocId++;
+        if (docId == products.length) {
+            int capacity = products.length * 2;
+            products = Arrays.copyOf(products, capacity);
+            names = Arrays.copyOf(names, capacity);
+            termCounts = Arrays.copyOf(termCounts, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+
+        Set<String> terms = ProductSearchTokenizer.indexTerms(name);
+        for (String term : terms) {
+            addPosting(term, docId);
+        }
+        if (!terms.isEmpty()) {
+            addPosting(LEADING + terms.iterator().next(), docId);
+        }
+        names[docId] = name;
+        termCounts[docId] = Math.max(terms.size(), 1);
+        setDocument(docId, product);
+        docIds.put(product.getProductId(), docId);
+    }
+
+    private void addPosting(String term, int docId) {
+        postings.computeIfAbsent(term, t -> {
+            dictionary.add(t);
+            return new Postings();
+        }).add(docId);
+    }
+
+    private void setDocument(int docId, ProductResponse product) {
+        products[docId] = product;
+        quantities[docId] = product.getQuantity();
+        prices[docId] = toCents(product.getPrice(), RoundingMode.HALF_UP);
+    }
+
+    private void delete(int docId) {
+        products[docId] = null;
+        names[docId] = null;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    /* 詞對應的倒排列表（前綴比對時可能有多個） */
+    private List<Postings> lookup(String term, boolean prefix) {
+        if (!prefix) {
+            Postings exact = postings.get(term);
+            return exact != null ? List.of(exact) : List.of();
+        }
+        List<Postings> matched = new ArrayList<>();
+        for (String candidate : dictionary.subSet(term, true, term + Character.MAX_VALUE, false)) {
+            matched.add(postings.get(candidate));
+        }
+        return matched;
+    }
+
+    private static long postingCount(List<Postings> lists) {
+        long count = 0;
+        for (Postings list : lists) {
+            count += list.size;
+        }
+        return count;
+    }
+
+    /* 合併多個倒排列表（排序、去除重複）；只有一個時直接使用，不複製 */
+    private static Postings union(List<Postings> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        Postings merged = new Postings((int) postingCount(lists));
+        for (Postings list : lists) {
+            System.arraycopy(list.docIds, 0, merged.docIds, merged.size, list.size);
+            merged.size += list.size;
+        }
+        Arrays.sort(merged.docIds, 0, merged.size);
+        int distinct = 0;
+        for (int i = 0; i < merged.size; i++) {
+            if (distinct == 0 || merged.docIds[i] != merged.docIds[distinct - 1]) {
+                merged.docIds[distinct++] = merged.docIds[i];
+            }
+        }
+        merged.size = distinct;
+        return merged;
+    }
+
+    /* 其他查詢詞都必須出現（每個查詢詞的倒排列表任一個包含即可） */
+    private static boolean containsAll(Cursor[][] required, int docId) {
+        for (Cursor[] anyOf : required) {
+            boolean found = false;
+            for (Cursor cursor : anyOf) {
+                // 每個 cursor 都要前進到 docId，下次查詢才能從目前位置繼續
+                found |= cursor.advanceTo(docId);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* 名稱以查詢字串開頭 3 分、包含查詢字串 2 分 */
+    private int phraseBonus(int docId, String phrase, boolean mayStartWith, boolean phraseImplied) {
+        if (mayStartWith && names[docId].startsWith(phrase)) {
+            return 3;
+        }
+        if (phraseImplied || names[docId].contains(phrase)) {
+            return 2;
+        }
+        return 0;
+    }
+
+    /* heap 中是前 offset + limit 筆（最差的在頂端），排序後略過前 offset 筆 */
+    private List<ProductResponse> page(PriorityQueue<Hit> top, int offset) {
+        if (top.size() <= offset) {
+            return List.of();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        List<ProductResponse> items = new ArrayList<>(hits.size() - offset);
+        for (Hit hit : hits.subList(offset, hits.size())) {
+            items.add(products[hit.docId()]);
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private record Hit(int docId, double score) {
+    }
+
+    /**
+     * 依文件編號遞增查詢倒排列表：從上次的位置以倍增步長往後找，再於最後一段二分搜尋，
+     * 走訪所有候選時每個列表只往前掃一次，不必每次從頭二分搜尋
+     */
+    private static final class Cursor {
+
+        private final Postings postings;
+        private int at;
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        /* 前進到第一個 >= docId 的位置，回傳 docId 是否存在 */
+        boolean advanceTo(int docId) {
+            int[] ids = postings.docIds;
+            int size = postings.size;
+            if (at >= size || ids[at] >= docId) {
+                return at < size && ids[at] == docId;
+            }
+            int low = at;
+            int step = 1;
+            while (low + step < size && ids[low + step] < docId) {
+                low += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(ids, low + 1, Math.min(low + step + 1, size), docId);
+            at = found >= 0 ? found : -found - 1;
+            return found >= 0;
+        }
+    }
+
+    /* 倒排列表：遞增的文件編號（新文件的編號一定最大，直接加在尾端即維持排序） */
+    private static final class Postings {
+
+        private int[] docIds;
+        private int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            this.docIds = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int docId) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+            }
+            docIds[size++] = docId;
+        }
+    }
+}
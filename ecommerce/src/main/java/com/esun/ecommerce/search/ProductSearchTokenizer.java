@@ -0,0 +1,125 @@
+package com.esun.ecommerce.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 商品名稱斷詞
+ *
+ * 先以 NFKC 正規化（全形轉半形）並轉小寫，再依文字種類切段：
+ * 1. 中日韓文字：每兩個相鄰字元一個詞（bigram），另加上該段的最後一個字（unigram）
+ *    例如「起司蛋糕」→ 起司、司蛋、蛋糕、糕
+ * 2. 英文字母、數字：連續的字母或數字為一個詞，例如「iPhone15」→ iphone、15
+ * 3. 其他字元（空白、標點）為分隔
+ *
+ * 查詢時任一字元都能找到：出現在段落中間或開頭的字以「該字開頭的 bigram」前綴比對，
+ * 段落最後一個字則由 unigram 比對
+ */
+public final class ProductSearchTokenizer {
+
+    private ProductSearchTokenizer() {
+    }
+
+    /**
+     * 查詢詞
+     *
+     * @param term 詞
+     * @param prefix 是否以前綴比對（單一中文字、最後一個英數詞）
+     */
+    public record QueryTerm(String term, boolean prefix) {
+    }
+
+    /* 正規化：NFKC + 小寫 */
+    public static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 商品名稱的索引詞（不重複）
+     */
+    public static Set<String> indexTerms(String name) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Segment segment : segments(normalize(name))) {
+            String text = segment.text();
+            if (segment.cjk()) {
+                for (int i = 0; i + 1 < text.length(); i++) {
+                    terms.add(text.substring(i, i + 2));
+                }
+                terms.add(text.substring(text.length() - 1));
+            } else {
+                terms.add(text);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 查詢字串的查詢詞（不重複）
+     *
+     * 只有一個字的中文段落以前綴比對；最後一個英數詞也以前綴比對（輸入到一半即可找到）
+     */
+    public static List<QueryTerm> queryTerms(String query) {
+        List<Segment> segments = segments(normalize(query));
+        Set<QueryTerm> terms = new LinkedHashSet<>();
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            String text = segment.text();
+            if (!segment.cjk()) {
+                terms.add(new QueryTerm(text, s == segments.size() - 1));
+            } else if (text.length() == 1) {
+                terms.add(new QueryTerm(text, true));
+            } else {
+                for (int i = 0; i + 1 < text.length(); i++) {
+                    terms.add(new QueryTerm(text.substring(i, i + 2), false));
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 依文字種類切段（已正規化的字串） */
+    private static List<Segment> segments(String text) {
+        List<Segment> segments = new ArrayList<>();
+        int start = -1;
+        int kind = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            int current = i < text.length() ? kind(text.charAt(i)) : 0;
+            if (current != kind) {
+                if (kind != 0) {
+                    segments.add(new Segment(text.substring(start, i), kind == CJK));
+                }
+                start = i;
+                kind = current;
+            }
+        }
+        return segments;
+    }
+
+    private static final int CJK = 1;
+    private static final int LETTER = 2;
+    private static final int DIGIT = 3;
+
+    /* 0：分隔字元 */
+    private static int kind(char c) {
+        if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        if (!Character.isLetter(c)) {
+            return 0;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return switch (script) {
+            case HAN, HIRAGANA, KATAKANA, HANGUL -> CJK;
+            default -> LETTER;
+        };
+    }
+
+    private record Segment(String text, boolean cjk) {
+    }
+}
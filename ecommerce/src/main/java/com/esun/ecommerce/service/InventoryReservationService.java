@@ -0,0 +1,378 @@
+package com.esun.ecommerce.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.config.InventoryProperties;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 記憶體庫存預留（熱門商品搶購）
+ *
+ * 每個商品一個 AtomicInteger 計數器（首次使用時由 product.quantity 載入），
+ * 以 CAS 在記憶體中判斷並預留庫存，不再對同一商品列 SELECT ... FOR UPDATE 排隊。
+ *
+ * 流程：
+ * 1. reserve：預留訂單所有項目（全部成功或全部退回），庫存不足立即拒絕
+ * 2. 訂單 Transaction 提交 → confirm：轉為待寫回的扣除量
+ *    訂單 Transaction 回滾 → release：退回預留量
+ * 3. flush：定期以批次條件式 UPDATE ... WHERE quantity >= ? 寫回資料庫；關閉前持續寫回直到沒有待寫回的扣除量
+ *
+ * 計數器 = 資料庫庫存 - 待寫回扣除量 - 預留中數量，永遠不會小於 0，因此不會超賣
+ *
+ * 寫回時資料庫庫存不足（庫存被其他主機或其他路徑修改）：已提交訂單的扣除量記為差額並發出警示，
+ * 該商品暫停預留（計數器不重新載入，預留中的訂單仍依原計數器確認或退回），
+ * 之後每次 flush 重試寫回差額，資料庫庫存補足後恢復
+ */
+@Service
+@Slf4j
+public class InventoryReservationService {
+
+    /* 關閉前重試寫回的間隔 */
+    private static final Duration SHUTDOWN_RETRY_INTERVAL = Duration.ofMillis(100);
+
+    private final boolean enabled;
+    private final Duration shutdownTimeout;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /* 商品編號 → 可預留庫存 */
+    private final Map<String, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    /* 商品編號 → 已確認、待寫回資料庫的扣除量 */
+    private final Map<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    /* 商品編號 → 寫回時資料庫庫存不足的扣除量（訂單已提交；只在 flush 內修改） */
+    private final Map<String, Integer> deficits = new ConcurrentHashMap<>();
+
+    /* flush 與載入計數器互斥 */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter reservedCounter;
+    private final Counter rejectedCounter;
+    private final Counter conflictCounter;
+    private final DistributionSummary flushBatchSize;
+
+    public InventoryReservationService(InventoryProperties properties,
+            ProductJdbcRepository productJdbcRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.shutdownTimeout = properties.getShutdownTimeout();
+        this.productJdbcRepository = productJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+
+        this.reservedCounter = Counter.builder("inventory.reservation.requests")
+                .tag("result", "reserved").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("inventory.reservation.requests")
+                .tag("result", "rejected").register(meterRegistry);
+        this.conflictCounter = Counter.builder("inventory.reservation.flush.conflicts")
+                .description("寫回時資料庫庫存不足的次數（庫存被其他路徑修改）")
+                .register(meterRegistry);
+        this.flushBatchSize = DistributionSummary.builder("inventory.reservation.flush.batch.size")
+                .description("每次寫回的商品數")
+                .register(meterRegistry);
+        Gauge.builder("inventory.reservation.deficit", deficits,
+                        map -> map.values().stream().mapToInt(Integer::intValue).sum())
+                .description("已提交訂單但無法寫回資料庫的扣除量（大於 0 時需檢查庫存）")
+                .register(meterRegistry);
+    }
+
+    /* 是否啟用記憶體庫存預留 */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 預留訂單項目的庫存（全部成功或全部退回）
+     *
+     * @param items 訂單項目（同一商品不可重複）
+     * @return 預留結果，後續必須呼叫 confirm 或 release
+     * @throws BusinessException 任一商品庫存不足或不存在
+     */
+    public Reservation reserve(List<OrderItemRequest> items) {
+        loadMissing(items.stream().map(OrderItemRequest::getProductId).collect(Collectors.toSet()));
+
+        Reservation reservation = new Reservation();
+        for (OrderItemRequest item : items) {
+            AtomicInteger counter = available.get(item.getProductId());
+            if (counter == null) {
+                reservation.release();
+                rejectedCounter.increment();
+                throw new BusinessException("商品不存在：" + item.getProductId(), "PRODUCT_NOT_FOUND");
+            }
+            if (deficits.containsKey(item.getProductId())) {
+                reservation.release();
+                rejectedCounter.increment();
+                throw new BusinessException("商品庫存異常，暫停銷售：" + item.getProductId(), "INVENTORY_CONFLICT");
+            }
+            if (!tryDecrement(counter, item.getQuantity())) {
+                reservation.release();
+                rejectedCounter.increment();
+                throw new BusinessException(
+                        String.format("商品庫存不足：%s，需要：%d，剩餘：%d",
+                                item.getProductId(), item.getQuantity(), Math.max(counter.get(), 0)),
+                        "INSUFFICIENT_STOCK");
+            }
+            reservation.add(item.getProductId(), counter, item.getQuantity());
+        }
+
+        reservedCounter.increment();
+        return reservation;
+    }
+
+    /**
+     * 預留庫存並綁定目前的 Transaction：提交後確認、回滾後退回
+     *
+     * @param items 訂單項目
+     * @return 預留結果
+     */
+    public Reservation reserveForCurrentTransaction(List<OrderItemRequest> items) {
+        Reservation reservation = reserve(items);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reservation.confirm();
+            return reservation;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reservation.confirm();
+                } else {
+                    reservation.release();
+                }
+            }
+        });
+        return reservation;
+    }
+
+    /**
+     * 將待寫回的扣除量（與先前的差額）批次寫入資料庫
+     *
+     * 寫入失敗時扣除量會放回，下次再重試
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.inventory.reservation.flush-interval:50ms}")
+    public void flush() {
+        if (pending.isEmpty() && deficits.isEmpty()) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 關閉前寫回所有已確認的扣除量（寫入失敗時重試，最多等待 shutdownTimeout）
+     *
+     * 在 Web Server 停止接收請求之後執行；仍無法寫回的扣除量與差額記錄在錯誤日誌，需人工調整資料庫庫存
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        flush();
+        while (hasPending() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(SHUTDOWN_RETRY_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            flush();
+        }
+
+        if (hasPending()) {
+            log.error("關閉前庫存寫回未完成，未寫回的扣除量：{}", pending);
+        }
+        if (!deficits.isEmpty()) {
+            log.error("關閉時仍有無法寫回的庫存差額：{}", deficits);
+        }
+    }
+
+    /* 目前可預留的庫存（尚未載入時回傳 null） */
+    public Integer getAvailable(String productId) {
+        AtomicInteger counter = available.get(productId);
+        return counter != null ? counter.get() : null;
+    }
+
+    /* 無法寫回資料庫的扣除量（沒有差額時回傳 null） */
+    public Integer getDeficit(String productId) {
+        return deficits.get(productId);
+    }
+
+    // ========== 私有方法 ==========
+
+    private void doFlush() {
+        Map<String, Integer> drained = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : pending.entrySet()) {
+            int quantity = entry.getValue().getAndSet(0);
+            if (quantity > 0) {
+                drained.put(entry.getKey(), quantity);
+            }
+        }
+
+        // 先前的差額一併重試（資料庫庫存補足後即可寫入）
+        Map<String, Integer> merged = new LinkedHashMap<>(drained);
+        deficits.forEach((productId, deficit) -> merged.merge(productId, deficit, Integer::sum));
+        if (merged.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, Integer>> decrements = new ArrayList<>(merged.entrySet());
+        int[] updated;
+        try {
+            updated = transactionTemplate.execute(status -> productJdbcRepository.decrementStock(decrements));
+        } catch (RuntimeException e) {
+            log.error("庫存寫回失敗，稍後重試，商品數：{}，錯誤：{}", decrements.size(), e.getMessage());
+            drained.forEach(this::addPending);
+            return;
+        }
+
+        flushBatchSize.record(decrements.size());
+        for (int i = 0; i < decrements.size(); i++) {
+            String productId = decrements.get(i).getKey();
+            int quantity = decrements.get(i).getValue();
+            if (updated[i] == 0) {
+                // 資料庫庫存低於預期：庫存被其他主機或其他路徑修改，訂單已提交，保留為差額
+                if (deficits.put(productId, quantity) == null) {
+                    conflictCounter.increment();
+                    log.error("庫存寫回衝突，商品編號：{}，無法扣除數量：{}，暫停預留直到資料庫庫存補足", productId, quantity);
+                }
+            } else if (deficits.remove(productId) != null) {
+                log.warn("庫存差額已寫回，商品編號：{}，扣除數量：{}，恢復預留", productId, quantity);
+            }
+        }
+
+        log.debug("庫存寫回完成，商品數：{}", decrements.size());
+        try {
+            eventPublisher.publishEvent(new ProductChangedEvent(merged.keySet()));
+        } catch (RuntimeException e) {
+            // 關閉期間接收事件的 Bean 可能已銷毀，庫存已寫入，不影響結果
+            log.warn("商品異動通知失敗：{}", e.getMessage());
+        }
+    }
+
+    /* 是否還有已確認、尚未寫回的扣除量 */
+    private boolean hasPending() {
+        return pending.values().stream().anyMatch(quantity -> quantity.get() > 0);
+    }
+
+    /**
+     * 一次載入尚未快取的商品庫存（扣掉尚未寫回的扣除量）
+     *
+     * 與 flush 互斥，避免讀到「已取出扣除量但尚未寫入資料庫」的中間狀態；
+     * 每個商品只載入一次，之後不以資料庫庫存取代（預留中的數量只記在原計數器）
+     */
+    private void loadMissing(Set<String> productIds) {
+        if (available.keySet().containsAll(productIds)) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            Set<String> missing = productIds.stream()
+                    .filter(id -> !available.containsKey(id))
+                    .collect(Collectors.toSet());
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            productJdbcRepository.findQuantities(missing).forEach((productId, quantity) -> {
+                AtomicInteger unflushed = pending.get(productId);
+                int reserved = unflushed != null ? unflushed.get() : 0;
+                available.putIfAbsent(productId, new AtomicInteger(quantity - reserved));
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /* CAS 扣除，庫存不足時回傳 false 且不修改 */
+    private boolean tryDecrement(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void addPending(String productId, int quantity) {
+        pending.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(quantity);
+    }
+
+    /**
+     * 一筆訂單的庫存預留
+     *
+     * confirm 與 release 只會生效其中一個，且只生效一次
+     */
+    public final class Reservation {
+
+        private final List<String> productIds = new ArrayList<>();
+        private final List<AtomicInteger> counters = new ArrayList<>();
+        private final List<Integer> quantities = new ArrayList<>();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private void add(String productId, AtomicInteger counter, int quantity) {
+            productIds.add(productId);
+            counters.add(counter);
+            quantities.add(quantity);
+        }
+
+        /* 確認預留：轉為待寫回資料庫的扣除量 */
+        public void confirm() {
+            if (completed.compareAndSet(false, true)) {
+                for (int i = 0; i < productIds.size(); i++) {
+                    addPending(productIds.get(i), quantities.get(i));
+                }
+            }
+        }
+
+        /* 取消預留：退回到當初預留的計數器 */
+        public void release() {
+            if (completed.compareAndSet(false, true)) {
+                for (int i = 0; i < counters.size(); i++) {
+                    counters.get(i).addAndGet(quantities.get(i));
+                }
+            }
+        }
+    }
+}
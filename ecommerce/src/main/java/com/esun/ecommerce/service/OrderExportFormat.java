@@ -0,0 +1,42 @@
+package com.esun.ecommerce.service;
+
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * 訂單匯出格式
+ */
+public enum OrderExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv; charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    OrderExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 解析格式參數（不分大小寫）
+     *
+     * @throws BusinessException 不支援的格式
+     */
+    public static OrderExportFormat parse(String value) {
+        for (OrderExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BusinessException("不支援的匯出格式：" + value + "（可用：ndjson、csv）", "INVALID_EXPORT_FORMAT");
+    }
+}
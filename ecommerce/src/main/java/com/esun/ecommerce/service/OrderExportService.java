@@ -0,0 +1,205 @@
+package com.esun.ecommerce.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.esun.ecommerce.dto.response.OrderExportRow;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.OrderExportRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 訂單匯出服務
+ *
+ * 逐列讀取資料庫並直接寫入輸出串流，記憶體用量與資料筆數無關
+ * （大量讀取專用連線池的單一查詢，不開 Transaction，不佔用 API 的連線）
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] CSV_HEADER = {
+            "orderId", "memberId", "totalPrice", "payStatus", "createdAt", "updatedAt",
+            "orderItemSn", "productId", "productName", "quantity", "standPrice", "itemPrice"
+    };
+
+    private final OrderExportRepository orderExportRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 匯出訂單與明細
+     *
+     * @param format 匯出格式
+     * @param from 建立日期起（含），null 表示不限
+     * @param to 建立日期迄（含），null 表示不限
+     * @param payStatus 付款狀態，null 表示不限
+     * @param out 輸出串流
+     * @return 匯出筆數
+     */
+    public long export(OrderExportFormat format, LocalDate from, LocalDate to, Integer payStatus, OutputStream out)
+            throws IOException {
+        validate(from, to, payStatus);
+        log.info("開始匯出訂單，格式：{}，日期：{} ~ {}，付款狀態：{}", format, from, to, payStatus);
+
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        AtomicLong rows = new AtomicLong();
+
+        try {
+            if (format == OrderExportFormat.NDJSON) {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                    generator.setRootValueSeparator(null);  // 每列以換行分隔，不使用預設的空白
+                    orderExportRepository.streamOrderRows(fromTime, toTime, payStatus, row -> {
+                        writeJson(generator, row);
+                        rows.incrementAndGet();
+                    });
+                }
+            } else {
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                    writer.write('\uFEFF');  // BOM，讓 Excel 正確辨識 UTF-8 中文
+                    writeCsvLine(writer, CSV_HEADER);
+                    orderExportRepository.streamOrderRows(fromTime, toTime, payStatus, row -> {
+                        writeCsv(writer, row);
+                        rows.incrementAndGet();
+                    });
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // 用戶端中斷下載
+            throw e.getCause();
+        }
+
+        log.info("訂單匯出完成，共 {} 筆", rows.get());
+        return rows.get();
+    }
+
+    /**
+     * 驗證匯出條件
+     *
+     * 匯出內容在回應標頭送出後才以非同步方式寫出，須在開始串流前呼叫，錯誤才能以 400 回應
+     *
+     * @throws BusinessException 日期區間或付款狀態不正確時
+     */
+    public void validate(LocalDate from, LocalDate to, Integer payStatus) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BusinessException("匯出起日不可晚於迄日", "INVALID_DATE_RANGE");
+        }
+        if (payStatus != null && payStatus != 0 && payStatus != 1) {
+            throw new BusinessException("付款狀態只能為 0（未付款）或 1（已付款）", "INVALID_PAY_STATUS");
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 寫出一行 NDJSON */
+    private void writeJson(JsonGenerator generator, OrderExportRow row) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("orderId", row.orderId());
+            generator.writeStringField("memberId", row.memberId());
+            writeNumber(generator, "totalPrice", row.totalPrice());
+            generator.writeNumberField("payStatus", row.payStatus());
+            generator.writeStringField("createdAt", format(row.createdAt()));
+            generator.writeStringField("updatedAt", format(row.updatedAt()));
+            if (row.orderItemSn() != null) {
+                generator.writeNumberField("orderItemSn", row.orderItemSn());
+                generator.writeStringField("productId", row.productId());
+                generator.writeStringField("productName", row.productName());
+                generator.writeNumberField("quantity", row.quantity());
+                writeNumber(generator, "standPrice", row.standPrice());
+                writeNumber(generator, "itemPrice", row.itemPrice());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNumber(JsonGenerator generator, String name, BigDecimal value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    /* 寫出一行 CSV */
+    private void writeCsv(Writer writer, OrderExportRow row) {
+        try {
+            writeCsvLine(writer, new String[] {
+                    row.orderId(),
+                    row.memberId(),
+                    toString(row.totalPrice()),
+                    toString(row.payStatus()),
+                    format(row.createdAt()),
+                    format(row.updatedAt()),
+                    toString(row.orderItemSn()),
+                    row.productId(),
+                    row.productName(),
+                    toString(row.quantity()),
+                    toString(row.standPrice()),
+                    toString(row.itemPrice())
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    /* 含逗號、引號或換行的欄位以雙引號包住，內部引號重複一次 */
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private String format(LocalDateTime value) {
+        return value != null ? DATE_TIME_FORMATTER.format(value) : null;
+    }
+
+    private String toString(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value != null ? value.toString() : null;
+    }
+}
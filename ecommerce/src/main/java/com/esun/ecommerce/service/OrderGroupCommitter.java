@@ -0,0 +1,301 @@
+package com.esun.ecommerce.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.config.OrderProperties;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.OrderJdbcRepository;
+import com.esun.ecommerce.repository.PersistedOrder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 建立訂單的 Group Commit
+ *
+ * 每筆訂單各自 COMMIT 時，資料庫大部分時間花在寫入交易日誌（fsync）。
+ * 啟用後呼叫端把訂單放入佇列並等待，由單一寫入執行緒：
+ * 1. 收到第一筆後最多等待 linger，或湊滿 maxBatchSize 筆
+ * 2. 在同一個 Transaction 內逐筆寫入，每筆以 Savepoint 隔離（庫存不足只回滾該筆）
+ * 3. 一次 COMMIT 後，逐筆通知等待中的呼叫端成功或失敗
+ *
+ * 扣庫存以一句多列條件式 UPDATE 執行（OrderJdbcWriter）；若啟用記憶體庫存預留，
+ * 則在排入佇列前預留，提交後確認、失敗時退回
+ */
+@Service
+@Slf4j
+public class OrderGroupCommitter {
+
+    /* 佇列為空時，寫入執行緒檢查是否要停止的間隔 */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final OrderProperties.GroupCommit properties;
+    private final OrderJdbcWriter orderJdbcWriter;
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Timer commitTime;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderGroupCommitter(OrderProperties orderProperties,
+            OrderJdbcWriter orderJdbcWriter,
+            OrderJdbcRepository orderJdbcRepository,
+            InventoryReservationService inventoryReservationService,
+            DataSource dataSource,
+            MeterRegistry meterRegistry) {
+        this.properties = orderProperties.getGroupCommit();
+        this.orderJdbcWriter = orderJdbcWriter;
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        // 批次內只有 JDBC 寫入，使用 DataSourceTransactionManager 才能以 Savepoint 隔離每筆訂單
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        this.batchSize = DistributionSummary.builder("order.group.commit.batch.size")
+                .description("每次提交合併的訂單數")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("order.group.commit.queue.wait")
+                .description("訂單在佇列中等待提交的時間")
+                .register(meterRegistry);
+        this.commitTime = Timer.builder("order.group.commit.transaction")
+                .description("每批訂單的 Transaction 執行時間（含 COMMIT）")
+                .register(meterRegistry);
+    }
+
+    /* 啟用時啟動寫入執行緒 */
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("order-group-commit")
+                .daemon()
+                .start(this::runWriter);
+        log.info("訂單 Group Commit 已啟用，每批上限：{}，等待時間：{}",
+                properties.getMaxBatchSize(), properties.getLinger());
+    }
+
+    /* 停止接收新訂單，已排入佇列的訂單提交完才結束 */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join();
+        }
+    }
+
+    /* 是否啟用 Group Commit */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 排入佇列並等待所屬批次提交
+     *
+     * @param orderId 訂單編號
+     * @param request 建立訂單請求（已通過驗證）
+     * @return 建立時間與明細流水號
+     * @throws BusinessException 庫存不足、佇列已滿或寫入失敗
+     */
+    public PersistedOrder createOrder(String orderId, CreateOrderRequest request) {
+        InventoryReservationService.Reservation reservation = inventoryReservationService.isEnabled()
+                ? inventoryReservationService.reserve(request.getItems())
+                : null;
+
+        PendingOrder order = new PendingOrder(orderId, request, reservation, System.nanoTime());
+        if (!running || !queue.offer(order)) {
+            order.release();
+            throw new BusinessException("訂單處理忙碌中，請稍後再試", "ORDER_QUEUE_FULL");
+        }
+        // 寫入執行緒已在排入前結束（服務關閉中），不會再有人處理這筆訂單
+        if (!writer.isAlive() && queue.remove(order)) {
+            order.release();
+            throw new BusinessException("服務關閉中，訂單未建立：" + orderId);
+        }
+
+        try {
+            return order.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("建立訂單失敗：" + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            // 訂單仍會由寫入執行緒提交或失敗，只是呼叫端不再等待結果
+            Thread.currentThread().interrupt();
+            throw new BusinessException("等待訂單提交時被中斷，訂單編號：" + orderId);
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(properties.getMaxBatchSize());
+        long lingerNanos = properties.getLinger().toNanos();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                commit(batch);
+            } catch (InterruptedException e) {
+                log.warn("Group Commit 寫入執行緒被中斷，提交已收集的訂單後繼續");
+                commit(batch);
+            } catch (RuntimeException e) {
+                // 不讓寫入執行緒結束，否則之後的呼叫端會永遠等不到結果
+                log.error("Group Commit 發生未預期錯誤：{}", e.getMessage(), e);
+                batch.forEach(order -> order.fail(e));
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // 停止前最後一刻才排入的訂單
+        PendingOrder order;
+        while ((order = queue.poll()) != null) {
+            order.fail(new BusinessException("服務關閉中，訂單未建立：" + order.orderId));
+        }
+        log.info("訂單 Group Commit 已停止");
+    }
+
+    /**
+     * 以一個 Transaction 提交整批訂單
+     *
+     * 每筆訂單前建立 Savepoint，失敗時只回滾該筆；COMMIT 失敗則整批失敗
+     */
+    private void commit(List<PendingOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        batch.forEach(order -> queueWait.record(now - order.enqueuedAt, TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+
+        List<PendingOrder> accepted = new ArrayList<>(batch.size());
+        List<PendingOrder> rejected = new ArrayList<>();
+        List<RuntimeException> errors = new ArrayList<>();
+        try {
+            commitTime.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                // 整批訂單使用同一個資料庫時間
+                LocalDateTime createdAt = orderJdbcRepository.currentTimestamp();
+                for (PendingOrder order : batch) {
+                    Object savepoint = status.createSavepoint();
+                    try {
+                        order.persisted = persist(order, createdAt);
+                        status.releaseSavepoint(savepoint);
+                        accepted.add(order);
+                    } catch (RuntimeException e) {
+                        status.rollbackToSavepoint(savepoint);
+                        rejected.add(order);
+                        errors.add(e);
+                    }
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.error("訂單批次提交失敗，訂單數：{}，錯誤：{}", batch.size(), e.getMessage(), e);
+            BusinessException failure = new BusinessException("建立訂單失敗：" + e.getMessage());
+            batch.forEach(order -> order.fail(failure));
+            return;
+        }
+
+        accepted.forEach(PendingOrder::complete);
+        for (int i = 0; i < rejected.size(); i++) {
+            rejected.get(i).fail(errors.get(i));
+        }
+        log.debug("訂單批次提交完成，成功：{}，失敗：{}", accepted.size(), rejected.size());
+    }
+
+    /* 扣庫存（未使用記憶體預留時）並新增訂單與明細 */
+    private PersistedOrder persist(PendingOrder order, LocalDateTime createdAt) {
+        if (order.reservation == null) {
+            return orderJdbcWriter.write(order.orderId, order.request.getMemberId(), order.request.getItems(),
+                    createdAt);
+        }
+        return orderJdbcRepository.insertOrderWithDetails(order.orderId, order.request.getMemberId(),
+                order.request.getItems(), createdAt);
+    }
+
+    /**
+     * 佇列中等待提交的訂單
+     */
+    private static final class PendingOrder {
+
+        private final String orderId;
+        private final CreateOrderRequest request;
+        private final InventoryReservationService.Reservation reservation;
+        private final long enqueuedAt;
+        private final CompletableFuture<PersistedOrder> result = new CompletableFuture<>();
+
+        /* 寫入後的建立時間與明細流水號（由寫入執行緒設定，提交成功後交給呼叫端） */
+        private PersistedOrder persisted;
+
+        private PendingOrder(String orderId, CreateOrderRequest request,
+                InventoryReservationService.Reservation reservation, long enqueuedAt) {
+            this.orderId = orderId;
+            this.request = request;
+            this.reservation = reservation;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        private void complete() {
+            if (reservation != null) {
+                reservation.confirm();
+            }
+            result.complete(persisted);
+        }
+
+        private void fail(RuntimeException e) {
+            release();
+            result.completeExceptionally(e);
+        }
+
+        private void release() {
+            if (reservation != null) {
+                reservation.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.esun.ecommerce.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.esun.ecommerce.config.OrderProperties;
+import com.esun.ecommerce.datasource.DataSourceRouting;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.entity.Order;
+import com.esun.ecommerce.entity.OrderIdempotencyKey;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.exception.ResourceNotFoundException;
+import com.esun.ecommerce.repository.OrderIdempotencyRepository;
+import com.esun.ecommerce.repository.OrderRepository;
+import com.esun.ecommerce.util.OrderIdGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 建立訂單的 Idempotency-Key
+ *
+ * 用戶端逾時重試時帶相同的 Idempotency-Key，只會建立一筆訂單：
+ * 1. 本機已完成：直接回傳快取的 OrderResponse（不查資料庫）
+ * 2. 本機處理中：等待同一個請求的結果
+ * 3. 其他情況先登記到 order_idempotency_key（主鍵判斷誰先登記，跨主機有效）
+ *    - 登記成功：建立訂單，成功後標記完成；失敗時先從 primary 確認訂單是否已建立，
+ *      已建立（其他主機同時以同一個編號建立）則標記完成並回傳，未建立才刪除登記，相同 key 可重試
+ *    - 已完成：依登記的訂單編號查詢訂單回傳
+ *    - 其他主機處理中：定期查詢直到完成，超過 waitTimeout 回報處理中
+ *
+ * 處理中的主機每 heartbeatInterval 更新一次登記，
+ * 訂單編號在登記時預先產生：原本處理的主機中斷（超過 abandonAfter 沒有更新）時，
+ * 接手的請求先查詢該編號的訂單是否已建立，未建立才以同一個編號重新建立，
+ * 即使兩邊同時寫入，訂單主鍵也只允許一筆成功
+ *
+ * 相同 key 但請求內容不同（會員、商品、數量、單價）時拒絕，避免回傳其他訂單
+ */
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+    /* key 長度上限（order_idempotency_key.idempotency_key） */
+    private static final int MAX_KEY_LENGTH = 100;
+
+    /* 等待其他主機處理時，查詢登記狀態的間隔 */
+    private static final long POLL_MILLIS = 50;
+
+    private final OrderProperties.Idempotency properties;
+    private final OrderIdempotencyRepository idempotencyRepository;
+    private final OrderRepository orderRepository;
+    private final OrderIdGenerator orderIdGenerator;
+    private final MeterRegistry meterRegistry;
+
+    /* 已完成的請求（key → 請求內容雜湊 + 回應） */
+    private final Cache<String, Completed> completed;
+
+    /* 本機處理中的請求 */
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /* 本機正在建立訂單的登記（key → 訂單編號），定期更新 updated_at */
+    private final ConcurrentHashMap<String, String> held = new ConcurrentHashMap<>();
+
+    public OrderIdempotencyService(OrderProperties orderProperties,
+            OrderIdempotencyRepository idempotencyRepository,
+            OrderRepository orderRepository,
+            OrderIdGenerator orderIdGenerator,
+            MeterRegistry meterRegistry) {
+        this.properties = orderProperties.getIdempotency();
+        this.idempotencyRepository = idempotencyRepository;
+        this.orderRepository = orderRepository;
+        this.orderIdGenerator = orderIdGenerator;
+        this.meterRegistry = meterRegistry;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * 以 Idempotency-Key 建立訂單
+     *
+     * @param idempotencyKey 用戶端產生的 key（同一筆訂單的重試帶相同的值）
+     * @param request 建立訂單請求
+     * @param createOrder 以指定的訂單編號建立訂單
+     * @return 訂單回應（重複請求回傳第一次建立的訂單）
+     */
+    public OrderResponse createOrder(String idempotencyKey, CreateOrderRequest request,
+            Function<String, OrderResponse> createOrder) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(
+                    String.format("Idempotency-Key 長度必須介於 1 ~ %d", MAX_KEY_LENGTH), "INVALID_IDEMPOTENCY_KEY");
+        }
+        String requestHash = requestHash(request);
+
+        Completed done = completed.getIfPresent(idempotencyKey);
+        if (done != null) {
+            checkRequestHash(idempotencyKey, done.requestHash(), requestHash);
+            count("replayed");
+            return done.response();
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (running != null) {
+            checkRequestHash(idempotencyKey, running.requestHash(), requestHash);
+            count("joined");
+            return await(idempotencyKey, running.response());
+        }
+
+        try {
+            OrderResponse response = claimAndCreate(idempotencyKey, request, requestHash, createOrder);
+            completed.put(idempotencyKey, new Completed(requestHash, response));
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    /**
+     * 刪除過期的登記
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.order.idempotency.cleanup-interval:10m}")
+    public void deleteExpired() {
+        int deleted = idempotencyRepository.deleteCreatedBefore(now().minus(properties.getTtl()));
+        if (deleted > 0) {
+            log.info("刪除過期的 Idempotency-Key：{} 筆", deleted);
+        }
+    }
+
+    /**
+     * 更新本機正在建立訂單的登記，避免處理較久的請求被其他主機視為中斷而接手
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.order.idempotency.heartbeat-interval:15s}")
+    public void heartbeat() {
+        LocalDateTime now = now();
+        held.forEach((idempotencyKey, orderId) -> {
+            try {
+                idempotencyRepository.heartbeat(idempotencyKey, orderId, now);
+            } catch (RuntimeException e) {
+                log.warn("Idempotency-Key 更新處理狀態失敗，訂單編號：{}，錯誤：{}", orderId, e.getMessage());
+            }
+        });
+    }
+
+    /* 請求內容的 SHA-256（會員編號 + 每個項目的商品編號、數量、單價，單價不含多餘的 0） */
+    static String requestHash(CreateOrderRequest request) {
+        StringBuilder content = new StringBuilder(request.getMemberId());
+        for (OrderItemRequest item : request.getItems()) {
+            content.append('|').append(item.getProductId())
+                    .append(',').append(item.getQuantity())
+                    .append(',').append(item.getPrice().stripTrailingZeros().toPlainString());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 登記 key 後建立訂單；key 已登記時回傳已建立的訂單或等待其他主機完成 */
+    private OrderResponse claimAndCreate(String idempotencyKey, CreateOrderRequest request, String requestHash,
+            Function<String, OrderResponse> createOrder) {
+        String orderId = orderIdGenerator.nextId();
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+
+        while (true) {
+            LocalDateTime now = now();
+            if (idempotencyRepository.insert(idempotencyKey, request.getMemberId(), requestHash, orderId, now)) {
+                count("created");
+                return create(idempotencyKey, orderId, createOrder);
+            }
+
+            OrderIdempotencyKey claimed = idempotencyRepository.find(idempotencyKey);
+            if (claimed == null) {
+                // 原本處理的請求失敗並刪除登記，重新登記
+                continue;
+            }
+            if (claimed.getCreatedAt().isBefore(now.minus(properties.getTtl()))) {
+                idempotencyRepository.deleteExpired(idempotencyKey, now.minus(properties.getTtl()));
+                continue;
+            }
+            checkRequestHash(idempotencyKey, claimed.getRequestHash(), requestHash);
+
+            if (claimed.getStatus() == OrderIdempotencyKey.COMPLETED) {
+                count("replayed");
+                return findOrder(claimed.getOrderId());
+            }
+
+            if (idempotencyRepository.takeOver(idempotencyKey, claimed.getOrderId(),
+                    now.minus(properties.getAbandonAfter()), now)) {
+                log.warn("Idempotency-Key 處理中超過 {}，接手處理，訂單編號：{}",
+                        properties.getAbandonAfter(), claimed.getOrderId());
+                count("taken-over");
+                return resume(idempotencyKey, claimed.getOrderId(), createOrder);
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw inProgress(idempotencyKey);
+            }
+            sleep(idempotencyKey);
+        }
+    }
+
+    /* 建立訂單並標記完成；失敗時確認訂單是否已建立 */
+    private OrderResponse create(String idempotencyKey, String orderId, Function<String, OrderResponse> createOrder) {
+        held.put(idempotencyKey, orderId);
+        try {
+            OrderResponse response;
+            try {
+                response = createOrder.apply(orderId);
+            } catch (RuntimeException e) {
+                return recover(idempotencyKey, orderId, e);
+            }
+
+            try {
+                idempotencyRepository.complete(idempotencyKey, orderId, now());
+            } catch (RuntimeException e) {
+                // 訂單已建立：登記維持處理中，逾時後重試的請求會查到這筆訂單
+                log.warn("Idempotency-Key 標記完成失敗，訂單編號：{}，錯誤：{}", orderId, e.getMessage());
+            }
+            return response;
+        } finally {
+            held.remove(idempotencyKey, orderId);
+        }
+    }
+
+    /**
+     * 建立訂單失敗：訂單已以同一個編號建立（接手的主機與原本的主機同時寫入，或寫入成功後才失敗）時
+     * 標記完成並回傳該訂單；確認未建立才刪除登記，無法確認時保留登記，逾時後由重試的請求接手確認
+     */
+    private OrderResponse recover(String idempotencyKey, String orderId, RuntimeException failure) {
+        Order order;
+        try {
+            order = DataSourceRouting.onPrimary(() -> orderRepository.findByIdWithDetails(orderId));
+        } catch (RuntimeException e) {
+            log.warn("建立訂單失敗且無法確認訂單是否已建立，保留 Idempotency-Key 登記，訂單編號：{}，錯誤：{}",
+                    orderId, e.getMessage());
+            throw failure;
+        }
+
+        if (order == null) {
+            idempotencyRepository.release(idempotencyKey, orderId);
+            throw failure;
+        }
+        log.warn("建立訂單失敗，但訂單已建立，改為回傳該訂單，訂單編號：{}，錯誤：{}", orderId, failure.getMessage());
+        idempotencyRepository.complete(idempotencyKey, orderId, now());
+        return OrderResponse.fromEntity(order);
+    }
+
+    /* 接手中斷的請求：訂單已建立則標記完成並回傳，否則以同一個訂單編號重新建立 */
+    private OrderResponse resume(String idempotencyKey, String orderId, Function<String, OrderResponse> createOrder) {
+        Order order = DataSourceRouting.onPrimary(() -> orderRepository.findByIdWithDetails(orderId));
+        if (order == null) {
+            return create(idempotencyKey, orderId, createOrder);
+        }
+        idempotencyRepository.complete(idempotencyKey, orderId, now());
+        return OrderResponse.fromEntity(order);
+    }
+
+    /* 查詢已建立的訂單（從 primary 讀取，replica 可能還沒複寫） */
+    private OrderResponse findOrder(String orderId) {
+        Order order = DataSourceRouting.onPrimary(() -> orderRepository.findByIdWithDetails(orderId));
+        if (order == null) {
+            throw new ResourceNotFoundException("訂單不存在：" + orderId);
+        }
+        return OrderResponse.fromEntity(order);
+    }
+
+    /* 等待本機處理中的相同請求，失敗時拋出與原請求相同的異常 */
+    private OrderResponse await(String idempotencyKey, CompletableFuture<OrderResponse> response) {
+        try {
+            return response.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress(idempotencyKey);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("建立訂單失敗：" + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void sleep(String idempotencyKey) {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress(idempotencyKey);
+        }
+    }
+
+    private static void checkRequestHash(String idempotencyKey, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new BusinessException("Idempotency-Key 已用於其他訂單內容：" + idempotencyKey,
+                    "IDEMPOTENCY_KEY_REUSED");
+        }
+    }
+
+    private static BusinessException inProgress(String idempotencyKey) {
+        return new BusinessException("相同 Idempotency-Key 的訂單處理中，請稍後重試：" + idempotencyKey,
+                "IDEMPOTENCY_KEY_IN_PROGRESS");
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /* 依處理方式累計（created、replayed、joined、taken-over） */
+    private void count(String outcome) {
+        meterRegistry.counter("order.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private record Completed(String requestHash, OrderResponse response) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponse> response) {
+    }
+}
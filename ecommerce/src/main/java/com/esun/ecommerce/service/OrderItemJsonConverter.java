@@ -0,0 +1,54 @@
+package com.esun.ecommerce.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 訂單項目 JSON 轉換器
+ *
+ * 產生 sp_create_order 的 p_order_items 參數
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderItemJsonConverter {
+
+    private final ObjectMapper objectMapper;  // JSON 處理
+
+    /**
+     * 將訂單項目轉為 JSON 格式
+     *
+     * 範例：[{"productId":"P001","quantity":2,"price":98000}]
+     */
+    public String toJson(List<OrderItemRequest> items) {
+        try {
+            List<Map<String, Object>> jsonItems = items.stream()
+                    .map(item -> {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("productId", item.getProductId());
+                        map.put("quantity", item.getQuantity());
+                        map.put("price", item.getPrice());
+                        return map;
+                    })
+                    .collect(Collectors.toList());
+
+            return objectMapper.writeValueAsString(jsonItems);
+
+        } catch (JsonProcessingException e) {
+            log.error("轉換訂單項目為 JSON 失敗", e);
+            throw new BusinessException("訂單資料格式錯誤");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.esun.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderItemError;
+import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.exception.OrderValidationException;
+import com.esun.ecommerce.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 訂單項目驗證器
+ *
+ * 以一次 findAllById 查詢所有商品（不論購物車有幾個項目），
+ * 並在同一輪檢查中收集所有錯誤：
+ * 1. 商品重複
+ * 2. 商品不存在
+ * 3. 庫存不足
+ * 4. 價格不符（防止前端竄改價格）
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderItemValidator {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * 驗證訂單項目
+     *
+     * @param items 訂單項目
+     * @return 訂單中的商品（以商品編號為 key）
+     * @throws OrderValidationException 任一項目驗證失敗時，包含每個項目的錯誤明細
+     */
+    public Map<String, Product> validate(List<OrderItemRequest> items) {
+        Set<String> productIds = items.stream()
+                .map(OrderItemRequest::getProductId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        List<OrderItemError> errors = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            OrderItemRequest item = items.get(i);
+            String productId = item.getProductId();
+
+            // 檢查商品重複
+            if (!seen.add(productId)) {
+                errors.add(error(i, productId, "DUPLICATE_PRODUCT", "商品重複：" + productId));
+                continue;
+            }
+
+            // 檢查商品存在
+            Product product = products.get(productId);
+            if (product == null) {
+                errors.add(error(i, productId, "PRODUCT_NOT_FOUND", "商品不存在：" + productId));
+                continue;
+            }
+
+            // 檢查庫存
+            if (product.getQuantity() < item.getQuantity()) {
+                errors.add(error(i, productId, "INSUFFICIENT_STOCK",
+                        String.format("商品庫存不足：%s，需要：%d，剩餘：%d",
+                                product.getProductName(),
+                                item.getQuantity(),
+                                product.getQuantity())));
+            }
+
+            // 驗證價格
+            if (product.getPrice().compareTo(item.getPrice()) != 0) {
+                errors.add(error(i, productId, "PRICE_MISMATCH",
+                        String.format("商品價格不符：%s，正確價格：%s，傳入價格：%s",
+                                product.getProductName(),
+                                product.getPrice(),
+                                item.getPrice())));
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new OrderValidationException(errors);
+        }
+
+        return products;
+    }
+
+    // ========== 私有方法 ==========
+
+    private OrderItemError error(int index, String productId, String errorCode, String message) {
+        return OrderItemError.builder()
+                .index(index)
+                .productId(productId)
+                .errorCode(errorCode)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.esun.ecommerce.service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.OrderJdbcRepository;
+import com.esun.ecommerce.repository.PersistedOrder;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 以 JDBC 寫入訂單（取代 sp_create_order 的 JSON 傳遞）
+ *
+ * 每筆訂單固定 3 次資料庫呼叫，不隨項目數增加：
+ * 1. 一句多列條件式 UPDATE 扣庫存
+ * 2. 新增訂單主檔
+ * 3. 批次新增訂單明細
+ *
+ * 須在呼叫端的 Transaction 內執行：庫存不足時丟出例外，由 Transaction 回滾已扣除的庫存
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderJdbcWriter {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final OrderJdbcRepository orderJdbcRepository;
+
+    /**
+     * 扣庫存並新增訂單與明細
+     *
+     * @param orderId 訂單編號
+     * @param memberId 會員編號
+     * @param items 訂單項目（同一商品不可重複）
+     * @return 建立時間與明細流水號
+     * @throws BusinessException 任一商品庫存不足或不存在
+     */
+    public PersistedOrder write(String orderId, String memberId, List<OrderItemRequest> items) {
+        decrementStock(items);
+        return orderJdbcRepository.insertOrderWithDetails(orderId, memberId, items);
+    }
+
+    /**
+     * 扣庫存並新增訂單與明細（使用呼叫端取得的建立時間，同一批訂單只查詢一次資料庫時間）
+     *
+     * @param createdAt 建立時間（OrderJdbcRepository.currentTimestamp）
+     */
+    public PersistedOrder write(String orderId, String memberId, List<OrderItemRequest> items,
+            LocalDateTime createdAt) {
+        decrementStock(items);
+        return orderJdbcRepository.insertOrderWithDetails(orderId, memberId, items, createdAt);
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 扣庫存，有任一商品未扣除時丟出例外 */
+    private void decrementStock(List<OrderItemRequest> items) {
+        // 依商品編號排序，多筆訂單同時鎖定商品列時順序一致，避免 Deadlock
+        Map<String, Integer> decrements = new LinkedHashMap<>();
+        items.stream()
+                .sorted(Comparator.comparing(OrderItemRequest::getProductId))
+                .forEach(item -> decrements.put(item.getProductId(), item.getQuantity()));
+
+        int updated = productJdbcRepository.decrementStockIfAvailable(decrements);
+        if (updated == decrements.size()) {
+            return;
+        }
+
+        // 同一個 Transaction 內已扣除的商品讀到的是扣除後的庫存，無法判斷是哪個商品不足，
+        // 只能確認商品是否存在（訂單建立前已驗證過庫存，這裡不足代表被其他訂單搶先）
+        Map<String, Integer> quantities = productJdbcRepository.findQuantities(decrements.keySet());
+        for (String productId : decrements.keySet()) {
+            if (!quantities.containsKey(productId)) {
+                throw new BusinessException("商品不存在：" + productId, "PRODUCT_NOT_FOUND");
+            }
+        }
+        throw new BusinessException("商品庫存不足，請重新確認訂單商品：" + String.join("、", decrements.keySet()),
+                "INSUFFICIENT_STOCK");
+    }
+}
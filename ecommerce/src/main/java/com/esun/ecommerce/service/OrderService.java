@@ -1,27 +1,40 @@
 package com.esun.ecommerce.service;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.esun.ecommerce.cache.ExistingIdFilter;
+import com.esun.ecommerce.cache.OrderSnapshotCache;
+import com.esun.ecommerce.config.OrderProperties;
 import com.esun.ecommerce.dto.request.CreateOrderRequest;
 import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.CursorPage;
 import com.esun.ecommerce.dto.response.OrderResponse;
 import com.esun.ecommerce.entity.Order;
 import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.event.OrderPayStatusChangedEvent;
+import com.esun.ecommerce.event.ProductChangedEvent;
 import com.esun.ecommerce.exception.BusinessException;
 import com.esun.ecommerce.exception.ResourceNotFoundException;
+import com.esun.ecommerce.repository.OrderJdbcRepository;
 import com.esun.ecommerce.repository.OrderRepository;
-import com.esun.ecommerce.repository.ProductRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.esun.ecommerce.repository.PersistedOrder;
+import com.esun.ecommerce.util.OrderCursor;
+import com.esun.ecommerce.util.OrderIdGenerator;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,106 +44,176 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
-    private final ObjectMapper objectMapper;  // JSON 處理
+    private final OrderItemValidator orderItemValidator;
+    private final OrderIdGenerator orderIdGenerator;
+    private final OrderProperties orderProperties;
+    private final InventoryReservationService inventoryReservationService;
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final OrderJdbcWriter orderJdbcWriter;
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final OrderSnapshotCache orderSnapshotCache;
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final ExistingIdFilter existingIdFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderItemJsonConverter orderItemJsonConverter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
 
     /**
      * 建立訂單（調用 SP，含 Transaction）
      * 
      * 核心流程：
-     * 1. 驗證所有商品存在且庫存足夠
+     * 1. 驗證所有商品存在且庫存足夠（錯誤時回報每個項目的問題）
      * 2. 生成訂單編號
      * 3. 將訂單項目轉為 JSON
      * 4. 調用 SP（SP 內會自動扣庫存 + 新增訂單 + 新增明細）
+     *    設定 ecommerce.order.persistence=jdbc-batch 時改為：JDBC 扣庫存 + 新增訂單 + 批次新增明細
+     *    啟用庫存預留時改為：記憶體預留庫存 + JDBC 新增訂單與明細（不鎖商品列）
+     *    啟用 Group Commit 時改為：排入佇列，與同時進來的訂單合併成一個 Transaction 提交
+     * 5. 以驗證時取得的商品、計算的金額與寫入後取得的建立時間、明細流水號組成回應（不再查詢訂單），
+     *    並放入訂單快照快取、加入銷售統計
+     * 
+     * Transaction 只包住寫入步驟：Group Commit 等待期間不佔用連線
+     * 
+     * 步驟 3 ~ 5 的耗時記錄在 order.create（tag：persistence 寫入方式、outcome 成功或失敗）
      * 
      * @param request 建立訂單請求
      * @return 訂單回應
      */
-    @Transactional(rollbackFor = Exception.class)
     public OrderResponse createOrder(CreateOrderRequest request) {
         log.info("開始建立訂單，會員編號：{}，商品數量：{}", request.getMemberId(), request.getItems().size());
 
-        // 1. 驗證商品存在且庫存足夠
-        validateOrderItems(request.getItems());
+        // 1. 驗證商品存在且庫存足夠（一次查詢所有商品）
+        Map<String, Product> products = orderItemValidator.validate(request.getItems());
 
-        // 2. 生成訂單編號（格式：Ms + yyyyMMddHHmmss）
-        String orderId = generateOrderId();
+        // 2. 生成訂單編號（格式：Ms + 19 位數字，同一秒內不會重複）
+        String orderId = orderIdGenerator.nextId();
         log.info("生成訂單編號：{}", orderId);
 
-        // 3. 將訂單項目轉為 JSON 格式
-        String orderItemsJson = convertOrderItemsToJson(request.getItems());
-        log.info("訂單項目 JSON：{}", orderItemsJson);
-
-        try {
-            // 4. 調用 SP 建立訂單（SP 內包含 Transaction）
-            orderRepository.createOrder(orderId, request.getMemberId(), orderItemsJson);
-
-            log.info("訂單建立成功，訂單編號：{}", orderId);
+        return persistAndRespond(orderId, request, products);
+    }
 
-            // 5. 查詢剛建立的訂單並回傳
-            Order order = orderRepository.findByIdWithDetails(orderId);
-            if (order == null) {
-                throw new ResourceNotFoundException("訂單建立後查詢失敗");
-            }
+    /**
+     * 建立訂單（帶 Idempotency-Key）
+     * 
+     * 相同 key 的重複請求不會再驗證與寫入，回傳第一次建立的訂單（見 OrderIdempotencyService）；
+     * 訂單編號在登記 key 時預先產生
+     * 
+     * @param request 建立訂單請求
+     * @param idempotencyKey Idempotency-Key，null 時與 createOrder(request) 相同
+     * @return 訂單回應
+     */
+    public OrderResponse createOrder(CreateOrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createOrder(request);
+        }
 
-            return OrderResponse.fromEntity(order);
+        return orderIdempotencyService.createOrder(idempotencyKey, request, orderId -> {
+            log.info("開始建立訂單，會員編號：{}，商品數量：{}，訂單編號：{}",
+                    request.getMemberId(), request.getItems().size(), orderId);
 
-        } catch (Exception e) {
-            log.error("建立訂單失敗，訂單編號：{}，錯誤：{}", orderId, e.getMessage(), e);
-            throw new BusinessException("建立訂單失敗：" + e.getMessage());
-        }
+            Map<String, Product> products = orderItemValidator.validate(request.getItems());
+            return persistAndRespond(orderId, request, products);
+        });
     }
 
     /**
      * 查詢訂單詳情
      * 
+     * 一定不存在的訂單編號由 ExistingIdFilter 擋下，不查詢資料庫；
+     * 訂單明細建立後不再異動，查詢結果放入 OrderSnapshotCache（付款狀態異動時清除），
+     * 同一筆訂單同時未命中時合併成一次查詢。
+     * 訂單、明細與商品以一次 JOIN FETCH 載入，轉換時不需要 Transaction；
+     * 不開 Transaction，等待合併結果的請求才不會佔用連線
+     * 
      * @param orderId 訂單編號
      * @return 訂單回應
      */
-    @Transactional(readOnly = true)
     public OrderResponse getOrderById(String orderId) {
         log.info("查詢訂單，訂單編號：{}", orderId);
 
-        Order order = orderRepository.findByIdWithDetails(orderId);
+        if (!existingIdFilter.mightContainOrder(orderId)) {
+            throw new ResourceNotFoundException("訂單不存在：" + orderId);
+        }
+
+        OrderResponse order = orderSnapshotCache.getOrder(orderId,
+                id -> OrderResponse.fromEntity(orderRepository.findByIdWithDetails(id)));
         if (order == null) {
+            existingIdFilter.orderNotFound(orderId);
             throw new ResourceNotFoundException("訂單不存在：" + orderId);
         }
 
-        return OrderResponse.fromEntity(order);
+        return order;
     }
 
     /**
-     * 查詢所有訂單
+     * 更新付款狀態
      * 
-     * @return 訂單列表
+     * 提交後清除該筆訂單的快照快取（OrderPayStatusChangedEvent）
+     * 
+     * @param orderId 訂單編號
+     * @param payStatus 付款狀態（0：未付款、1：已付款）
+     * @return 更新後的訂單回應
      */
-    @Transactional(readOnly = true)
-    public List<OrderResponse> getAllOrders() {
-        log.info("查詢所有訂單");
+    @Transactional
+    public OrderResponse updatePayStatus(String orderId, int payStatus) {
+        log.info("更新付款狀態，訂單編號：{}，付款狀態：{}", orderId, payStatus);
 
-        List<Order> orders = orderRepository.getAllOrders();
+        if (orderJdbcRepository.updatePayStatus(orderId, payStatus) == 0) {
+            throw new ResourceNotFoundException("訂單不存在：" + orderId);
+        }
+        eventPublisher.publishEvent(new OrderPayStatusChangedEvent(orderId));
 
-        return orders.stream()
-                .map(OrderResponse::fromEntity)
-                .collect(Collectors.toList());
+        return OrderResponse.fromEntity(orderRepository.findByIdWithDetails(orderId));
     }
 
     /**
-     * 根據會員編號查詢訂單
+     * 查詢所有訂單（游標分頁，依建立時間新到舊）
      * 
-     * @param memberId 會員編號
-     * @return 訂單列表
+     * @param cursor 上一頁回傳的 nextCursor，第一頁傳 null
+     * @param size 每頁筆數，null 時使用預設值
+     * @return 訂單分頁
      */
     @Transactional(readOnly = true)
-    public List<OrderResponse> getOrdersByMemberId(String memberId) {
-        log.info("查詢會員訂單，會員編號：{}", memberId);
+    public CursorPage<OrderResponse> getAllOrders(String cursor, Integer size) {
+        log.info("查詢所有訂單，游標：{}，每頁筆數：{}", cursor, size);
+
+        Limit limit = pageLimit(size);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPage(limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(after.createdAt(), after.orderId(), limit);
+        }
 
-        List<Order> orders = orderRepository.findByMemberId(memberId);
+        return toPage(orders, limit);
+    }
 
-        return orders.stream()
-                .map(OrderResponse::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * 根據會員編號查詢訂單（游標分頁，依建立時間新到舊）
+     * 
+     * @param memberId 會員編號
+     * @param cursor 上一頁回傳的 nextCursor，第一頁傳 null
+     * @param size 每頁筆數，null 時使用預設值
+     * @return 訂單分頁
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrdersByMemberId(String memberId, String cursor, Integer size) {
+        log.info("查詢會員訂單，會員編號：{}，游標：{}，每頁筆數：{}", memberId, cursor, size);
+
+        Limit limit = pageLimit(size);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPageByMemberId(memberId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfterByMemberId(memberId, after.createdAt(), after.orderId(), limit);
+        }
+
+        return toPage(orders, limit);
     }
 
 
@@ -138,64 +221,179 @@ public class OrderService {
 
     // ========== 私有方法 ==========
 
-
-    /* 驗證訂單項目（商品存在 + 庫存足夠）*/
-    private void validateOrderItems(List<OrderItemRequest> items) {
-        for (OrderItemRequest item : items) {
-            // 查詢商品
-            Product product = productRepository.findById(item.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("商品不存在：" + item.getProductId()));
-
-            // 檢查庫存
-            if (product.getQuantity() < item.getQuantity()) {
-                throw new BusinessException(
-                        String.format("商品庫存不足：%s，需要：%d，剩餘：%d",
-                                product.getProductName(),
-                                item.getQuantity(),
-                                product.getQuantity())
-                );
+    /**
+     * 寫入訂單（步驟 3 ~ 4），並組成剛建立的訂單回傳（步驟 5）
+     */
+    private OrderResponse persistAndRespond(String orderId, CreateOrderRequest request,
+            Map<String, Product> products) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        // 寫入前放入編號 Bloom Filter（寫入失敗只會多一個誤判），建立完成後立即可查詢
+        existingIdFilter.addOrder(orderId);
+        try {
+            PersistedOrder persisted;
+            if (orderGroupCommitter.isEnabled()) {
+                // 3~4. 排入 Group Commit 佇列，等待所屬批次提交
+                persisted = orderGroupCommitter.createOrder(orderId, request);
+            } else {
+                persisted = transactionTemplate.execute(status -> persistOrder(orderId, request));
             }
 
-            // 驗證價格（防止前端竄改價格）
-            if (product.getPrice().compareTo(item.getPrice()) != 0) {
-                throw new BusinessException(
-                        String.format("商品價格不符：%s，正確價格：%s，傳入價格：%s",
-                                product.getProductName(),
-                                product.getPrice(),
-                                item.getPrice())
-                );
-            }
+            log.info("訂單建立成功，訂單編號：{}", orderId);
+
+            // 庫存已異動，提交後清除商品快取
+            eventPublisher.publishEvent(new ProductChangedEvent(request.getItems().stream()
+                    .map(OrderItemRequest::getProductId)
+                    .collect(Collectors.toSet())));
+
+            // 5. 組成訂單回應（內容與 getOrderById 查詢的結果相同）
+            OrderResponse response = toCreatedResponse(orderId, request, products, persisted);
+            orderSnapshotCache.put(response);
+            salesAnalyticsService.recordOrder(response);
+
+            outcome = "success";
+            return response;
+
+        } catch (BusinessException e) {
+            log.warn("建立訂單失敗，訂單編號：{}，錯誤：{}", orderId, e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("建立訂單失敗，訂單編號：{}，錯誤：{}", orderId, e.getMessage(), e);
+            throw new BusinessException("建立訂單失敗：" + e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("order.create", "persistence", persistenceMode(), "outcome", outcome));
         }
     }
 
-    /* 生成訂單編號（格式：Ms20250206143055）*/
-    private String generateOrderId() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-        return "Ms" + LocalDateTime.now().format(formatter);
+    /* order.create 的 persistence tag，與 createOrder / persistOrder 的分支一致 */
+    private String persistenceMode() {
+        if (orderGroupCommitter.isEnabled()) {
+            return "group-commit";
+        }
+        if (inventoryReservationService.isEnabled()) {
+            return "reservation";
+        }
+        return orderProperties.getPersistence() == OrderProperties.Persistence.JDBC_BATCH ? "jdbc-batch" : "sp";
+    }
+
+    /* 檢查每頁筆數，多查一筆用來判斷是否還有下一頁 */
+    private Limit pageLimit(Integer size) {
+        OrderProperties.Page page = orderProperties.getPage();
+        int pageSize = size != null ? size : page.getDefaultSize();
+        if (pageSize < 1 || pageSize > page.getMaxSize()) {
+            throw new BusinessException(
+                    String.format("每頁筆數必須介於 1 ~ %d，傳入：%d", page.getMaxSize(), pageSize),
+                    "INVALID_PAGE_SIZE");
+        }
+        return Limit.of(pageSize + 1);
     }
 
     /**
-     * 將訂單項目轉為 JSON 格式
+     * 轉換為分頁結果（只保留 size 筆，多出的一筆代表還有下一頁）
      * 
-     * 範例：[{"productId":"P001","quantity":2,"price":98000}]
+     * 整頁訂單的明細與商品以一次 JOIN FETCH 載入（同一個 Persistence Context 內會填入這些訂單），
+     * 轉換時不會再逐筆 lazy load，每頁固定 2 次查詢
      */
-    private String convertOrderItemsToJson(List<OrderItemRequest> items) {
-        try {
-            List<Map<String, Object>> jsonItems = items.stream()
-                    .map(item -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("productId", item.getProductId());
-                        map.put("quantity", item.getQuantity());
-                        map.put("price", item.getPrice());
-                        return map;
-                    })
-                    .collect(Collectors.toList());
-
-            return objectMapper.writeValueAsString(jsonItems);
-
-        } catch (JsonProcessingException e) {
-            log.error("轉換訂單項目為 JSON 失敗", e);
-            throw new BusinessException("訂單資料格式錯誤");
+    private CursorPage<OrderResponse> toPage(List<Order> orders, Limit limit) {
+        int pageSize = limit.max() - 1;
+        boolean hasNext = orders.size() > pageSize;
+        List<Order> pageOrders = hasNext ? orders.subList(0, pageSize) : orders;
+
+        if (!pageOrders.isEmpty()) {
+            orderRepository.findAllWithDetailsByOrderIdIn(pageOrders.stream()
+                    .map(Order::getOrderId)
+                    .collect(Collectors.toList()));
+        }
+
+        List<OrderResponse> items = pageOrders.stream()
+                .map(OrderResponse::fromEntity)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? OrderCursor.of(pageOrders.get(pageSize - 1)).encode() : null;
+
+        return new CursorPage<>(items, nextCursor);
+    }
+
+
+    /**
+     * 寫入單筆訂單（在呼叫端的 Transaction 內執行）
+     *
+     * 啟用庫存預留時：預留與 Transaction 綁定，寫入訂單失敗回滾時預留的庫存會自動退回，
+     * 扣庫存由 InventoryReservationService 批次寫回
+     *
+     * @return 建立時間與明細流水號
+     */
+    private PersistedOrder persistOrder(String orderId, CreateOrderRequest request) {
+        if (inventoryReservationService.isEnabled()) {
+            // 3~4. 記憶體預留庫存（提交後確認、失敗則退回），訂單與明細以 JDBC 寫入
+            inventoryReservationService.reserveForCurrentTransaction(request.getItems());
+            return orderJdbcRepository.insertOrderWithDetails(orderId, request.getMemberId(), request.getItems());
+        }
+
+        if (orderProperties.getPersistence() == OrderProperties.Persistence.JDBC_BATCH) {
+            // 3~4. 一句 UPDATE 扣庫存 + 批次新增明細（不經過 JSON）
+            return orderJdbcWriter.write(orderId, request.getMemberId(), request.getItems());
+        }
+
+        // 3. 將訂單項目轉為 JSON 格式
+        String orderItemsJson = orderItemJsonConverter.toJson(request.getItems());
+        // 完整 JSON 只在 DEBUG 輸出（購物車較大時一行可達數 KB）
+        log.debug("訂單項目 JSON：{}", orderItemsJson);
+
+        // 4. 調用 SP 建立訂單（SP 內包含 Transaction），最後的 SELECT 回傳訂單主檔與明細
+        List<Object[]> rows = orderRepository.createOrder(orderId, request.getMemberId(), orderItemsJson);
+        if (rows.size() != request.getItems().size()) {
+            throw new IllegalStateException(String.format("sp_create_order 回傳的明細數不符，項目數：%d，回傳：%d",
+                    request.getItems().size(), rows.size()));
+        }
+
+        // 欄位順序見 OrderRepository.createOrder：created_at = 4、updated_at = 5、order_item_sn = 6
+        List<Long> orderItemSns = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            orderItemSns.add(((Number) row[6]).longValue());
         }
+        return new PersistedOrder(toLocalDateTime(rows.get(0)[4]), toLocalDateTime(rows.get(0)[5]), orderItemSns);
+    }
+
+    /**
+     * 以建立時已有的資料組成訂單回應，與 OrderResponse.fromEntity(findByIdWithDetails) 的結果相同：
+     * 商品名稱與單價取自驗證時查詢的商品（單價已驗證與請求相同，且與資料庫欄位同為 2 位小數），
+     * 單品項總價與訂單總金額的算法同寫入時，新訂單一律未付款
+     */
+    private OrderResponse toCreatedResponse(String orderId, CreateOrderRequest request,
+            Map<String, Product> products, PersistedOrder persisted) {
+        List<OrderItemRequest> items = request.getItems();
+        List<OrderResponse.OrderDetailResponse> details = new ArrayList<>(items.size());
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (int i = 0; i < items.size(); i++) {
+            OrderItemRequest item = items.get(i);
+            Product product = products.get(item.getProductId());
+            BigDecimal itemPrice = product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            totalPrice = totalPrice.add(itemPrice);
+
+            details.add(OrderResponse.OrderDetailResponse.builder()
+                    .orderItemSn(persisted.orderItemSns().get(i))
+                    .productId(item.getProductId())
+                    .productName(product.getProductName())
+                    .quantity(item.getQuantity())
+                    .standPrice(product.getPrice())
+                    .itemPrice(itemPrice)
+                    .build());
+        }
+
+        return OrderResponse.builder()
+                .orderId(orderId)
+                .memberId(request.getMemberId())
+                .totalPrice(totalPrice)
+                .payStatus(0)
+                .payStatusText("未付款")
+                .createdAt(persisted.createdAt())
+                .updatedAt(persisted.updatedAt())
+                .items(details)
+                .build();
+    }
+
+    /* SP 回傳的 TIMESTAMP 欄位（依 Driver 為 Timestamp 或 LocalDateTime） */
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
     }
 }
@@ -0,0 +1,84 @@
+package com.esun.ecommerce.service;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * 商品匯入格式
+ */
+public enum ProductImportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ProductImportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 解析格式參數（不分大小寫）
+     *
+     * @throws BusinessException 不支援的格式
+     */
+    public static ProductImportFormat parse(String value) {
+        for (ProductImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw unsupported(value);
+    }
+
+    /**
+     * 依 Content-Type 判斷格式（忽略 charset 等參數）
+     *
+     * @throws BusinessException 不支援的格式
+     */
+    public static ProductImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (ProductImportFormat format : values()) {
+                if (mediaType.isCompatibleWith(MediaType.parseMediaType(format.contentType))) {
+                    return format;
+                }
+            }
+        }
+        throw unsupported(contentType);
+    }
+
+    /**
+     * 依上傳檔名的副檔名判斷格式
+     *
+     * @throws BusinessException 不支援的格式
+     */
+    public static ProductImportFormat fromFileName(String fileName) {
+        if (fileName != null) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            for (ProductImportFormat format : values()) {
+                if (lower.endsWith("." + format.extension)) {
+                    return format;
+                }
+            }
+        }
+        throw unsupported(fileName);
+    }
+
+    private static BusinessException unsupported(String value) {
+        return new BusinessException("不支援的匯入格式：" + value + "（可用：ndjson、csv）", "INVALID_IMPORT_FORMAT");
+    }
+}
@@ -0,0 +1,394 @@
+package com.esun.ecommerce.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.config.ProductImportProperties;
+import com.esun.ecommerce.dto.request.CreateProductRequest;
+import com.esun.ecommerce.dto.response.ProductImportError;
+import com.esun.ecommerce.dto.response.ProductImportResult;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+import com.esun.ecommerce.util.XssSanitizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品批次匯入
+ *
+ * 逐列讀取上傳內容（CSV 或 NDJSON），不會一次載入整份內容；為檢查檔案內重複的商品編號，
+ * 會保留已讀取的所有商品編號，記憶體用量隨檔案中不重複的商品編號數成長（錯誤明細最多 maxErrors 筆）：
+ * 1. 每列以 CreateProductRequest 的驗證規則檢查，失敗的列記錄錯誤後略過
+ * 2. 累積 commitSize 筆後以一個 Transaction 寫入：一次查詢已存在的商品編號，
+ *    其餘以 JDBC 批次新增（每 hibernate.jdbc.batch_size 筆送出一次）
+ * 3. 回傳成功、失敗筆數與每列的錯誤
+ *
+ * 不經過 sp_add_product（每筆各自 START TRANSACTION / COMMIT），商品編號重複、
+ * 售價與庫存的檢查與 SP 相同
+ *
+ * 匯入進度與吞吐量：product.import.rows（tag：outcome）、product.import.commit（每個 Transaction 的耗時）
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    /* 每處理多少列輸出一次進度 */
+    private static final long PROGRESS_LOG_ROWS = 10_000;
+
+    private static final List<String> CSV_COLUMNS = List.of("productId", "productName", "price", "quantity");
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductImportProperties properties;
+    private final int batchSize;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final Timer commitTime;
+
+    public ProductImportService(ProductJdbcRepository productJdbcRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ProductImportProperties properties,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = properties;
+        this.batchSize = batchSize;
+
+        this.importedRows = Counter.builder("product.import.rows")
+                .description("商品匯入處理的列數")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("product.import.rows")
+                .description("商品匯入處理的列數")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.commitTime = Timer.builder("product.import.commit")
+                .description("商品匯入每個 Transaction 的寫入時間")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 匯入商品
+     *
+     * @param format 匯入格式
+     * @param in 匯入內容（UTF-8）
+     * @return 匯入結果
+     * @throws BusinessException CSV 標題列缺少必要欄位
+     */
+    public ProductImportResult importProducts(ProductImportFormat format, InputStream in) throws IOException {
+        log.info("開始匯入商品，格式：{}", format);
+
+        Import progress = new Import();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (format == ProductImportFormat.CSV) {
+                readCsv(reader, row -> accept(progress, row));
+            } else {
+                readNdjson(reader, row -> accept(progress, row));
+            }
+        }
+        flush(progress);
+
+        long elapsedMillis = (System.nanoTime() - progress.startedAt) / 1_000_000;
+        log.info("商品匯入完成，共 {} 筆，成功 {} 筆，失敗 {} 筆，耗時 {} ms",
+                progress.total, progress.imported, progress.failed, elapsedMillis);
+
+        return ProductImportResult.builder()
+                .totalRows(progress.total)
+                .importedRows(progress.imported)
+                .failedRows(progress.failed)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(elapsedMillis > 0 ? progress.total * 1000 / elapsedMillis : progress.total)
+                .errors(progress.errors)
+                .build();
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 驗證一列，通過的列累積到 commitSize 筆後寫入 */
+    private void accept(Import progress, ParsedRow row) {
+        progress.total++;
+
+        if (row.error() != null) {
+            reject(progress, row.row(), null, "PARSE_ERROR", row.error());
+        } else {
+            CreateProductRequest product = row.product();
+            Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                reject(progress, row.row(), product.getProductId(), "VALIDATION_ERROR", violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("；")));
+            } else if (!progress.productIds.add(product.getProductId())) {
+                reject(progress, row.row(), product.getProductId(), "DUPLICATE_IN_FILE",
+                        "商品編號在匯入內容中重複：" + product.getProductId());
+            } else {
+                progress.pending.add(row);
+                if (progress.pending.size() >= properties.getCommitSize()) {
+                    flush(progress);
+                }
+            }
+        }
+
+        if (progress.total % PROGRESS_LOG_ROWS == 0) {
+            log.info("商品匯入進度：已處理 {} 筆，成功 {} 筆，失敗 {} 筆",
+                    progress.total, progress.imported, progress.failed);
+        }
+    }
+
+    /* 寫入累積的列：略過已存在的商品編號，其餘批次新增 */
+    private void flush(Import progress) {
+        List<ParsedRow> rows = progress.pending;
+        if (rows.isEmpty()) {
+            return;
+        }
+        progress.pending = new ArrayList<>(properties.getCommitSize());
+
+        Timer.Sample sample = Timer.start();
+        Set<String> existing;
+        try {
+            existing = transactionTemplate.execute(status -> insert(rows));
+        } catch (DuplicateKeyException e) {
+            // 查詢後到新增前，其他請求新增了相同商品編號：改為逐筆新增
+            existing = new HashSet<>();
+            for (ParsedRow row : rows) {
+                try {
+                    existing.addAll(transactionTemplate.execute(status -> insert(List.of(row))));
+                } catch (DuplicateKeyException duplicate) {
+                    existing.add(row.product().getProductId());
+                }
+            }
+        }
+        sample.stop(commitTime);
+
+        long inserted = 0;
+        for (ParsedRow row : rows) {
+            String productId = row.product().getProductId();
+            if (existing.contains(productId)) {
+                reject(progress, row.row(), productId, "DUPLICATE_PRODUCT", "商品編號已存在：" + productId);
+            } else {
+                inserted++;
+            }
+        }
+        progress.imported += inserted;
+        importedRows.increment(inserted);
+    }
+
+    /**
+     * 新增商品（在呼叫端的 Transaction 內執行）
+     *
+     * @return 已存在而未新增的商品編號
+     */
+    private Set<String> insert(List<ParsedRow> rows) {
+        Set<String> existing = productJdbcRepository.findExistingIds(rows.stream()
+                .map(row -> row.product().getProductId())
+                .toList());
+
+        List<CreateProductRequest> inserts = rows.stream()
+                .map(ParsedRow::product)
+                .filter(product -> !existing.contains(product.getProductId()))
+                .toList();
+        if (!inserts.isEmpty()) {
+            productJdbcRepository.insertProducts(inserts, batchSize);
+            eventPublisher.publishEvent(new ProductChangedEvent(inserts.stream()
+                    .map(CreateProductRequest::getProductId)
+                    .toList()));
+        }
+        return existing;
+    }
+
+    private void reject(Import progress, long row, String productId, String errorCode, String message) {
+        progress.failed++;
+        failedRows.increment();
+        if (progress.errors.size() < properties.getMaxErrors()) {
+            progress.errors.add(ProductImportError.builder()
+                    .row(row)
+                    .productId(productId)
+                    .errorCode(errorCode)
+                    .message(message)
+                    .build());
+        }
+    }
+
+    /* NDJSON：每行一個 CreateProductRequest，略過空行 */
+    private void readNdjson(BufferedReader reader, Consumer<ParsedRow> handler) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                handler.accept(ParsedRow.of(lineNumber, objectMapper.readValue(line, CreateProductRequest.class)));
+            } catch (JsonProcessingException e) {
+                handler.accept(ParsedRow.error(lineNumber, "JSON 格式錯誤：" + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    /**
+     * CSV：第一列為標題列（productId、productName、price、quantity，不分大小寫與順序），略過空列
+     *
+     * 文字欄位與 JSON 請求相同經過 XSS 過濾
+     */
+    private void readCsv(BufferedReader reader, Consumer<ParsedRow> handler) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return;
+        }
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column.toLowerCase(Locale.ROOT)))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new BusinessException("CSV 標題列缺少欄位：" + String.join("、", missing), "INVALID_IMPORT_FILE");
+        }
+
+        long rowNumber = 0;
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            String price = csvValue(record, columns, "price");
+            String quantity = csvValue(record, columns, "quantity");
+            try {
+                handler.accept(ParsedRow.of(rowNumber, CreateProductRequest.builder()
+                        .productId(XssSanitizer.sanitize(csvValue(record, columns, "productId")))
+                        .productName(XssSanitizer.sanitize(csvValue(record, columns, "productName")))
+                        .price(price != null ? new BigDecimal(price) : null)
+                        .quantity(quantity != null ? Integer.valueOf(quantity) : null)
+                        .build()));
+            } catch (NumberFormatException e) {
+                handler.accept(ParsedRow.error(rowNumber,
+                        String.format("數值格式錯誤：price=%s，quantity=%s", price, quantity)));
+            }
+        }
+    }
+
+    /* 欄位值（去除前後空白，空字串視為 null） */
+    private static String csvValue(List<String> record, Map<String, Integer> columns, String column) {
+        int index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 讀取一筆 CSV 紀錄（RFC 4180：雙引號包住的欄位可含逗號、換行，內部引號重複一次）
+     *
+     * @return 欄位值，已無資料時回傳 null
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /* 解析後的一列：product 與 error 擇一 */
+    private record ParsedRow(long row, CreateProductRequest product, String error) {
+
+        static ParsedRow of(long row, CreateProductRequest product) {
+            return new ParsedRow(row, product, null);
+        }
+
+        static ParsedRow error(long row, String error) {
+            return new ParsedRow(row, null, error);
+        }
+    }
+
+    /* 單次匯入的進度 */
+    private static class Import {
+
+        private final long startedAt = System.nanoTime();
+        /* 已讀取的商品編號（檢查檔案內重複，隨不重複的編號數成長） */
+        private final Set<String> productIds = new HashSet<>();
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private List<ParsedRow> pending = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+    }
+}
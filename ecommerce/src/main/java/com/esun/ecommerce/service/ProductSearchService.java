@@ -0,0 +1,244 @@
+package com.esun.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.esun.ecommerce.config.ProductSearchProperties;
+import com.esun.ecommerce.datasource.DataSourceRouting;
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.dto.response.ProductSearchResult;
+import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+import com.esun.ecommerce.repository.ProductRepository;
+import com.esun.ecommerce.search.ProductSearchIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 商品搜尋
+ *
+ * 以記憶體內的倒排索引（ProductSearchIndex）查詢商品名稱，不查詢資料庫：
+ * 1. 啟動完成後在背景逐列讀取所有商品建立索引（資料庫無法連線時定期重試），建立完成前查詢回傳錯誤
+ * 2. 商品異動（ProductChangedEvent）於 Transaction 提交後記錄商品編號，
+ *    由索引執行緒合併後一次從 primary 重新載入（短時間內大量異動只載入一次）
+ *
+ * 所有索引異動都在同一條執行緒執行，依發生順序套用
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+
+    private static final int MAX_KEYWORD_LENGTH = 100;
+
+    private final ProductSearchProperties properties;
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ScheduledExecutorService indexer;
+    private final Timer searchTime;
+
+    /* 建立完成前為 null */
+    private volatile ProductSearchIndex index;
+
+    /* 待重新載入的商品編號 */
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
+    public ProductSearchService(ProductSearchProperties properties,
+            ProductRepository productRepository,
+            ProductJdbcRepository productJdbcRepository,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.productJdbcRepository = productJdbcRepository;
+        this.indexer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("product-search-index").daemon().factory());
+
+        this.searchTime = Timer.builder("product.search")
+                .description("商品搜尋的索引查詢時間")
+                .register(meterRegistry);
+        Gauge.builder("product.search.index.size", this, service -> {
+                    ProductSearchIndex current = service.index;
+                    return current != null ? current.size() : 0;
+                })
+                .description("搜尋索引中的商品數")
+                .register(meterRegistry);
+    }
+
+    /* 啟動完成後在背景建立索引 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!properties.isEnabled()) {
+            log.info("商品搜尋未啟用");
+            return;
+        }
+        indexer.execute(this::buildOrRetry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        indexer.shutdownNow();
+    }
+
+    /**
+     * 搜尋商品
+     *
+     * @param keyword 關鍵字（中文以兩字一組比對，英數以單字比對，最後一個字可只輸入開頭）
+     * @param inStock 只列出庫存 > 0 的商品
+     * @param minPrice 價格下限（含），null 表示不限
+     * @param maxPrice 價格上限（含），null 表示不限
+     * @param page 頁碼（從 1 開始），null 表示第一頁
+     * @param size 每頁筆數，null 表示預設筆數
+     * @return 依相關程度排序的商品
+     * @throws BusinessException 參數不合法、未啟用或索引尚未建立完成
+     */
+    public ProductSearchResult search(String keyword, boolean inStock, BigDecimal minPrice, BigDecimal maxPrice,
+            Integer page, Integer size) {
+        if (keyword == null || keyword.isBlank() || keyword.length() > MAX_KEYWORD_LENGTH) {
+            throw new BusinessException(
+                    String.format("搜尋關鍵字不可為空，且長度不可超過 %d 字", MAX_KEYWORD_LENGTH),
+                    "INVALID_SEARCH_KEYWORD");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BusinessException(
+                    String.format("價格下限不可大於上限，傳入：%s ~ %s", minPrice, maxPrice), "INVALID_PRICE_RANGE");
+        }
+        int pageNumber = page != null ? page : 1;
+        if (pageNumber < 1) {
+            throw new BusinessException("頁碼必須大於 0，傳入：" + pageNumber, "INVALID_PAGE");
+        }
+        int pageSize = size != null ? size : properties.getDefaultSize();
+        if (pageSize < 1 || pageSize > properties.getMaxSize()) {
+            throw new BusinessException(
+                    String.format("每頁筆數必須介於 1 ~ %d，傳入：%d", properties.getMaxSize(), pageSize),
+                    "INVALID_PAGE_SIZE");
+        }
+
+        ProductSearchIndex current = index;
+        if (current == null) {
+            throw properties.isEnabled()
+                    ? new BusinessException("商品搜尋索引建立中，請稍後再試", "SEARCH_INDEX_NOT_READY")
+                    : new BusinessException("商品搜尋未啟用", "SEARCH_DISABLED");
+        }
+
+        ProductSearchIndex.Filter filter = new ProductSearchIndex.Filter(inStock, minPrice, maxPrice);
+        int offset = Math.multiplyExact(pageNumber - 1, pageSize);
+        ProductSearchIndex.SearchHits hits = searchTime.record(
+                () -> current.search(keyword, filter, offset, pageSize));
+
+        return new ProductSearchResult(hits.items(), hits.total(), pageNumber, pageSize);
+    }
+
+    /**
+     * 商品異動後記錄商品編號，交由索引執行緒重新載入
+     *
+     * 在 Transaction 提交後執行；若發布時沒有 Transaction 則立即執行
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!properties.isEnabled() || indexer.isShutdown()) {
+            return;
+        }
+        changed.addAll(event.getProductIds());
+        if (updateScheduled.compareAndSet(false, true)) {
+            indexer.execute(this::applyChanges);
+        }
+    }
+
+    /* 重新建立索引，等待完成（失敗時拋出例外，不重試） */
+    void rebuildIndex() throws InterruptedException {
+        try {
+            indexer.submit(this::build).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /* 等待已排入索引執行緒的工作完成 */
+    void awaitPendingChanges() throws InterruptedException, ExecutionException {
+        indexer.submit(() -> { }).get();
+    }
+
+    // ========== 私有方法 ==========
+
+    private void buildOrRetry() {
+        try {
+            build();
+        } catch (RuntimeException e) {
+            log.warn("建立商品搜尋索引失敗，{} 後重試：{}", properties.getRetryInterval(), e.getMessage());
+            indexer.schedule(this::buildOrRetry, properties.getRetryInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* 逐列讀取所有商品建立新索引，完成後替換並套用建立期間的異動 */
+    private void build() {
+        long start = System.nanoTime();
+        ProductSearchIndex built = new ProductSearchIndex();
+        productJdbcRepository.streamProducts(properties.getFetchSize(), built::put);
+        index = built;
+        log.info("商品搜尋索引建立完成，商品數：{}，耗時：{} ms",
+                built.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        applyChanges();
+    }
+
+    /* 重新載入異動的商品（不存在的商品從索引移除） */
+    private void applyChanges() {
+        updateScheduled.set(false);
+        ProductSearchIndex current = index;
+        // 索引建立完成後才套用
+        if (current == null || changed.isEmpty()) {
+            return;
+        }
+        List<String> productIds = new ArrayList<>(changed);
+        changed.removeAll(productIds);
+
+        Map<String, Product> products;
+        try {
+            products = DataSourceRouting.onPrimary(() -> productRepository.findAllById(productIds)).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        } catch (RuntimeException e) {
+            log.warn("更新商品搜尋索引失敗，{} 後重試：{}", properties.getRetryInterval(), e.getMessage());
+            changed.addAll(productIds);
+            updateScheduled.set(true);
+            indexer.schedule(this::applyChanges, properties.getRetryInterval().toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        for (String productId : productIds) {
+            Product product = products.get(productId);
+            if (product != null) {
+                current.put(ProductResponse.fromEntity(product));
+            } else {
+                current.remove(productId);
+            }
+        }
+        log.debug("更新商品搜尋索引，商品數：{}", productIds.size());
+
+        // 改名或刪除留下的舊文件超過現有商品數時重建，釋放倒排列表中的空間
+        if (current.deletedCount() > Math.max(current.size(), 1000)) {
+            buildOrRetry();
+        }
+    }
+}
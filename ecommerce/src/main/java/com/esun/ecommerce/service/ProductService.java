@@ -3,12 +3,18 @@ package com.esun.ecommerce.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.esun.ecommerce.cache.ExistingIdFilter;
+import com.esun.ecommerce.cache.ProductCatalog;
+import com.esun.ecommerce.cache.ProductCatalogCache;
 import com.esun.ecommerce.dto.request.CreateProductRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
 import com.esun.ecommerce.dto.response.ProductResponse;
 import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.event.ProductChangedEvent;
 import com.esun.ecommerce.exception.BusinessException;
 import com.esun.ecommerce.exception.ResourceNotFoundException;
 import com.esun.ecommerce.repository.ProductRepository;
@@ -18,6 +24,10 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * 商品服務層
+ *
+ * 查詢一律先經過 ProductCatalogCache；
+ * 查詢方法不在 Service 層開 Transaction，快取命中時不佔用連線池，
+ * 未命中時由 Repository 自身的 read-only Transaction 查詢
  */
 @Service
 @RequiredArgsConstructor
@@ -25,6 +35,10 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductService {
     
     private final ProductRepository productRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ExistingIdFilter existingIdFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryReservationService inventoryReservationService;
 
     /**
      * 新增商品
@@ -42,7 +56,8 @@ public class ProductService {
                 throw new BusinessException("商品編號已存在：" + request.getProductId());
             }
 
-            // 新增商品
+            // 新增商品（先放入編號 Bloom Filter，新增完成後立即可查詢）
+            existingIdFilter.addProduct(request.getProductId());
             productRepository.addProduct(
                     request.getProductId(),
                     request.getProductName(),
@@ -51,6 +66,7 @@ public class ProductService {
             );
 
             log.info("商品新增成功，商品編號：{}", request.getProductId());
+            eventPublisher.publishEvent(new ProductChangedEvent(request.getProductId()));
 
             // 查詢剛新增的商品並回傳
             Product product = productRepository.findById(request.getProductId())
@@ -69,21 +85,22 @@ public class ProductService {
     /**
      * 查詢所有可用商品（庫存 > 0）
      * 
-     * @return 商品列表
+     * @return 商品列表（含 ETag、Last-Modified）
      */
-    @Transactional(readOnly = true)
-    public List<ProductResponse> getAvailableProducts() {
+    public ProductCatalog getAvailableProducts() {
         log.info("查詢所有可用商品");
 
         try {
-            // 調用 SP 查詢可用商品
-            List<Product> products = productRepository.getAvailableProducts();
+            return productCatalogCache.getAvailableProducts(() -> {
+                // 調用 SP 查詢可用商品
+                List<Product> products = productRepository.getAvailableProducts();
 
-            log.info("查詢到 {} 個可用商品", products.size());
+                log.info("查詢到 {} 個可用商品", products.size());
 
-            return products.stream()
-                    .map(ProductResponse::fromEntity)
-                    .collect(Collectors.toList());
+                return products.stream()
+                        .map(ProductResponse::fromEntity)
+                        .collect(Collectors.toList());
+            });
 
         } catch (Exception e) {
             log.error("查詢可用商品失敗，錯誤：{}", e.getMessage());
@@ -94,38 +111,48 @@ public class ProductService {
     /**
      * 根據商品編號查詢商品
      * 
+     * 一定不存在的商品編號由 ExistingIdFilter 擋下，不查詢快取與資料庫
+     * 
      * @param productId 商品編號
      * @return 商品回應
      */
-    @Transactional(readOnly = true)
     public ProductResponse getProductById(String productId) {
         log.info("查詢商品，商品編號：{}", productId);
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("商品不存在：" + productId));
+        if (!existingIdFilter.mightContainProduct(productId)) {
+            throw new ResourceNotFoundException("商品不存在：" + productId);
+        }
+
+        ProductResponse product = productCatalogCache.getProduct(productId,
+                id -> productRepository.findById(id)
+                        .map(ProductResponse::fromEntity)
+                        .orElse(null));
+        if (product == null) {
+            existingIdFilter.productNotFound();
+            throw new ResourceNotFoundException("商品不存在：" + productId);
+        }
 
-        return ProductResponse.fromEntity(product);
+        return product;
     }
 
     /**
      * 查詢所有商品
      * 
-     * @return 商品列表
+     * @return 商品列表（含 ETag、Last-Modified）
      */
-    @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
+    public ProductCatalog getAllProducts() {
         log.info("查詢所有商品");
 
-        List<Product> products = productRepository.findAll();
-
-        return products.stream()
+        return productCatalogCache.getAllProducts(() -> productRepository.findAll().stream()
                 .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
      * 更新商品庫存
      * 
+     * 啟用庫存預留時改由 InventoryReservationService 扣除（與下單共用同一組計數器，避免超賣）
+     * 
      * @param productId 商品編號
      * @param quantity 扣除數量
      */
@@ -135,7 +162,15 @@ public class ProductService {
 
         try {
             // 更新庫存
-            productRepository.updateInventory(productId, quantity);
+            if (inventoryReservationService.isEnabled()) {
+                inventoryReservationService.reserveForCurrentTransaction(List.of(OrderItemRequest.builder()
+                        .productId(productId)
+                        .quantity(quantity)
+                        .build()));
+            } else {
+                productRepository.updateInventory(productId, quantity);
+                eventPublisher.publishEvent(new ProductChangedEvent(productId));
+            }
 
             log.info("商品庫存更新成功");
 
@@ -0,0 +1,482 @@
+package com.esun.ecommerce.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.esun.ecommerce.analytics.SalesRollup;
+import com.esun.ecommerce.config.SalesAnalyticsProperties;
+import com.esun.ecommerce.datasource.BulkReadPool;
+import com.esun.ecommerce.dto.response.MemberSalesResponse;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.dto.response.ProductSalesResponse;
+import com.esun.ecommerce.dto.response.SalesPeriodResponse;
+import com.esun.ecommerce.dto.response.SalesReconcileResult;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.SalesAnalyticsRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 銷售統計
+ *
+ * 以記憶體內的彙總（SalesRollup）回答營收、商品排名與會員訂單統計，不查詢資料庫：
+ * 1. 啟動完成後在背景從資料庫計算一次：只讀取建立時間早於基準時間（資料庫目前時間 - settleWindow）的訂單，
+ *    依建立時間切成區段、以大量讀取專用連線池的 parallelism 條連線平行讀取（資料庫無法連線時定期重試），
+ *    計算完成前查詢回傳錯誤
+ * 2. 建立訂單後（OrderService）逐筆加入；建立時間早於基準時間的訂單已由資料庫計算，不重複加入。
+ *    計算前已加入舊統計、但建立時間不早於新基準時間的訂單，計算完成後補上
+ * 3. reconcile 重新計算一次並與目前的統計逐一比對，回傳不一致的統計值後以重新計算的結果取代
+ *    （每 reconcileMinInterval 最多一次）
+ *
+ * 所有統計異動都在同一條執行緒執行，依發生順序套用
+ *
+ * 只包含本機建立的訂單：多台主機部署時，其他主機建立的訂單要在 reconcile 後才會計入
+ */
+@Service
+@Slf4j
+public class SalesAnalyticsService {
+
+    /* 每小時營收的期間上限（天） */
+    private static final int MAX_HOURLY_DAYS = 31;
+
+    private final SalesAnalyticsProperties properties;
+    private final SalesAnalyticsRepository salesAnalyticsRepository;
+    private final BulkReadPool bulkReadPool;
+    private final ScheduledExecutorService updater;
+    private final MeterRegistry meterRegistry;
+    private final Timer recomputeTime;
+
+    /* 計算完成前為 null */
+    private volatile SalesRollup rollup;
+
+    /* 已建立、尚未加入統計的訂單 */
+    private final Queue<OrderResponse> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /* 最近加入的訂單（重新計算後補上建立時間不早於基準時間的訂單；只在 updater 執行緒存取） */
+    private final Deque<OrderResponse> recent = new ArrayDeque<>();
+
+    /* 上次比對不一致的統計值數 */
+    private final AtomicInteger lastDifferences = new AtomicInteger();
+
+    /* 上次開始比對的時間（System.nanoTime），尚未比對或比對失敗時為 null */
+    private Long lastReconcileNanos;
+
+    /* 資料庫時鐘減本機時鐘（每次計算時取得），drain 以此換算資料庫目前時間 */
+    private volatile Duration databaseClockOffset = Duration.ZERO;
+
+    public SalesAnalyticsService(SalesAnalyticsProperties properties,
+            SalesAnalyticsRepository salesAnalyticsRepository,
+            BulkReadPool bulkReadPool,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.salesAnalyticsRepository = salesAnalyticsRepository;
+        this.bulkReadPool = bulkReadPool;
+        this.meterRegistry = meterRegistry;
+        this.updater = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("sales-analytics").daemon().factory());
+
+        this.recomputeTime = Timer.builder("sales.analytics.recompute")
+                .description("從資料庫重新計算銷售統計的時間")
+                .register(meterRegistry);
+        Gauge.builder("sales.analytics.orders", this, service -> {
+                    SalesRollup current = service.rollup;
+                    return current != null ? current.total().orders() : 0;
+                })
+                .description("銷售統計中的訂單數")
+                .register(meterRegistry);
+        Gauge.builder("sales.analytics.reconcile.differences", lastDifferences, AtomicInteger::get)
+                .description("上次比對不一致的統計值數")
+                .register(meterRegistry);
+    }
+
+    /* 啟動完成後在背景計算 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!properties.isEnabled()) {
+            log.info("銷售統計未啟用");
+            return;
+        }
+        updater.execute(this::buildOrRetry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        updater.shutdownNow();
+    }
+
+    /**
+     * 加入剛建立的訂單（建立完成、Transaction 提交後呼叫）
+     *
+     * @param order 建立的訂單
+     */
+    public void recordOrder(OrderResponse order) {
+        if (!properties.isEnabled() || updater.isShutdown()) {
+            return;
+        }
+        pending.add(order);
+        if (drainScheduled.compareAndSet(false, true)) {
+            updater.execute(() -> drain(null));
+        }
+    }
+
+    /**
+     * 查詢每日 / 每小時營收（含沒有訂單的期間）
+     *
+     * @param granularity day 或 hour
+     * @param from 開始日期（含），null 表示 to 往前 29 天（每小時為當天）
+     * @param to 結束日期（含），null 表示今天
+     * @return 依時間排序的營收
+     */
+    public List<SalesPeriodResponse> getRevenue(String granularity, LocalDate from, LocalDate to) {
+        boolean hourly = "hour".equals(granularity);
+        if (!hourly && !"day".equals(granularity)) {
+            throw new BusinessException("統計單位必須為 day 或 hour，傳入：" + granularity, "INVALID_GRANULARITY");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : (hourly ? end : end.minusDays(29));
+        int maxDays = hourly ? MAX_HOURLY_DAYS : properties.getMaxDays();
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new BusinessException(
+                    String.format("查詢期間必須介於 1 ~ %d 天，傳入：%s ~ %s", maxDays, start, end), "INVALID_DATE_RANGE");
+        }
+
+        SalesRollup current = current();
+        return timed("revenue", () -> {
+            List<SalesPeriodResponse> periods = new ArrayList<>();
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                if (!hourly) {
+                    periods.add(toPeriod(date.atStartOfDay(), current.day(date)));
+                    continue;
+                }
+                for (int hour = 0; hour < 24; hour++) {
+                    LocalDateTime period = date.atTime(hour, 0);
+                    periods.add(toPeriod(period, current.hour(period)));
+                }
+            }
+            return periods;
+        });
+    }
+
+    /**
+     * 查詢銷售排名前 N 名的商品
+     *
+     * @param sort units（件數）或 revenue（營收）
+     * @param limit 筆數，null 表示 10 筆
+     * @return 依排名排序的商品
+     */
+    public List<ProductSalesResponse> getTopProducts(String sort, Integer limit) {
+        Comparator<SalesRollup.Totals> order = switch (sort) {
+            case "units" -> Comparator.comparingLong(SalesRollup.Totals::units);
+            case "revenue" -> Comparator.comparingLong(SalesRollup.Totals::revenueCents);
+            default -> throw new BusinessException("排序必須為 units 或 revenue，傳入：" + sort, "INVALID_SORT");
+        };
+        int size = limit != null ? limit : 10;
+        if (size < 1 || size > properties.getMaxTopProducts()) {
+            throw new BusinessException(
+                    String.format("筆數必須介於 1 ~ %d，傳入：%d", properties.getMaxTopProducts(), size),
+                    "INVALID_PAGE_SIZE");
+        }
+
+        SalesRollup current = current();
+        return timed("top-products", () -> current.topProducts(size, order).stream()
+                .map(entry -> toProduct(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    /* 查詢單一商品的銷售統計（沒有訂單時為 0） */
+    public ProductSalesResponse getProductSales(String productId) {
+        SalesRollup current = current();
+        return timed("product", () -> toProduct(productId, current.product(productId)));
+    }
+
+    /* 查詢會員的訂單統計（沒有訂單時為 0） */
+    public MemberSalesResponse getMemberSales(String memberId) {
+        SalesRollup current = current();
+        return timed("member", () -> {
+            SalesRollup.Totals totals = current.member(memberId);
+            return MemberSalesResponse.builder()
+                    .memberId(memberId)
+                    .orders(totals.orders())
+                    .revenue(totals.revenue())
+                    .build();
+        });
+    }
+
+    /**
+     * 從資料庫重新計算並與目前的統計比對，之後以重新計算的結果取代
+     *
+     * @return 比對結果
+     * @throws BusinessException 未啟用、尚未計算完成，或距離上次成功比對未滿 reconcileMinInterval
+     */
+    public SalesReconcileResult reconcile() {
+        current();
+        acquireReconcile();
+        log.info("開始比對銷售統計");
+        try {
+            return updater.submit(this::recomputeAndCompare).get();
+        } catch (InterruptedException e) {
+            releaseReconcile();
+            Thread.currentThread().interrupt();
+            throw new BusinessException("比對銷售統計時被中斷");
+        } catch (ExecutionException e) {
+            // 失敗（例如資料庫無法連線）不計入間隔，可立即重試
+            releaseReconcile();
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /* 只依資料庫重新計算（捨棄尚未加入與最近加入的訂單），等待完成（失敗時拋出例外，不重試） */
+    void rebuild() throws InterruptedException {
+        try {
+            updater.submit(() -> {
+                pending.clear();
+                recent.clear();
+                build();
+            }).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /* 等待已排入的訂單加入統計 */
+    void awaitPendingOrders() throws InterruptedException, ExecutionException {
+        updater.submit(() -> { }).get();
+    }
+
+    // ========== 私有方法 ==========
+
+    private SalesRollup current() {
+        SalesRollup current = rollup;
+        if (current == null) {
+            throw properties.isEnabled()
+                    ? new BusinessException("銷售統計計算中，請稍後再試", "ANALYTICS_NOT_READY")
+                    : new BusinessException("銷售統計未啟用", "ANALYTICS_DISABLED");
+        }
+        return current;
+    }
+
+    /* 距離上次比對未滿 reconcileMinInterval 時拒絕，否則記錄開始時間 */
+    private synchronized void acquireReconcile() {
+        long now = System.nanoTime();
+        if (lastReconcileNanos != null
+                && now - lastReconcileNanos < properties.getReconcileMinInterval().toNanos()) {
+            throw new BusinessException(
+                    String.format("銷售統計每 %d 秒最多比對一次，請稍後再試",
+                            properties.getReconcileMinInterval().toSeconds()),
+                    "ANALYTICS_RECONCILE_TOO_FREQUENT");
+        }
+        lastReconcileNanos = now;
+    }
+
+    /* 比對失敗時清除開始時間 */
+    private synchronized void releaseReconcile() {
+        lastReconcileNanos = null;
+    }
+
+    private void buildOrRetry() {
+        try {
+            build();
+        } catch (RuntimeException e) {
+            log.warn("計算銷售統計失敗，{} 後重試：{}", properties.getRetryInterval(), e.getMessage());
+            updater.schedule(this::buildOrRetry, properties.getRetryInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* 從資料庫計算新的統計，完成後替換並加入計算期間建立的訂單 */
+    private void build() {
+        SalesRollup built = recompute();
+        rollup = built;
+        drain(null);
+        log.info("銷售統計計算完成，基準時間：{}，訂單數：{}", built.cutoff(), built.total().orders());
+    }
+
+    private SalesReconcileResult recomputeAndCompare() {
+        long start = System.nanoTime();
+        SalesRollup recomputed = recompute();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 尚未加入的訂單同時加入兩者後再比對
+        drain(recomputed);
+        SalesRollup.Comparison comparison = rollup.compare(recomputed, properties.getMaxDifferences());
+        rollup = recomputed;
+        lastDifferences.set(comparison.count());
+
+        SalesRollup.Totals total = recomputed.total();
+        if (comparison.count() > 0) {
+            log.warn("銷售統計與重新計算的結果不一致，不一致的統計值數：{}，已以重新計算的結果取代", comparison.count());
+        } else {
+            log.info("銷售統計與重新計算的結果一致，訂單數：{}", total.orders());
+        }
+        return SalesReconcileResult.builder()
+                .cutoff(recomputed.cutoff())
+                .consistent(comparison.count() == 0)
+                .differenceCount(comparison.count())
+                .orders(total.orders())
+                .revenue(total.revenue())
+                .elapsedMillis(elapsedMillis)
+                .differences(comparison.samples().stream()
+                        .map(this::toDifference)
+                        .toList())
+                .build();
+    }
+
+    /**
+     * 從資料庫計算建立時間早於基準時間的訂單，再補上已加入舊統計、建立時間不早於基準時間的訂單
+     *
+     * 依建立時間切成 chunkPeriod 的區段，由 parallelism 條執行緒平行讀取（不超過大量讀取專用連線池的連線數），
+     * 各自彙總後合併；基準時間取資料庫時間，與訂單的 created_at 使用同一個時鐘
+     */
+    private SalesRollup recompute() {
+        long start = System.nanoTime();
+        LocalDateTime databaseNow = salesAnalyticsRepository.currentTimestamp();
+        databaseClockOffset = Duration.between(LocalDateTime.now(), databaseNow);
+        LocalDateTime cutoff = databaseNow.minus(properties.getSettleWindow());
+        SalesRollup result = new SalesRollup(cutoff);
+
+        Optional<LocalDateTime> first = salesAnalyticsRepository.findFirstCreatedAt(cutoff);
+        if (first.isPresent()) {
+            int parallelism = Math.min(properties.getParallelism(), bulkReadPool.getMaximumPoolSize());
+            try (ExecutorService readers = Executors.newFixedThreadPool(parallelism,
+                    Thread.ofPlatform().name("sales-analytics-reader-", 0).daemon().factory())) {
+                CompletionService<SalesRollup> chunks = new ExecutorCompletionService<>(readers);
+                int chunkCount = 0;
+                for (LocalDateTime from = first.get(); from.isBefore(cutoff); chunkCount++) {
+                    LocalDateTime chunkFrom = from;
+                    LocalDateTime chunkTo = min(from.plus(properties.getChunkPeriod()), cutoff);
+                    chunks.submit(() -> readChunk(chunkFrom, chunkTo, cutoff));
+                    from = chunkTo;
+                }
+                // 依完成順序合併，不必等待所有區段
+                for (int i = 0; i < chunkCount; i++) {
+                    result.merge(chunks.take().get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("計算銷售統計時被中斷");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime
+                        ? runtime : new IllegalStateException(e.getCause());
+            }
+        }
+
+        recent.forEach(order -> apply(result, order));
+        recomputeTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /* 讀取一個區段的訂單與明細 */
+    private SalesRollup readChunk(LocalDateTime from, LocalDateTime to, LocalDateTime cutoff) {
+        SalesRollup chunk = new SalesRollup(cutoff);
+        salesAnalyticsRepository.streamOrders(from, to, properties.getFetchSize(), chunk::addOrder);
+        salesAnalyticsRepository.streamItems(from, to, properties.getFetchSize(), chunk::addItem);
+        return chunk;
+    }
+
+    /**
+     * 將尚未加入的訂單加入目前的統計（與 recomputed）
+     *
+     * 計算完成前不加入，留待計算完成後
+     */
+    private void drain(SalesRollup recomputed) {
+        drainScheduled.set(false);
+        SalesRollup current = rollup;
+        if (current == null) {
+            return;
+        }
+        OrderResponse order;
+        while ((order = pending.poll()) != null) {
+            apply(current, order);
+            if (recomputed != null) {
+                apply(recomputed, order);
+            }
+            recent.addLast(order);
+        }
+
+        // 只保留重新計算時可能需要補上的訂單（建立時間不早於下次的基準時間）；
+        // created_at 與基準時間都取資料庫時間，依上次計算時的時鐘差換算，不受本機時鐘誤差影響
+        LocalDateTime expired = LocalDateTime.now().plus(databaseClockOffset)
+                .minus(properties.getSettleWindow().multipliedBy(2));
+        while (!recent.isEmpty() && recent.peekFirst().getCreatedAt().isBefore(expired)) {
+            recent.pollFirst();
+        }
+    }
+
+    /* 加入一筆訂單（建立時間早於基準時間的訂單已由資料庫計算） */
+    private void apply(SalesRollup target, OrderResponse order) {
+        if (order.getCreatedAt().isBefore(target.cutoff())) {
+            return;
+        }
+        target.addOrder(order.getMemberId(), order.getCreatedAt(), order.getTotalPrice());
+        for (OrderResponse.OrderDetailResponse item : order.getItems()) {
+            target.addItem(item.getProductId(), order.getCreatedAt(), item.getQuantity(), item.getItemPrice());
+        }
+    }
+
+    private <T> T timed(String query, Supplier<T> supplier) {
+        return meterRegistry.timer("sales.analytics.query", "query", query).record(supplier);
+    }
+
+    private SalesPeriodResponse toPeriod(LocalDateTime period, SalesRollup.Totals totals) {
+        return SalesPeriodResponse.builder()
+                .period(period)
+                .orders(totals.orders())
+                .units(totals.units())
+                .revenue(totals.revenue())
+                .build();
+    }
+
+    private ProductSalesResponse toProduct(String productId, SalesRollup.Totals totals) {
+        return ProductSalesResponse.builder()
+                .productId(productId)
+                .orders(totals.orders())
+                .units(totals.units())
+                .revenue(totals.revenue())
+                .build();
+    }
+
+    private SalesReconcileResult.Difference toDifference(SalesRollup.Difference difference) {
+        return SalesReconcileResult.Difference.builder()
+                .dimension(difference.dimension())
+                .key(difference.key())
+                .expectedOrders(difference.expected().orders())
+                .actualOrders(difference.actual().orders())
+                .expectedUnits(difference.expected().units())
+                .actualUnits(difference.actual().units())
+                .expectedRevenue(difference.expected().revenue())
+                .actualRevenue(difference.actual().revenue())
+                .build();
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
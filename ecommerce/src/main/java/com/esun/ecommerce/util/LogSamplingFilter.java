@@ -0,0 +1,53 @@
+package com.esun.ecommerce.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * 日誌取樣（logback-spring.xml 的 prod 設定）
+ *
+ * 是否取樣由 LogSamplingRequestFilter 在每個請求開始時決定一次，記在 MDC（MDC_KEY）：
+ * 未被取樣的請求，指定 Logger（依名稱前綴）的 INFO 以下日誌全部略過，被取樣的請求全部保留，
+ * 同一個請求的日誌不會只剩一部分；WARN、ERROR 與請求以外（排程、背景執行緒）的日誌一律保留。
+ * TurboFilter 在建立日誌事件之前判斷，被略過的日誌不會格式化訊息、也不會進入非同步佇列
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    /* 目前請求是否被取樣（"true" / "false"），未設定表示不在請求中或未啟用取樣 */
+    public static final String MDC_KEY = "log.sampled";
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+
+    /* <loggerPrefix> 可重複設定 */
+    public void addLoggerPrefix(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(MDC_KEY)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+
+    // ========== 私有方法 ==========
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.esun.ecommerce.util;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+/**
+ * 每個請求決定一次是否輸出取樣的日誌（每 rate 個請求保留約 1 個），結果記在 MDC 供 LogSamplingFilter 判斷
+ *
+ * rate 為 1（預設）時不取樣，也不設定 MDC
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LogSamplingRequestFilter implements Filter {
+
+    private final int rate;
+
+    public LogSamplingRequestFilter(@Value("${ecommerce.logging.sampling.rate:1}") int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("ecommerce.logging.sampling.rate 必須大於 0：" + rate);
+        }
+        this.rate = rate;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (rate == 1) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean sampled = ThreadLocalRandom.current().nextInt(rate) == 0;
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(LogSamplingFilter.MDC_KEY, String.valueOf(sampled))) {
+            chain.doFilter(request, response);
+        }
+    }
+}
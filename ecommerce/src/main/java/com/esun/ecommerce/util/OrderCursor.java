@@ -0,0 +1,51 @@
+package com.esun.ecommerce.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.esun.ecommerce.entity.Order;
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * 訂單分頁游標
+ *
+ * 以上一頁最後一筆的 (created_at, order_id) 作為鍵值，
+ * 編碼為 Base64URL 字串，對前端而言是不透明的 token
+ */
+public record OrderCursor(LocalDateTime createdAt, String orderId) {
+
+    private static final String SEPARATOR = "|";
+
+    /* 以訂單產生游標 */
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getOrderId());
+    }
+
+    /* 編碼為 token */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析 token
+     *
+     * @param token 游標 token
+     * @return 游標
+     * @throws BusinessException token 格式錯誤
+     */
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int index = raw.indexOf(SEPARATOR);
+            if (index <= 0 || index == raw.length() - 1) {
+                throw new IllegalArgumentException("缺少分隔符號");
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, index)), raw.substring(index + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("分頁游標格式錯誤", "INVALID_CURSOR", e);
+        }
+    }
+}
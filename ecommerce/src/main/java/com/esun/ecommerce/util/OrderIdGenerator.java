@@ -0,0 +1,125 @@
+package com.esun.ecommerce.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.esun.ecommerce.config.OrderIdProperties;
+
+/**
+ * 訂單編號產生器（Snowflake 演算法）
+ *
+ * 編號格式：Ms + 19 位數字（共 21 字元），例如 Ms0000123456789012345
+ *
+ * 數字部分為 63 bits：
+ * | 41 bits 毫秒時間（自 2025-01-01 起）| 10 bits 節點編號 | 12 bits 毫秒內序號 |
+ *
+ * 特性：
+ * 1. 無鎖：以單一 AtomicLong CAS 同時推進時間與序號
+ * 2. 單調遞增：同一毫秒序號用完（4096 個）時借用下一毫秒
+ * 3. 時鐘回撥：沿用上次的邏輯時間繼續遞增，不會重複也不需等待
+ * 4. 固定長度補零，字串排序與產生順序一致
+ */
+@Component
+public class OrderIdGenerator {
+
+    public static final String PREFIX = "Ms";
+
+    /* 2025-01-01T00:00:00+08:00 */
+    static final long EPOCH = 1735660800000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int ID_DIGITS = 19;
+
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    /* 上次發出的 (邏輯時間 << SEQUENCE_BITS | 序號) */
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public OrderIdGenerator(OrderIdProperties properties) {
+        this(properties.getNodeId(), System::currentTimeMillis);
+    }
+
+    OrderIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(
+                    String.format("節點編號必須介於 0 ~ %d，目前設定：%d", MAX_NODE_ID, nodeId));
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * 產生訂單編號
+     *
+     * @return 訂單編號，例如 Ms0000123456789012345
+     */
+    public String nextId() {
+        return format(nextLongId());
+    }
+
+    /**
+     * 產生數字編號
+     *
+     * @return 63 bits 正整數
+     */
+    public long nextLongId() {
+        long now = clock.getAsLong() - EPOCH;
+
+        while (true) {
+            long current = lastState.get();
+            long lastTime = current >>> SEQUENCE_BITS;
+
+            // 新的毫秒：序號歸零；同一毫秒或時鐘回撥：序號 +1（溢位時自動進位到下一毫秒）
+            long next = now > lastTime ? now << SEQUENCE_BITS : current + 1;
+
+            if (lastState.compareAndSet(current, next)) {
+                long time = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (time << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * 訂單編號的產生時間
+     *
+     * @param orderId 訂單編號
+     * @return epoch 毫秒，不是此格式的編號（長度、前綴或數字不符）時回傳 -1
+     */
+    public static long timestampOf(String orderId) {
+        if (orderId == null || orderId.length() != PREFIX.length() + ID_DIGITS || !orderId.startsWith(PREFIX)) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < orderId.length(); i++) {
+            char c = orderId.charAt(i);
+            if (c < '0' || c > '9' || id > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    /**
+     * 將數字編號轉為訂單編號字串（Ms + 19 位補零數字）
+     */
+    static String format(long id) {
+        char[] chars = new char[PREFIX.length() + ID_DIGITS];
+        chars[0] = 'M';
+        chars[1] = 's';
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(chars);
+    }
+}
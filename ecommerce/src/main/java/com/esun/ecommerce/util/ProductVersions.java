@@ -0,0 +1,80 @@
+package com.esun.ecommerce.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import com.esun.ecommerce.dto.response.ProductResponse;
+
+/**
+ * 商品內容的版本資訊（HTTP 快取用）
+ *
+ * ETag：依序以 SHA-256 雜湊每個商品回傳的所有欄位（取前 128 bits），任何欄位或筆數不同即不同
+ * Last-Modified：商品 updatedAt 的最大值（資料庫時間以 JVM 時區解讀，與 JDBC 讀取時相同）
+ */
+public final class ProductVersions {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private ProductVersions() {
+    }
+
+    /* 單一商品的 ETag（不含引號） */
+    public static String etag(ProductResponse product) {
+        return etag(List.of(product));
+    }
+
+    /* 商品列表的 ETag（不含引號，順序不同視為不同內容） */
+    public static String etag(List<ProductResponse> products) {
+        MessageDigest digest = sha256();
+        StringBuilder fields = new StringBuilder(128);
+        for (ProductResponse product : products) {
+            fields.setLength(0);
+            fields.append(product.getProductId()).append('\u0000')
+                    .append(product.getProductName()).append('\u0000')
+                    .append(product.getPrice() != null ? product.getPrice().toPlainString() : "").append('\u0000')
+                    .append(product.getQuantity()).append('\u0000')
+                    .append(product.getCreatedAt()).append('\u0000')
+                    .append(product.getUpdatedAt()).append('\u0001');
+            digest.update(fields.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return HEX.formatHex(Arrays.copyOf(digest.digest(), 16));
+    }
+
+    /* 單一商品的最後修改時間，沒有 updatedAt 時回傳 null */
+    public static Instant lastModified(ProductResponse product) {
+        return toInstant(product.getUpdatedAt());
+    }
+
+    /* 商品列表的最後修改時間（updatedAt 最大值），空列表回傳 null */
+    public static Instant lastModified(List<ProductResponse> products) {
+        LocalDateTime latest = null;
+        for (ProductResponse product : products) {
+            LocalDateTime updatedAt = product.getUpdatedAt();
+            if (updatedAt != null && (latest == null || updatedAt.isAfter(latest))) {
+                latest = updatedAt;
+            }
+        }
+        return toInstant(latest);
+    }
+
+    // ========== 私有方法 ==========
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
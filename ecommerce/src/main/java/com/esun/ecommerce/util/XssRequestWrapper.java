@@ -2,19 +2,14 @@ package com.esun.ecommerce.util;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
-import org.owasp.html.HtmlPolicyBuilder;
-import org.owasp.html.PolicyFactory;
 
 /**
  * XSS 請求包裝器
  * 
- * 使用 OWASP Java HTML Sanitizer 過濾 XSS 攻擊
+ * 使用 OWASP Java HTML Sanitizer 過濾 XSS 攻擊（見 XssSanitizer）
  */
 public class XssRequestWrapper extends HttpServletRequestWrapper {
 
-    // OWASP HTML Sanitizer 策略（移除所有 HTML 標籤）
-    private static final PolicyFactory POLICY = new HtmlPolicyBuilder().toFactory();
-
     public XssRequestWrapper(HttpServletRequest request) {
         super(request);
     }
@@ -51,20 +46,15 @@ public class XssRequestWrapper extends HttpServletRequestWrapper {
     @Override
     public String getHeader(String name) {
         String value = super.getHeader(name);
-        return cleanXss(value);
+        return XssSanitizer.sanitizeHeader(value);
     }
 
     /**
      * XSS 清理方法
      * 
-     * 使用 OWASP HTML Sanitizer 移除危險的 HTML/JavaScript
+     * 使用 OWASP HTML Sanitizer 移除危險的 HTML/JavaScript（不含危險字元時直接回傳原值）
      */
     private String cleanXss(String value) {
-        if (value == null || value.isEmpty()) {
-            return value;
-        }
-        
-        // 使用 OWASP Sanitizer 清理
-        return POLICY.sanitize(value);
+        return XssSanitizer.sanitize(value);
     }
 }
\ No newline at end of file
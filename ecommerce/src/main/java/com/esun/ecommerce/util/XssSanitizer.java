@@ -0,0 +1,92 @@
+package com.esun.ecommerce.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.owasp.html.HtmlPolicyBuilder;
+import org.owasp.html.PolicyFactory;
+
+/**
+ * XSS 清理工具
+ *
+ * 使用 OWASP Java HTML Sanitizer 移除所有 HTML 標籤。
+ * Sanitizer 每次都會建立完整的 HTML 解析流程，但大部分的值（商品編號、Content-Type 等）
+ * 不含任何會被改寫的字元，先掃描一次，安全的值直接回傳原字串（不配置新物件）
+ */
+public final class XssSanitizer {
+
+    // OWASP HTML Sanitizer 策略（移除所有 HTML 標籤）
+    private static final PolicyFactory POLICY = new HtmlPolicyBuilder().toFactory();
+
+    /*
+     * ASCII 中 Sanitizer 不會改寫的字元：
+     * 可見字元扣除 " & ' + < = > @ ` {（{ 連續兩個時會被插入註解），控制字元只允許 \t \n \r
+     */
+    private static final boolean[] SAFE_ASCII = new boolean[128];
+
+    static {
+        for (char c = 0x20; c < 0x80; c++) {
+            SAFE_ASCII[c] = "\"&'+<=>@`{".indexOf(c) < 0;
+        }
+        SAFE_ASCII['\t'] = true;
+        SAFE_ASCII['\n'] = true;
+        SAFE_ASCII['\r'] = true;
+    }
+
+    /* 重複出現的請求頭（Accept-Language: zh-TW,zh;q=0.9 等）快取清理結果 */
+    private static final int HEADER_CACHE_SIZE = 1_000;
+    private static final int HEADER_CACHE_MAX_LENGTH = 256;
+    private static final Cache<String, String> HEADER_CACHE = Caffeine.newBuilder()
+            .maximumSize(HEADER_CACHE_SIZE)
+            .build();
+
+    private XssSanitizer() {
+    }
+
+    /**
+     * 清理字串
+     *
+     * @param value 原始值
+     * @return 不需清理時回傳原字串，否則回傳 OWASP Sanitizer 的結果
+     */
+    public static String sanitize(String value) {
+        if (value == null || value.isEmpty() || isSafe(value)) {
+            return value;
+        }
+        return POLICY.sanitize(value);
+    }
+
+    /**
+     * 清理請求頭
+     *
+     * 與 sanitize 相同，需要清理的短字串另外快取結果（過長的值不快取，避免佔滿快取）
+     */
+    public static String sanitizeHeader(String value) {
+        if (value == null || value.isEmpty() || isSafe(value)) {
+            return value;
+        }
+        if (value.length() > HEADER_CACHE_MAX_LENGTH) {
+            return POLICY.sanitize(value);
+        }
+        return HEADER_CACHE.get(value, POLICY::sanitize);
+    }
+
+    /**
+     * 是否所有字元都不會被 Sanitizer 改寫
+     *
+     * 非 ASCII 字元中，Sanitizer 會改寫代理字元（補充平面字元，如 Emoji）、U+1FEF，
+     * 以及 U+FE60 之後的字元（含全形標點），這些一律交給 Sanitizer 處理
+     */
+    static boolean isSafe(String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (!SAFE_ASCII[c]) {
+                    return false;
+                }
+            } else if (c >= 0xFE60 || Character.isSurrogate(c) || c == 0x1FEF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,8 +3,6 @@ package com.esun.ecommerce.util;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import org.owasp.html.HtmlPolicyBuilder;
-import org.owasp.html.PolicyFactory;
 
 import java.io.IOException;
 
@@ -15,17 +13,11 @@ import java.io.IOException;
  */
 public class XssStringDeserializer extends JsonDeserializer<String> {
 
-    private static final PolicyFactory POLICY = new HtmlPolicyBuilder().toFactory();
-
     @Override
     public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
         String value = p.getValueAsString();
         
-        if (value == null || value.isEmpty()) {
-            return value;
-        }
-        
-        // 使用 OWASP Sanitizer 清理 XSS
-        return POLICY.sanitize(value);
+        // 使用 OWASP Sanitizer 清理 XSS（不含危險字元時直接回傳原值）
+        return XssSanitizer.sanitize(value);
     }
 }
\ No newline at end of file
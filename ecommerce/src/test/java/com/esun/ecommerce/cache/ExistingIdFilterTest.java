@@ -0,0 +1,183 @@
+package com.esun.ecommerce.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.config.IdFilterProperties;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.esun.ecommerce.exception.ResourceNotFoundException;
+import com.esun.ecommerce.service.OrderService;
+import com.esun.ecommerce.service.ProductService;
+import com.esun.ecommerce.util.OrderIdGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 不存在的商品 / 訂單編號由 Bloom Filter 擋下，不查詢資料庫（商品編號只在單機部署時檢查）
+ */
+@SpringBootTest(properties = {
+        "ecommerce.id-filter.enabled=true",
+        "ecommerce.id-filter.single-node=true",
+        "ecommerce.order.persistence=jdbc-batch",
+        "ecommerce.product.search.enabled=false"
+})
+@ActiveProfiles("h2")
+class ExistingIdFilterTest {
+
+    /* 產生時間為 epoch 的訂單編號（早於 Bloom Filter 建立時間，不會略過檢查） */
+    private static final String EXISTING_ORDER_ID = "Ms0000000000000000002";
+    private static final String MISSING_ORDER_ID = "Ms0000000000000000003";
+
+    @Autowired
+    private ExistingIdFilter existingIdFilter;
+
+    @Autowired
+    private IdFilterProperties idFilterProperties;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        insertProduct("P001");
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES (?, '458', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", EXISTING_ORDER_ID);
+        existingIdFilter.rebuild();
+    }
+
+    @Test
+    void missingIdsAreRejectedWithoutQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        double negative = lookups("product", "negative");
+
+        assertThatThrownBy(() -> productService.getProductById("P999"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> orderService.getOrderById(MISSING_ORDER_ID))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(lookups("product", "negative")).isEqualTo(negative + 1);
+    }
+
+    @Test
+    void existingAndNewIdsAreFound() {
+        assertThat(productService.getProductById("P001").getProductId()).isEqualTo("P001");
+        assertThat(orderService.getOrderById(EXISTING_ORDER_ID).getOrderId()).isEqualTo(EXISTING_ORDER_ID);
+
+        // 建立後新增的商品（批次匯入等以 ProductChangedEvent 通知）與新建立的訂單
+        insertProduct("P002");
+        eventPublisher.publishEvent(new ProductChangedEvent("P002"));
+        assertThat(existingIdFilter.mightContainProduct("P002")).isTrue();
+
+        OrderResponse created = orderService.createOrder(CreateOrderRequest.builder()
+                .memberId("458")
+                .items(List.of(OrderItemRequest.builder()
+                        .productId("P002")
+                        .quantity(1)
+                        .price(new BigDecimal("100"))
+                        .build()))
+                .build());
+        assertThat(orderService.getOrderById(created.getOrderId())).isEqualTo(created);
+    }
+
+    @Test
+    void orderCreatedWithOlderIdIsFound() {
+        // Idempotency-Key 接手時以登記時產生的編號建立訂單，編號時間早於 Bloom Filter 建立時間
+        String orderId = orderIdAt(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES (?, '458', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", orderId);
+
+        assertThat(existingIdFilter.mightContainOrder(orderId)).isTrue();
+        assertThat(orderService.getOrderById(orderId).getOrderId()).isEqualTo(orderId);
+    }
+
+    @Test
+    void productsAreNotCheckedUnlessSingleNode() {
+        idFilterProperties.setSingleNode(false);
+        try {
+            existingIdFilter.rebuild();
+
+            // 其他主機新增、本機未收到通知的商品
+            insertProduct("P003");
+            assertThat(existingIdFilter.mightContainProduct("P003")).isTrue();
+            assertThat(productService.getProductById("P003").getProductId()).isEqualTo("P003");
+            assertThatThrownBy(() -> orderService.getOrderById(MISSING_ORDER_ID))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        } finally {
+            idFilterProperties.setSingleNode(true);
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearTarget() {
+        IdBloomFilter filter = IdBloomFilter.create(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("P" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(filter.mightContain("P" + i)).isTrue();
+            if (filter.mightContain("Q" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // 預期 1%（約 1,000 筆），容許誤差
+        assertThat(falsePositives).isBetween(500, 1_500);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    // ========== 私有方法 ==========
+
+    private void insertProduct(String productId) {
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES (?, '商品', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", productId);
+    }
+
+    /* 產生時間為 epochMillis、節點與序號為 0 的訂單編號（| 41 bits 時間（自 2025-01-01 起）| 10 bits 節點 | 12 bits 序號 |） */
+    private String orderIdAt(long epochMillis) {
+        return String.format("%s%019d", OrderIdGenerator.PREFIX, (epochMillis - 1735660800000L) << 22);
+    }
+
+    private double lookups(String type, String result) {
+        return meterRegistry.counter("id.filter.lookups", "type", type, "result", result).count();
+    }
+}
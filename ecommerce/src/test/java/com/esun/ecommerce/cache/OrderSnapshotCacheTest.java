@@ -0,0 +1,148 @@
+package com.esun.ecommerce.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import com.esun.ecommerce.config.OrderSnapshotCacheProperties;
+import com.esun.ecommerce.config.RequestCoalescingProperties;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.service.OrderService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 訂單快照快取（建立與查詢時放入，更新付款狀態時清除）
+ */
+@SpringBootTest(properties = {
+        "ecommerce.cache.order-snapshot.enabled=true",
+        "ecommerce.order.persistence=jdbc-batch",
+        "ecommerce.product.search.enabled=false"
+})
+@ActiveProfiles("h2")
+class OrderSnapshotCacheTest {
+
+    private static final String ORDER_ID = "Ms0000000000000000001";
+
+    @Autowired
+    private OrderSnapshotCache orderSnapshotCache;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '商品1', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES (?, '458', 200, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", ORDER_ID);
+        jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                + "VALUES (?, 'P001', 2, 100, 200, CURRENT_TIMESTAMP)", ORDER_ID);
+        orderSnapshotCache.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createdOrderIsServedWithoutQuery() {
+        OrderResponse created = orderService.createOrder(CreateOrderRequest.builder()
+                .memberId("458")
+                .items(List.of(OrderItemRequest.builder()
+                        .productId("P001")
+                        .quantity(1)
+                        .price(new BigDecimal("100"))
+                        .build()))
+                .build());
+        statistics.clear();
+
+        assertThat(orderService.getOrderById(created.getOrderId())).isEqualTo(created);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void payStatusChangeEvictsOrder() {
+        long hits = orderSnapshotCache.stats().hitCount();
+        OrderResponse first = orderService.getOrderById(ORDER_ID);
+        orderService.getOrderById(ORDER_ID);
+
+        // 第一次查詢後放入快取，第二次不查詢資料庫
+        assertThat(first.getPayStatus()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(orderSnapshotCache.stats().hitCount()).isEqualTo(hits + 1);
+
+        orderService.updatePayStatus(ORDER_ID, 1);
+        OrderResponse paid = orderService.getOrderById(ORDER_ID);
+
+        assertThat(paid.getPayStatus()).isEqualTo(1);
+        assertThat(paid.getPayStatusText()).isEqualTo("已付款");
+        assertThat(paid.getItems()).isEqualTo(first.getItems());
+    }
+
+    @Test
+    void ordersBeyondMemoryBudgetAreEvicted() throws InterruptedException {
+        OrderSnapshotCacheProperties properties = new OrderSnapshotCacheProperties();
+        properties.setMemoryBudget(DataSize.ofKilobytes(8));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderSnapshotCache cache = new OrderSnapshotCache(properties,
+                new RequestCoalescer(new RequestCoalescingProperties(), meterRegistry), meterRegistry);
+
+        // 每筆約 1 KB（訂單 + 3 筆明細），放入 100 筆
+        for (int i = 0; i < 100; i++) {
+            cache.put(order(String.format("Ms%019d", i), 3));
+        }
+
+        // 淘汰在背景執行
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (cache.stats().evictionCount() < 90 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.stats().evictionCount()).isGreaterThanOrEqualTo(90);
+        assertThat(cache.stats().evictionWeight()).isGreaterThan(0);
+    }
+
+    // ========== 私有方法 ==========
+
+    private OrderResponse order(String orderId, int items) {
+        return OrderResponse.builder()
+                .orderId(orderId)
+                .memberId("458")
+                .payStatus(0)
+                .payStatusText("未付款")
+                .items(IntStream.range(0, items)
+                        .mapToObj(i -> OrderResponse.OrderDetailResponse.builder()
+                                .orderItemSn((long) i)
+                                .productId("P00" + i)
+                                .productName("商品" + i)
+                                .build())
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.esun.ecommerce.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.esun.ecommerce.config.CatalogCacheProperties;
+import com.esun.ecommerce.config.RequestCoalescingProperties;
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.exception.BusinessException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 相同查詢合併（N 個同時的相同查詢只查詢一次）
+ */
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 50;
+
+    private RequestCoalescingProperties properties;
+    private MeterRegistry meterRegistry;
+    private RequestCoalescer requestCoalescer;
+
+    /* 模擬的資料庫查詢：記錄次數，並停在 release 直到測試放行 */
+    private final AtomicInteger queries = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestCoalescingProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescer = new RequestCoalescer(properties, meterRegistry);
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneQuery() throws Exception {
+        ConcurrentLinkedQueue<String> collected = new ConcurrentLinkedQueue<>();
+        List<Thread> callers = startCallers(CALLERS,
+                () -> collected.add(requestCoalescer.execute("product", "P001", blockingQuery("商品1"))));
+
+        // 所有請求都已進入等待（1 個查詢中、其餘等待結果）後才讓查詢完成
+        awaitParked(callers);
+        release.countDown();
+        join(callers);
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(collected).hasSize(CALLERS).containsOnly("商品1");
+        assertThat(count("product", "executed")).isEqualTo(1);
+        assertThat(count("product", "coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void waitingCallerQueriesItselfAfterTimeout() throws Exception {
+        properties.getTimeouts().put("product", Duration.ofMillis(50));
+        List<Thread> leader = startCallers(1, () -> requestCoalescer.execute("product", "P001", blockingQuery("慢")));
+        awaitParked(leader);
+
+        String result = requestCoalescer.execute("product", "P001", () -> "自行查詢");
+
+        assertThat(result).isEqualTo("自行查詢");
+        assertThat(count("product", "timeout")).isEqualTo(1);
+        release.countDown();
+        join(leader);
+    }
+
+    @Test
+    void failureIsSharedWithWaitingCallers() throws Exception {
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        Supplier<String> failingQuery = () -> {
+            blockingQuery("").get();
+            throw new BusinessException("查詢失敗");
+        };
+        List<Thread> callers = startCallers(CALLERS, () -> {
+            try {
+                requestCoalescer.execute("order", "Ms0000000000000000001", failingQuery);
+            } catch (BusinessException e) {
+                errors.add(e);
+            }
+        });
+
+        awaitParked(callers);
+        release.countDown();
+        join(callers);
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(errors).hasSize(CALLERS).allSatisfy(e -> assertThat(e).hasMessage("查詢失敗"));
+    }
+
+    @Test
+    void productChangeDuringLoadStartsNewQuery() throws Exception {
+        ProductCatalogCache cache = new ProductCatalogCache(new CatalogCacheProperties(), requestCoalescer,
+                meterRegistry);
+        List<Thread> before = startCallers(1, () -> cache.getProduct("P001", id -> product(blockingQuery("舊名稱"))));
+        awaitParked(before);
+
+        // 查詢進行中商品被修改：之後的請求不共用修改前開始的查詢
+        cache.evict(List.of("P001"));
+        ProductResponse after = cache.getProduct("P001", id -> ProductResponse.builder()
+                .productId(id)
+                .productName("新名稱")
+                .build());
+
+        release.countDown();
+        join(before);
+        assertThat(after.getProductName()).isEqualTo("新名稱");
+        assertThat(count("product", "executed")).isEqualTo(2);
+        assertThat(count("product", "coalesced")).isZero();
+    }
+
+    // ========== 私有方法 ==========
+
+    private Supplier<String> blockingQuery(String result) {
+        return () -> {
+            queries.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        };
+    }
+
+    private ProductResponse product(Supplier<String> name) {
+        return ProductResponse.builder()
+                .productId("P001")
+                .productName(name.get())
+                .build();
+    }
+
+    private List<Thread> startCallers(int count, Runnable task) {
+        List<Thread> callers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            callers.add(Thread.ofPlatform().name("caller-" + i).start(task));
+        }
+        return callers;
+    }
+
+    /* 等待所有執行緒停在查詢或等待結果 */
+    private void awaitParked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.TIMED_WAITING)) {
+            assertThat(System.nanoTime()).as("執行緒未在時間內進入等待").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(Duration.ofSeconds(10));
+        }
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.counter("request.coalescing", "name", name, "result", result).count();
+    }
+}
@@ -0,0 +1,80 @@
+package com.esun.ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.repository.OrderRepository;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+import com.esun.ecommerce.repository.ProductRepository;
+
+/**
+ * /actuator/prometheus 的 API、Repository（含 SP 名稱）、連線池與錯誤指標
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("h2")
+class MetricsConfigTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Test
+    void procedureNameIsTakenFromCallQuery() throws Exception {
+        assertThat(MetricsConfig.StoredProcedureTagsProvider.procedureName(
+                OrderRepository.class.getMethod("createOrder", String.class, String.class, String.class)))
+                .isEqualTo("sp_create_order");
+        assertThat(MetricsConfig.StoredProcedureTagsProvider.procedureName(
+                ProductRepository.class.getMethod("getAvailableProducts")))
+                .isEqualTo("sp_get_available_products");
+        assertThat(MetricsConfig.StoredProcedureTagsProvider.procedureName(
+                OrderRepository.class.getMethod("findByMemberId", String.class)))
+                .isEqualTo("none");
+    }
+
+    @Test
+    void prometheusEndpointExposesTimersGaugesAndErrorCounters() {
+        // 商品不存在 → ResourceNotFoundException；H2 沒有 SP → 查詢可用商品失敗（BusinessException）
+        assertThat(restTemplate.getForEntity("/api/products/NOT_EXIST", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        restTemplate.getForEntity("/api/products/available", String.class);
+
+        String metrics = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(metrics)
+                .contains("http_server_requests_seconds_bucket{")
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{[^}]*"
+                        + "method=\"getAvailableProducts\"[^}]*procedure=\"sp_get_available_products\"")
+                .containsPattern("spring_data_repository_invocations_seconds_count\\{[^}]*"
+                        + "method=\"findById\"[^}]*procedure=\"none\"")
+                .containsPattern("api_errors_total\\{[^}]*error_code=\"RESOURCE_NOT_FOUND\"")
+                .containsPattern("api_errors_total\\{[^}]*error_code=\"BUSINESS_ERROR\"")
+                .contains("hikaricp_connections_active{");
+    }
+
+    @Test
+    void jdbcRepositoryMethodsAreTimedPerMethod() {
+        productJdbcRepository.decrementStock(List.of(Map.entry("NOT_EXIST", 1)));
+        productJdbcRepository.decrementStockIfAvailable(Map.of("NOT_EXIST", 1));
+
+        String metrics = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(metrics)
+                .containsPattern("jdbc_repository_invocations_seconds_bucket\\{[^}]*"
+                        + "method=\"decrementStock\"[^}]*repository=\"ProductJdbcRepository\"")
+                .containsPattern("jdbc_repository_invocations_seconds_count\\{[^}]*"
+                        + "method=\"decrementStockIfAvailable\"[^}]*repository=\"ProductJdbcRepository\"");
+    }
+}
@@ -0,0 +1,129 @@
+package com.esun.ecommerce.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * 訂單匯出 API（開始串流前驗證條件，NDJSON / CSV 的輸出格式）
+ */
+@SpringBootTest(properties = "ecommerce.product.search.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class OrderExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /* 明細流水號（依新增順序） */
+    private List<Long> itemSns;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '保溫杯, 500ml \"限定\"', 680, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P002', '蛋糕', 450, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES ('Ms0000000000000000001', '458', 1810, 1, '2025-02-06 10:00:00', '2025-02-06 10:00:00')");
+        jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                + "VALUES ('Ms0000000000000000001', 'P001', 2, 680, 1360, '2025-02-06 10:00:00')");
+        jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                + "VALUES ('Ms0000000000000000001', 'P002', 1, 450, 450, '2025-02-06 10:00:00')");
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES ('Ms0000000000000000002', '459', 450, 0, '2025-03-06 10:00:00', '2025-03-06 10:00:00')");
+        jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                + "VALUES ('Ms0000000000000000002', 'P002', 1, 450, 450, '2025-03-06 10:00:00')");
+        itemSns = jdbcTemplate.queryForList("SELECT order_item_sn FROM order_detail ORDER BY order_item_sn", Long.class);
+    }
+
+    @Test
+    void invalidConditionsReturn400BeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("from", "2025-03-01").param("to", "2025-02-01"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errorCode").value("INVALID_DATE_RANGE"));
+
+        mockMvc.perform(get("/api/orders/export").param("payStatus", "7"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_PAY_STATUS"));
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerLine() throws Exception {
+        String body = export("ndjson", "2025-02-01", "2025-02-28");
+
+        assertThat(body.split("\n", -1)).containsExactly(
+                "{\"orderId\":\"Ms0000000000000000001\",\"memberId\":\"458\",\"totalPrice\":1810.00,\"payStatus\":1,"
+                        + "\"createdAt\":\"2025-02-06 10:00:00\",\"updatedAt\":\"2025-02-06 10:00:00\","
+                        + "\"orderItemSn\":" + itemSns.get(0) + ",\"productId\":\"P001\",\"productName\":\"保溫杯, 500ml \\\"限定\\\"\","
+                        + "\"quantity\":2,\"standPrice\":680.00,\"itemPrice\":1360.00}",
+                "{\"orderId\":\"Ms0000000000000000001\",\"memberId\":\"458\",\"totalPrice\":1810.00,\"payStatus\":1,"
+                        + "\"createdAt\":\"2025-02-06 10:00:00\",\"updatedAt\":\"2025-02-06 10:00:00\","
+                        + "\"orderItemSn\":" + itemSns.get(1) + ",\"productId\":\"P002\",\"productName\":\"蛋糕\","
+                        + "\"quantity\":1,\"standPrice\":450.00,\"itemPrice\":450.00}",
+                "");
+    }
+
+    @Test
+    void csvQuotesValuesAndEndsLinesWithCrlf() throws Exception {
+        String body = export("csv", null, null);
+
+        assertThat(body).startsWith("\uFEFF");
+        assertThat(body.substring(1).split("\r\n", -1)).containsExactly(
+                "orderId,memberId,totalPrice,payStatus,createdAt,updatedAt,"
+                        + "orderItemSn,productId,productName,quantity,standPrice,itemPrice",
+                "Ms0000000000000000001,458,1810.00,1,2025-02-06 10:00:00,2025-02-06 10:00:00,"
+                        + itemSns.get(0) + ",P001,\"保溫杯, 500ml \"\"限定\"\"\",2,680.00,1360.00",
+                "Ms0000000000000000001,458,1810.00,1,2025-02-06 10:00:00,2025-02-06 10:00:00,"
+                        + itemSns.get(1) + ",P002,蛋糕,1,450.00,450.00",
+                "Ms0000000000000000002,459,450.00,0,2025-03-06 10:00:00,2025-03-06 10:00:00,"
+                        + itemSns.get(2) + ",P002,蛋糕,1,450.00,450.00",
+                "");
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 匯出內容在非同步執行緒寫出，等待完成後取回 */
+    private String export(String format, String from, String to) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/orders/export").param("format", format);
+        if (from != null) {
+            builder.param("from", from).param("to", to);
+        }
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package com.esun.ecommerce.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.esun.ecommerce.cache.ProductCatalogCache;
+import com.esun.ecommerce.event.ProductChangedEvent;
+
+/**
+ * 商品查詢 API 的 HTTP 快取（ETag / Last-Modified / Cache-Control 與 304 回應）
+ */
+@SpringBootTest(properties = {
+        "ecommerce.product.http-cache.list.shared-max-age=5m",
+        "ecommerce.product.http-cache.list.stale-while-revalidate=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ProductHttpCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '保溫杯', 680, 10, '2025-02-06 10:00:00', '2025-02-06 10:00:00')");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P002', '蛋糕', 450, 5, '2025-02-06 09:00:00', '2025-02-06 11:30:00')");
+        productCatalogCache.clear();
+    }
+
+    @Test
+    void listReturnsValidatorsAndConfiguredCacheControl() throws Exception {
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, epochMillis("2025-02-06T11:30:00")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+                        "max-age=30, public, s-maxage=300, stale-while-revalidate=60"))
+                .andExpect(jsonPath("$.data.length()").value(2));
+    }
+
+    @Test
+    void matchingEtagReturns304FromCacheUntilProductsChange() throws Exception {
+        String etag = etag(mockMvc.perform(get("/api/products")).andReturn());
+
+        // 列表已在快取中：資料庫被直接修改（沒有發布事件）也不會重新查詢
+        jdbcTemplate.update("UPDATE product SET quantity = 9 WHERE product_id = 'P001'");
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                .andExpect(content().string(""));
+
+        // 商品異動後快取失效，內容不同時回傳新的 ETag 與完整內容
+        eventPublisher.publishEvent(new ProductChangedEvent("P001"));
+        MvcResult changed = mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[?(@.productId == 'P001')].quantity").value(9))
+                .andReturn();
+        assertThat(etag(changed)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void productDetailSupportsEtagAndLastModified() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/products/P001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=10, public"))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, epochMillis("2025-02-06T10:00:00")))
+                .andReturn();
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/api/products/P001").header(HttpHeaders.IF_NONE_MATCH, etag(first)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/P001").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/P001").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.productId").value("P001"));
+    }
+
+    // ========== 私有方法 ==========
+
+    private String etag(MvcResult result) {
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    /* 資料庫時間以 JVM 時區解讀 */
+    private long epochMillis(String dateTime) {
+        return LocalDateTime.parse(dateTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
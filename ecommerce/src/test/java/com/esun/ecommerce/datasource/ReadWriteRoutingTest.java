@@ -0,0 +1,174 @@
+package com.esun.ecommerce.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.cache.OrderSnapshotCache;
+import com.esun.ecommerce.cache.ProductCatalogCache;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.entity.Product;
+import com.esun.ecommerce.repository.ProductRepository;
+import com.esun.ecommerce.service.OrderService;
+import com.esun.ecommerce.service.ProductService;
+
+/**
+ * 讀寫分離：唯讀 Transaction 使用 replica，寫入、replica 延遲過高、read-your-writes 與快取載入使用 primary
+ *
+ * primary、replica 為兩個獨立的 H2 資料庫（沒有複寫），以商品名稱區分查詢落在哪一邊；
+ * 複寫延遲以 replica 上的 replica_lag 資料表模擬（查無資料代表未設定複寫）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:esun_routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "ecommerce.datasource.routing.enabled=true",
+        "ecommerce.datasource.routing.replicas[0].url=" + ReadWriteRoutingTest.REPLICA_URL,
+        "ecommerce.datasource.routing.lag-query=SELECT lag_seconds FROM replica_lag",
+        "ecommerce.datasource.routing.max-lag=2s",
+        "ecommerce.datasource.routing.health-check-interval=1h",
+        "ecommerce.cache.order-snapshot.enabled=true",
+        "ecommerce.order.persistence=jdbc-batch" })
+@ActiveProfiles("h2")
+class ReadWriteRoutingTest {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:esun_routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private OrderSnapshotCache orderSnapshotCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        insertProduct(jdbcTemplate, "primary");
+
+        replica.execute("CREATE TABLE IF NOT EXISTS product (product_id VARCHAR(50) PRIMARY KEY, "
+                + "product_name VARCHAR(200) NOT NULL, price DECIMAL(10, 2) NOT NULL, quantity INT NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL)");
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_seconds BIGINT)");
+        replica.update("DELETE FROM product");
+        replica.update("DELETE FROM replica_lag");
+        insertProduct(replica, "replica");
+        setReplicaLag(0);
+        productCatalogCache.clear();
+        orderSnapshotCache.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        assertThat(productNames()).containsExactly("replica");
+
+        List<String> inWriteTransaction = transactionTemplate.execute(status -> productNames());
+        assertThat(inWriteTransaction).containsExactly("primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimaryUntilItCatchesUp() {
+        setReplicaLag(10);
+        assertThat(productNames()).containsExactly("primary");
+
+        setReplicaLag(1);
+        assertThat(productNames()).containsExactly("replica");
+    }
+
+    @Test
+    void replicaWithoutReplicationStatusIsNotUsed() {
+        replica.update("DELETE FROM replica_lag");
+        replicaDataSource.checkReplicas();
+        assertThat(productNames()).containsExactly("primary");
+
+        setReplicaLag(0);
+        assertThat(productNames()).containsExactly("replica");
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnlyRouting() {
+        assertThat(DataSourceRouting.onPrimary(this::productNames)).containsExactly("primary");
+        assertThat(productNames()).containsExactly("replica");
+    }
+
+    @Test
+    void createdOrderIsReadBackFromPrimary() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setMemberId("458");
+        request.setItems(List.of(new OrderItemRequest("P001", 2, new BigDecimal("100"))));
+
+        // replica 沒有訂單資料表，從 replica 讀取會失敗
+        OrderResponse order = orderService.createOrder(request);
+
+        assertThat(order.getItems()).hasSize(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE product_id = 'P001'",
+                Integer.class)).isEqualTo(8);
+    }
+
+    @Test
+    void cacheMissesAreLoadedFromPrimary() {
+        assertThat(productService.getProductById("P001").getProductName()).isEqualTo("primary");
+        assertThat(productService.getAllProducts().getProducts())
+                .extracting(ProductResponse::getProductName)
+                .containsExactly("primary");
+
+        // replica 沒有訂單資料表，從 replica 讀取會失敗
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setMemberId("458");
+        request.setItems(List.of(new OrderItemRequest("P001", 1, new BigDecimal("100"))));
+        String orderId = orderService.createOrder(request).getOrderId();
+        orderSnapshotCache.clear();
+
+        assertThat(orderService.getOrderById(orderId).getOrderId()).isEqualTo(orderId);
+    }
+
+    // ========== 私有方法 ==========
+
+    private List<String> productNames() {
+        return productRepository.findAll().stream().map(Product::getProductName).toList();
+    }
+
+    private void setReplicaLag(long seconds) {
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag (lag_seconds) VALUES (?)", seconds);
+        replicaDataSource.checkReplicas();
+    }
+
+    private static void insertProduct(JdbcTemplate template, String name) {
+        template.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', ?, 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", name);
+    }
+}
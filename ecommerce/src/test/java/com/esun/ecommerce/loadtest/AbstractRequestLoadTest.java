@@ -0,0 +1,232 @@
+package com.esun.ecommerce.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * 請求處理執行緒模式的負載測試（平台執行緒 vs 虛擬執行緒）
+ *
+ * 混合負載：SLOW_CLIENTS 個用戶端查詢訂單（每次查詢延遲 QUERY_MILLIS，受 10 條連線限制），
+ * 同時 FAST_CLIENTS 個用戶端查詢已快取的商品（不需連線）。
+ * 平台執行緒模式下 Tomcat 的 200 條執行緒會全部卡在等連線，快取查詢也得排隊；
+ * 虛擬執行緒模式下快取查詢不受影響。
+ *
+ * 以 JFR 的 jdk.VirtualThreadPinned 事件檢查虛擬執行緒是否因 synchronized 而卡住載體執行緒
+ *
+ * 預設不執行，執行：mvn -Ploadtest test
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.com.esun.ecommerce=WARN",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.datasource.hikari.connection-timeout=30000" })
+@ActiveProfiles("h2")
+@Import(AbstractRequestLoadTest.SlowQueryConfig.class)
+abstract class AbstractRequestLoadTest {
+
+    private static final long QUERY_MILLIS = 50;
+    private static final int SLOW_CLIENTS = 300;
+    private static final int FAST_CLIENTS = 20;
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    private static final String ORDER_ID = "Ms0000000000000000001";
+    private static final String PRODUCT_ID = "P001";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES (?, '商品1', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", PRODUCT_ID);
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES (?, '458', 100, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", ORDER_ID);
+        jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                + "VALUES (?, ?, 1, 100, 100, CURRENT_TIMESTAMP)", ORDER_ID, PRODUCT_ID);
+    }
+
+    @Test
+    void mixedSlowAndCachedRequests() throws Exception {
+        URI orderUri = URI.create("http://localhost:" + port + "/api/orders/" + ORDER_ID);
+        URI productUri = URI.create("http://localhost:" + port + "/api/products/" + PRODUCT_ID);
+
+        // 載入商品快取
+        assertThat(send(productUri)).isEqualTo(200);
+        run(orderUri, productUri, WARMUP);
+
+        List<String> pinnedFrames = new CopyOnWriteArrayList<>();
+        AtomicInteger pinnedEvents = new AtomicInteger();
+        Result result;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinnedEvents.incrementAndGet();
+                String frame = firstApplicationFrame(event);
+                if (frame != null) {
+                    pinnedFrames.add(frame);
+                }
+            });
+            recording.startAsync();
+            result = run(orderUri, productUri, DURATION);
+            recording.stop();
+        }
+
+        System.out.printf("%n[%s] %d 秒%n", getClass().getSimpleName(), DURATION.toSeconds());
+        System.out.printf("  訂單查詢（%d 用戶端，每次查詢 %d ms）：%s%n", SLOW_CLIENTS, QUERY_MILLIS, result.slow());
+        System.out.printf("  商品查詢（%d 用戶端，已快取）：%s%n", FAST_CLIENTS, result.fast());
+        System.out.printf("  虛擬執行緒 pinned 事件：%d（應用程式碼 %d）%n%n", pinnedEvents.get(), pinnedFrames.size());
+
+        assertThat(result.errors()).isZero();
+        assertThat(pinnedFrames).isEmpty();
+    }
+
+    // ========== 私有方法 ==========
+
+    private Result run(URI orderUri, URI productUri, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ConcurrentLinkedQueue<Long> slowLatencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> fastLatencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < SLOW_CLIENTS; i++) {
+                clients.submit(() -> loop(orderUri, deadline, slowLatencies, errors));
+            }
+            for (int i = 0; i < FAST_CLIENTS; i++) {
+                clients.submit(() -> loop(productUri, deadline, fastLatencies, errors));
+            }
+            clients.shutdown();
+            assertThat(clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+        }
+
+        return new Result(Stats.of(slowLatencies, duration), Stats.of(fastLatencies, duration), errors.get());
+    }
+
+    private void loop(URI uri, long deadline, ConcurrentLinkedQueue<Long> latencies, AtomicInteger errors) {
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                if (send(uri) == 200) {
+                    latencies.add(System.nanoTime() - start);
+                } else {
+                    errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private int send(URI uri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /*
+     * pinned 事件堆疊中最內層的非 JDK 呼叫端即持有 monitor 的位置；
+     * 只有本專案的程式碼才算失敗（H2 驅動僅用於測試，正式環境的 MySQL Connector/J 9 已改用 ReentrantLock）
+     */
+    private static String firstApplicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return null;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) {
+                continue;
+            }
+            return type.startsWith("com.esun.ecommerce.")
+                    ? type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber()
+                    : null;
+        }
+        return null;
+    }
+
+    private record Result(Stats slow, Stats fast, int errors) {
+    }
+
+    private record Stats(int requests, double throughput, double p50Millis, double p99Millis) {
+
+        static Stats of(ConcurrentLinkedQueue<Long> latencies, Duration duration) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            sorted.sort(null);
+            return new Stats(sorted.size(), sorted.size() / (double) duration.toSeconds(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+
+        private static double percentile(List<Long> sorted, double percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+            return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d 筆，%.0f req/s，p50 %.1f ms，p99 %.1f ms", requests, throughput, p50Millis, p99Millis);
+        }
+    }
+
+    /* 以 SlowQueryDataSource 包裝連線池，模擬實際資料庫的查詢延遲 */
+    @TestConfiguration
+    static class SlowQueryConfig {
+
+        @Bean
+        static BeanPostProcessor slowQueryDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return new SlowQueryDataSource(dataSource, QUERY_MILLIS);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.esun.ecommerce.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 單一 API 的負載測試統計
+ *
+ * 延遲以微秒記錄在 HdrHistogram（最大 60 秒、3 位有效數字），
+ * 從預定的送出時間開始計算（避免 coordinated omission：伺服器變慢時不會少算排隊時間）
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    /* 2xx */
+    void succeeded(long latencyNanos) {
+        record(latencyNanos);
+        succeeded.increment();
+    }
+
+    /* 4xx：業務規則拒絕（庫存不足等），屬於預期結果 */
+    void rejected(long latencyNanos) {
+        record(latencyNanos);
+        rejected.increment();
+    }
+
+    /* 5xx、逾時、連線失敗 */
+    void error(long latencyNanos) {
+        record(latencyNanos);
+        errors.increment();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long total() {
+        return succeeded.sum() + rejected.sum() + errors.sum();
+    }
+
+    static String header() {
+        return String.format("%-22s %8s %9s %9s %9s %9s %9s %9s %8s %7s",
+                "API", "requests", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "rejected", "errors");
+    }
+
+    String format(double seconds) {
+        return String.format("%-22s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d %7d",
+                name, total(), total() / seconds,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()), rejected.sum(), errors.sum());
+    }
+
+    /* 輸出完整的延遲分布（.hgrm，可用 HdrHistogram 的 plotter 繪圖） */
+    void writeDistribution(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName() + ".hgrm")))) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private void record(long latencyNanos) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_MICROS));
+    }
+
+    /* POST /orders → POST_orders */
+    private String fileName() {
+        return name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("_$", "");
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,183 @@
+package com.esun.ecommerce.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * DB/03_StoredProcedures.sql 的 H2 版本（CREATE ALIAS 對應到 Java 方法）
+ *
+ * 步驟與 MySQL 版本相同（含 SELECT ... FOR UPDATE 悲觀鎖），錯誤以 SQLSTATE 45000 拋出。
+ * MySQL 版本在 SP 內 START TRANSACTION / COMMIT，H2 版本則加入呼叫端的 Transaction
+ */
+public final class H2StoredProcedures {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String PRODUCT_COLUMNS = "product_id, product_name, price, quantity, created_at, updated_at";
+
+    /* 回傳 ResultSet 的 ALIAS 在 prepare 時會先以此連線呼叫一次，只用來取得欄位 */
+    private static final String COLUMN_LIST_URL = "jdbc:columnlist:connection";
+
+    private H2StoredProcedures() {
+    }
+
+    /* 以 CREATE ALIAS 註冊與 MySQL 相同名稱的 SP */
+    static String[] createAliasStatements() {
+        String type = H2StoredProcedures.class.getName();
+        return new String[] {
+                "CREATE ALIAS IF NOT EXISTS sp_add_product FOR \"" + type + ".addProduct\"",
+                "CREATE ALIAS IF NOT EXISTS sp_get_available_products FOR \"" + type + ".getAvailableProducts\"",
+                "CREATE ALIAS IF NOT EXISTS sp_get_product_by_id FOR \"" + type + ".getProductById\"",
+                "CREATE ALIAS IF NOT EXISTS sp_update_inventory FOR \"" + type + ".updateInventory\"",
+                "CREATE ALIAS IF NOT EXISTS sp_create_order FOR \"" + type + ".createOrder\"",
+                "CREATE ALIAS IF NOT EXISTS sp_get_all_orders FOR \"" + type + ".getAllOrders\"" };
+    }
+
+    /* 1. sp_add_product */
+    public static void addProduct(Connection connection, String productId, String productName,
+            BigDecimal price, Integer quantity) throws SQLException {
+        if (currentQuantity(connection, productId, false) != null) {
+            throw signal("商品編號已存在");
+        }
+        if (price.signum() < 0) {
+            throw signal("商品價格不能為負數");
+        }
+        if (quantity < 0) {
+            throw signal("商品庫存不能為負數");
+        }
+        update(connection, "INSERT INTO product (product_id, product_name, price, quantity) VALUES (?, ?, ?, ?)",
+                productId, productName, price, quantity);
+    }
+
+    /* 2. sp_get_available_products */
+    public static ResultSet getAvailableProducts(Connection connection) throws SQLException {
+        return connection.createStatement().executeQuery(
+                "SELECT " + PRODUCT_COLUMNS + " FROM product WHERE quantity > 0 ORDER BY product_id");
+    }
+
+    /* 3. sp_get_product_by_id */
+    public static ResultSet getProductById(Connection connection, String productId) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                "SELECT " + PRODUCT_COLUMNS + " FROM product WHERE product_id = ?");
+        statement.setString(1, productId);
+        return statement.executeQuery();
+    }
+
+    /* 5. sp_update_inventory */
+    public static void updateInventory(Connection connection, String productId, Integer quantity) throws SQLException {
+        Integer current = currentQuantity(connection, productId, true);
+        if (current == null) {
+            throw signal("商品不存在");
+        }
+        if (current < quantity) {
+            throw signal("庫存不足");
+        }
+        update(connection, "UPDATE product SET quantity = quantity - ? WHERE product_id = ?", quantity, productId);
+    }
+
+    /* 6. sp_create_order（回傳訂單主檔與明細，每個明細一列） */
+    public static ResultSet createOrder(Connection connection, String orderId, String memberId, String orderItems)
+            throws SQLException {
+        if (COLUMN_LIST_URL.equals(connection.getMetaData().getURL())) {
+            return orderWithDetails(connection, orderId);
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM `order` WHERE order_id = ?")) {
+            statement.setString(1, orderId);
+            if (statement.executeQuery().next()) {
+                throw signal("訂單編號已存在");
+            }
+        }
+
+        JsonNode items;
+        try {
+            items = OBJECT_MAPPER.readTree(orderItems);
+        } catch (Exception e) {
+            throw signal("訂單資料格式錯誤");
+        }
+        if (items.isEmpty()) {
+            throw signal("訂單至少需要一個商品");
+        }
+
+        update(connection, "INSERT INTO `order` (order_id, member_id, total_price, pay_status) VALUES (?, ?, 0, 0)",
+                orderId, memberId);
+
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (JsonNode item : items) {
+            String productId = item.get("productId").asText();
+            int quantity = item.get("quantity").asInt();
+            BigDecimal price = item.get("price").decimalValue();
+
+            if (quantity <= 0) {
+                throw signal("商品數量需大於0");
+            }
+
+            // 檢查庫存（悲觀鎖）
+            Integer current = currentQuantity(connection, productId, true);
+            if (current == null) {
+                throw signal("商品不存在: " + productId);
+            }
+            if (current < quantity) {
+                throw signal("商品庫存不足: " + productId + ", 需要: " + quantity + ", 剩餘: " + current);
+            }
+
+            update(connection, "UPDATE product SET quantity = quantity - ? WHERE product_id = ?", quantity, productId);
+
+            BigDecimal itemPrice = price.multiply(BigDecimal.valueOf(quantity));
+            totalPrice = totalPrice.add(itemPrice);
+            update(connection, "INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price) "
+                    + "VALUES (?, ?, ?, ?, ?)", orderId, productId, quantity, price, itemPrice);
+        }
+
+        update(connection, "UPDATE `order` SET total_price = ? WHERE order_id = ?", totalPrice, orderId);
+        return orderWithDetails(connection, orderId);
+    }
+
+    /* 8. sp_get_all_orders */
+    public static ResultSet getAllOrders(Connection connection) throws SQLException {
+        return connection.createStatement().executeQuery("SELECT order_id, member_id, total_price, pay_status, "
+                + "created_at, updated_at FROM `order` ORDER BY created_at DESC");
+    }
+
+    // ========== 私有方法 ==========
+
+    /* sp_create_order 最後的 SELECT：訂單主檔與明細，每個明細一列 */
+    private static ResultSet orderWithDetails(Connection connection, String orderId) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("SELECT o.order_id, o.member_id, o.total_price, "
+                + "o.pay_status, o.created_at, o.updated_at, od.order_item_sn, od.product_id, od.quantity, "
+                + "od.stand_price, od.item_price FROM `order` o INNER JOIN order_detail od ON o.order_id = od.order_id "
+                + "WHERE o.order_id = ? ORDER BY od.order_item_sn");
+        statement.setString(1, orderId);
+        return statement.executeQuery();
+    }
+
+    private static Integer currentQuantity(Connection connection, String productId, boolean forUpdate)
+            throws SQLException {
+        String sql = "SELECT quantity FROM product WHERE product_id = ?" + (forUpdate ? " FOR UPDATE" : "");
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, productId);
+            ResultSet resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : null;
+        }
+    }
+
+    private static void update(Connection connection, String sql, Object... args) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    /* 對應 MySQL 的 SIGNAL SQLSTATE '45000' */
+    private static SQLException signal(String message) {
+        return new SQLException(message, "45000");
+    }
+}
@@ -0,0 +1,79 @@
+package com.esun.ecommerce.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 負載測試用的 H2 資料庫
+ *
+ * 直接執行 DB/01_DDL.sql 建立資料表（略過 H2 不支援的 CREATE DATABASE、USE），
+ * 再以 H2StoredProcedures 註冊 DB/03_StoredProcedures.sql 的 SP
+ */
+final class LoadTestDatabase {
+
+    private static final Path DDL = Path.of("DB", "01_DDL.sql");
+
+    private LoadTestDatabase() {
+    }
+
+    /* 重新建立資料表（DDL 內含 DROP TABLE）並註冊 SP */
+    static void create(JdbcTemplate jdbcTemplate) {
+        for (String statement : statements(DDL)) {
+            String upper = statement.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")) {
+                continue;
+            }
+            jdbcTemplate.execute(statement);
+        }
+        for (String statement : H2StoredProcedures.createAliasStatements()) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    /* 新增商品 P00001 ~ Pnnnnn，每個商品庫存 stock */
+    static void seedProducts(JdbcTemplate jdbcTemplate, int count, int stock) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            rows.add(new Object[] { productId(i), "商品" + i, price(i), stock });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (product_id, product_name, price, quantity) VALUES (?, ?, ?, ?)",
+                rows);
+    }
+
+    static String productId(int index) {
+        return String.format("P%05d", index);
+    }
+
+    static BigDecimal price(int index) {
+        return BigDecimal.valueOf(100L + index % 50 * 10);
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 以分號切分 SQL，移除 -- 註解 */
+    private static List<String> statements(Path script) {
+        String sql;
+        try {
+            sql = Files.readString(script);
+        } catch (IOException e) {
+            throw new UncheckedIOException("讀取 " + script + " 失敗", e);
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (String chunk : sql.split(";")) {
+            String statement = chunk.replaceAll("(?m)^\\s*--.*$", "").trim();
+            if (!statement.isEmpty()) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,243 @@
+package com.esun.ecommerce.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.cache.ProductCatalogCache;
+
+/**
+ * 訂單與商品 API 的端對端負載測試
+ *
+ * 以 DB/01_DDL.sql 建立 H2 資料表、H2StoredProcedures 模擬 SP，新增 products 個商品，
+ * 依固定速率（開放模型：不等前一個請求完成）送出讀寫混合的請求：
+ *   POST /api/orders（writePercent %，1 ~ 3 個商品，80% 集中在前 10% 的熱門商品）
+ *   GET  /api/products/available、GET /api/products/{productId}、GET /api/orders/member/{memberId}
+ *
+ * 結束後輸出各 API 的吞吐量與延遲百分位數（HdrHistogram，另存 target/loadtest/*.hgrm），
+ * 並檢查是否超賣：庫存不可為負，且 初始庫存 - 訂單明細數量 = 目前庫存
+ *
+ * 執行：mvn -Ploadtest test -Dtest=OrderApiLoadTest -Dloadtest.rate=300 -Dloadtest.duration=60
+ * 其他應用程式設定同樣以 -D 覆寫，例如 -Decommerce.order.persistence=jdbc-batch
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:esun_loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=5000",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "logging.level.com.esun.ecommerce=ERROR",
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF" })
+@ActiveProfiles("h2")
+class OrderApiLoadTest {
+
+    /* 每秒請求數 */
+    private static final int RATE = Integer.getInteger("loadtest.rate", 200);
+    /* 量測時間（秒），另有 WARMUP 秒暖機（不計入統計，但計入超賣檢查） */
+    private static final int DURATION = Integer.getInteger("loadtest.duration", 30);
+    private static final int WARMUP = Integer.getInteger("loadtest.warmup", 5);
+    private static final int PRODUCTS = Integer.getInteger("loadtest.products", 500);
+    private static final int MEMBERS = Integer.getInteger("loadtest.members", 1000);
+    private static final int STOCK = Integer.getInteger("loadtest.stock", 50);
+    private static final int WRITE_PERCENT = Integer.getInteger("loadtest.writePercent", 20);
+    /* 可容許的錯誤率（5xx、逾時） */
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0"));
+
+    private static final Path REPORT_DIRECTORY = Path.of("target", "loadtest");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        LoadTestDatabase.create(jdbcTemplate);
+        LoadTestDatabase.seedProducts(jdbcTemplate, PRODUCTS, STOCK);
+        productCatalogCache.clear();
+    }
+
+    @Test
+    void mixedReadWriteTraffic() throws Exception {
+        run(Duration.ofSeconds(WARMUP), newStats());
+        List<EndpointStats> stats = newStats();
+        run(Duration.ofSeconds(DURATION), stats);
+
+        report(stats);
+
+        long total = stats.stream().mapToLong(EndpointStats::total).sum();
+        long errors = stats.stream().mapToLong(EndpointStats::errors).sum();
+        assertThat((double) errors / total).as("錯誤率").isLessThanOrEqualTo(MAX_ERROR_RATE);
+        assertNoOversell();
+    }
+
+    // ========== 私有方法 ==========
+
+    private static List<EndpointStats> newStats() {
+        return List.of(new EndpointStats("POST /orders"), new EndpointStats("GET /products/available"),
+                new EndpointStats("GET /products/{id}"), new EndpointStats("GET /orders/member/{id}"));
+    }
+
+    /* 依固定速率送出請求，延遲從預定送出時間起算 */
+    private void run(Duration duration, List<EndpointStats> stats) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long requests = duration.toSeconds() * RATE;
+        SplittableRandom random = new SplittableRandom();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < requests; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                SplittableRandom requestRandom = random.split();
+                clients.submit(() -> send(requestRandom, intendedStart, stats));
+            }
+            clients.shutdown();
+            assertThat(clients.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        }
+    }
+
+    private void send(SplittableRandom random, long intendedStart, List<EndpointStats> stats) {
+        int roll = random.nextInt(100);
+        EndpointStats endpoint;
+        HttpRequest request;
+        if (roll < WRITE_PERCENT) {
+            endpoint = stats.get(0);
+            request = post("/api/orders", orderJson(random));
+        } else {
+            // 讀取：可用商品 50%、單一商品 35%、會員訂單 15%
+            int read = (roll - WRITE_PERCENT) * 100 / (100 - WRITE_PERCENT);
+            if (read < 50) {
+                endpoint = stats.get(1);
+                request = get("/api/products/available");
+            } else if (read < 85) {
+                endpoint = stats.get(2);
+                request = get("/api/products/" + LoadTestDatabase.productId(pickProduct(random)));
+            } else {
+                endpoint = stats.get(3);
+                request = get("/api/orders/member/" + memberId(random));
+            }
+        }
+
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            long latency = System.nanoTime() - intendedStart;
+            if (status >= 200 && status < 300) {
+                endpoint.succeeded(latency);
+            } else if (status >= 400 && status < 500) {
+                endpoint.rejected(latency);
+            } else {
+                endpoint.error(latency);
+            }
+        } catch (Exception e) {
+            endpoint.error(System.nanoTime() - intendedStart);
+        }
+    }
+
+    /* 1 ~ 3 個不重複的商品，數量 1 ~ 3 */
+    private static String orderJson(SplittableRandom random) {
+        Set<Integer> products = new LinkedHashSet<>();
+        int cartSize = random.nextInt(1, 4);
+        while (products.size() < cartSize) {
+            products.add(pickProduct(random));
+        }
+
+        List<String> items = new ArrayList<>(cartSize);
+        for (int product : products) {
+            items.add(String.format("{\"productId\":\"%s\",\"quantity\":%d,\"price\":%s}",
+                    LoadTestDatabase.productId(product), random.nextInt(1, 4), LoadTestDatabase.price(product)));
+        }
+        return String.format("{\"memberId\":\"%s\",\"items\":[%s]}", memberId(random), String.join(",", items));
+    }
+
+    /* 80% 的請求集中在前 10% 的熱門商品 */
+    private static int pickProduct(SplittableRandom random) {
+        int hot = Math.max(PRODUCTS / 10, 1);
+        return random.nextInt(100) < 80 ? random.nextInt(1, hot + 1) : random.nextInt(1, PRODUCTS + 1);
+    }
+
+    private static String memberId(SplittableRandom random) {
+        return "M" + random.nextInt(1, MEMBERS + 1);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void report(List<EndpointStats> stats) throws Exception {
+        long orders = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `order`", Long.class);
+        long soldOut = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE quantity = 0", Long.class);
+
+        System.out.printf("%n[OrderApiLoadTest] 目標 %d req/s，量測 %d 秒（暖機 %d 秒），商品 %d 個（庫存各 %d），會員 %d 個%n",
+                RATE, DURATION, WARMUP, PRODUCTS, STOCK, MEMBERS);
+        System.out.println(EndpointStats.header());
+        for (EndpointStats endpoint : stats) {
+            System.out.println(endpoint.format(DURATION));
+            endpoint.writeDistribution(REPORT_DIRECTORY);
+        }
+        System.out.printf("訂單 %d 筆，售完商品 %d 個，延遲分布：%s%n%n", orders, soldOut, REPORT_DIRECTORY.toAbsolutePath());
+    }
+
+    /* 超賣檢查：庫存不可為負，且每個商品 初始庫存 = 目前庫存 + 已售出數量 */
+    private void assertNoOversell() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE quantity < 0", Long.class))
+                .as("庫存為負的商品數").isZero();
+
+        List<String> mismatched = jdbcTemplate.queryForList("SELECT p.product_id FROM product p "
+                + "LEFT JOIN (SELECT product_id, SUM(quantity) AS sold FROM order_detail GROUP BY product_id) d "
+                + "ON d.product_id = p.product_id "
+                + "WHERE p.quantity + COALESCE(d.sold, 0) <> ?", String.class, STOCK);
+        assertThat(mismatched).as("庫存與訂單明細不一致的商品").isEmpty();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `order` o WHERE o.total_price <> "
+                + "(SELECT COALESCE(SUM(d.item_price), 0) FROM order_detail d WHERE d.order_id = o.order_id)", Long.class))
+                .as("總金額與明細不一致的訂單數").isZero();
+    }
+}
@@ -0,0 +1,10 @@
+package com.esun.ecommerce.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 平台執行緒（Tomcat 預設 200 條工作執行緒）
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadLoadTest extends AbstractRequestLoadTest {
+}
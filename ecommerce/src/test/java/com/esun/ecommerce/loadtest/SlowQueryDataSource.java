@@ -0,0 +1,65 @@
+package com.esun.ecommerce.loadtest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 模擬遠端資料庫查詢延遲的 DataSource
+ *
+ * 每次 executeQuery 停頓 queryMillis 毫秒（期間佔用連線），
+ * 讓 H2 記憶體資料庫的行為接近實際環境：請求大部分時間在等 JDBC
+ */
+final class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final long queryMillis;
+
+    SlowQueryDataSource(DataSource target, long queryMillis) {
+        super(target);
+        this.queryMillis = queryMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection target = super.getConnection();
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = invoke(method, target, args);
+            if (result instanceof PreparedStatement statement && method.getName().startsWith("prepare")) {
+                return proxy(PreparedStatement.class, statement, (statementMethod, statementArgs) -> {
+                    if ("executeQuery".equals(statementMethod.getName())) {
+                        Thread.sleep(queryMillis);
+                    }
+                    return invoke(statementMethod, statement, statementArgs);
+                });
+            }
+            return result;
+        });
+    }
+
+    // ========== 私有方法 ==========
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.esun.ecommerce.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 虛擬執行緒（與 vt profile 相同：spring.threads.virtual.enabled=true）
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadLoadTest extends AbstractRequestLoadTest {
+}
@@ -0,0 +1,192 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.esun.ecommerce.config.InventoryProperties;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.repository.ProductJdbcRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 記憶體庫存預留（多執行緒搶購同一商品不會超賣）
+ */
+@SpringBootTest(properties = {
+        "ecommerce.inventory.reservation.enabled=true",
+        "ecommerce.inventory.reservation.flush-interval=10ms"
+})
+@ActiveProfiles("h2")
+class InventoryReservationServiceTest {
+
+    private static final int STOCK = 500;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+    }
+
+    @Test
+    void hotSkuNeverOversells() throws Exception {
+        insertProduct("HOT001", STOCK);
+        insertProduct("HOT002", STOCK);
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            InventoryReservationService.Reservation reservation =
+                                    inventoryReservationService.reserve(List.of(item("HOT001", 1), item("HOT002", 1)));
+                            // 每 10 筆模擬一筆訂單寫入失敗
+                            if (i % 10 == 9) {
+                                reservation.release();
+                            } else {
+                                reservation.confirm();
+                                reserved.incrementAndGet();
+                            }
+                        } catch (BusinessException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        inventoryReservationService.flush();
+
+        assertThat(reserved.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isPositive();
+        assertThat(quantityOf("HOT001")).isZero();
+        assertThat(quantityOf("HOT002")).isZero();
+        assertThat(inventoryReservationService.getAvailable("HOT001")).isZero();
+    }
+
+    @Test
+    void rejectsWholeOrderWhenAnyItemIsShort() {
+        insertProduct("SKU001", 10);
+        insertProduct("SKU002", 1);
+
+        assertThatThrownBy(() -> inventoryReservationService.reserve(List.of(item("SKU001", 5), item("SKU002", 2))))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INSUFFICIENT_STOCK");
+        inventoryReservationService.flush();
+
+        assertThat(inventoryReservationService.getAvailable("SKU001")).isEqualTo(10);
+        assertThat(inventoryReservationService.getAvailable("SKU002")).isEqualTo(1);
+        assertThat(quantityOf("SKU001")).isEqualTo(10);
+    }
+
+    @Test
+    void conflictKeepsDeficitAndSuspendsProductUntilRestocked() {
+        insertProduct("SKU003", 10);
+        InventoryReservationService service = unscheduledService();
+
+        InventoryReservationService.Reservation inFlight = service.reserve(List.of(item("SKU003", 2)));
+        service.reserve(List.of(item("SKU003", 6))).confirm();
+        // 其他路徑修改庫存，寫回時庫存不足
+        jdbcTemplate.update("UPDATE product SET quantity = 3 WHERE product_id = 'SKU003'");
+        service.flush();
+
+        assertThat(service.getDeficit("SKU003")).isEqualTo(6);
+        assertThat(quantityOf("SKU003")).isEqualTo(3);
+        assertThatThrownBy(() -> service.reserve(List.of(item("SKU003", 1))))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVENTORY_CONFLICT");
+
+        // 預留中的訂單仍依原計數器確認，計數器不被重新載入
+        inFlight.confirm();
+        assertThat(service.getAvailable("SKU003")).isEqualTo(2);
+
+        jdbcTemplate.update("UPDATE product SET quantity = 20 WHERE product_id = 'SKU003'");
+        service.flush();
+
+        assertThat(service.getDeficit("SKU003")).isNull();
+        assertThat(quantityOf("SKU003")).isEqualTo(12);
+        service.reserve(List.of(item("SKU003", 1))).confirm();
+    }
+
+    @Test
+    void shutdownFlushesConfirmedDecrements() {
+        insertProduct("SKU004", 10);
+        InventoryReservationService service = unscheduledService();
+
+        service.reserve(List.of(item("SKU004", 4))).confirm();
+        service.flushOnShutdown();
+
+        assertThat(quantityOf("SKU004")).isEqualTo(6);
+    }
+
+    // ========== 私有方法 ==========
+
+    /* 不定期寫回的實例（由測試控制 flush 時機） */
+    private InventoryReservationService unscheduledService() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.setEnabled(true);
+        return new InventoryReservationService(properties, productJdbcRepository, transactionManager,
+                event -> { }, new SimpleMeterRegistry());
+    }
+
+    private void insertProduct(String productId, int quantity) {
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES (?, ?, 100, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", productId, productId, quantity);
+    }
+
+    private int quantityOf(String productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private OrderItemRequest item(String productId, int quantity) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .price(BigDecimal.valueOf(100))
+                .build();
+    }
+}
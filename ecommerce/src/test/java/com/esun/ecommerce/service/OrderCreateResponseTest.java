@@ -0,0 +1,102 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.repository.OrderRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 建立訂單的回應直接由建立時已有的資料組成（與重新查詢訂單的結果相同）
+ */
+// 商品搜尋索引會在背景重新載入異動的商品，關閉以免計入查詢次數
+@SpringBootTest(properties = {
+        "ecommerce.order.persistence=jdbc-batch",
+        "ecommerce.product.search.enabled=false"
+})
+@ActiveProfiles("h2")
+class OrderCreateResponseTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '商品1', 1280.5, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P002', '商品2', 50, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P003', '商品3', 99.99, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void responseMatchesReloadedOrder() {
+        // 項目順序與商品編號順序不同（扣庫存時依商品編號排序，明細仍依項目順序）
+        OrderResponse created = orderService.createOrder(request(item("P003", 3, "99.99"), item("P001", 2, "1280.50"),
+                item("P002", 1, "50")));
+
+        OrderResponse reloaded = OrderResponse.fromEntity(orderRepository.findByIdWithDetails(created.getOrderId()));
+
+        // 逐欄位比對（BigDecimal 含小數位數）
+        assertThat(created).isEqualTo(reloaded);
+        assertThat(created.getTotalPrice()).isEqualTo(new BigDecimal("2910.97"));
+        assertThat(created.getItems()).extracting(OrderResponse.OrderDetailResponse::getProductId)
+                .containsExactly("P003", "P001", "P002");
+    }
+
+    @Test
+    void createDoesNotReloadOrder() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderService.createOrder(request(item("P001", 1, "1280.5"), item("P002", 1, "50")));
+
+        // 只有驗證商品的一次查詢，訂單與明細以 JDBC 寫入，之後不再查詢訂單
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // ========== 私有方法 ==========
+
+    private CreateOrderRequest request(OrderItemRequest... items) {
+        return CreateOrderRequest.builder()
+                .memberId("458")
+                .items(List.of(items))
+                .build();
+    }
+
+    private OrderItemRequest item(String productId, int quantity, String price) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .price(new BigDecimal(price))
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.exception.BusinessException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 訂單 Group Commit（合併提交、每筆訂單各自回報成功或失敗）
+ */
+@SpringBootTest(properties = {
+        "ecommerce.order.group-commit.enabled=true",
+        "ecommerce.order.group-commit.max-batch-size=20",
+        "ecommerce.order.group-commit.linger=20ms"
+})
+@ActiveProfiles("h2")
+class OrderGroupCommitterTest {
+
+    private static final int STOCK = 100;
+    private static final int REQUESTS = 200;
+    private static final int THREADS = 40;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '商品1', 100, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", STOCK);
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P002', '商品2', 50, 100000, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void concurrentOrdersAreBatchedWithoutOverselling() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        OrderResponse order = orderService.createOrder(request());
+                        assertThat(order.getItems()).hasSize(2);
+                        // 回應由提交後取得的明細流水號組成，與查詢的結果相同
+                        assertThat(order).isEqualTo(orderService.getOrderById(order.getOrderId()));
+                        created.incrementAndGet();
+                    } catch (BusinessException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(created.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(REQUESTS - STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `order`", Integer.class)).isEqualTo(STOCK);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_detail", Integer.class)).isEqualTo(STOCK * 2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT quantity FROM product WHERE product_id = 'P001'", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT quantity FROM product WHERE product_id = 'P002'", Integer.class)).isEqualTo(100000 - STOCK);
+
+        DistributionSummary batchSize = meterRegistry.get("order.group.commit.batch.size").summary();
+        assertThat(batchSize.max()).isGreaterThan(1);
+    }
+
+    // ========== 私有方法 ==========
+
+    private CreateOrderRequest request() {
+        return CreateOrderRequest.builder()
+                .memberId("458")
+                .items(List.of(
+                        OrderItemRequest.builder().productId("P002").quantity(1).price(BigDecimal.valueOf(50)).build(),
+                        OrderItemRequest.builder().productId("P001").quantity(1).price(BigDecimal.valueOf(100)).build()))
+                .build();
+    }
+}
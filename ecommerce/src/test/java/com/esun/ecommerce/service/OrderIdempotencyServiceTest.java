@@ -0,0 +1,216 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderResponse;
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * 建立訂單的 Idempotency-Key：相同 key 只建立一筆訂單
+ *
+ * 其他主機的登記以直接寫入 order_idempotency_key 模擬
+ */
+@SpringBootTest(properties = "ecommerce.order.persistence=jdbc-batch")
+@ActiveProfiles("h2")
+class OrderIdempotencyServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_idempotency_key");
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '商品1', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void retryReturnsFirstOrder() {
+        String key = UUID.randomUUID().toString();
+
+        OrderResponse first = orderService.createOrder(request(2), key);
+        OrderResponse retry = orderService.createOrder(request(2), key);
+
+        assertThat(retry.getOrderId()).isEqualTo(first.getOrderId());
+        assertThat(orderCount()).isEqualTo(1);
+        assertThat(quantityOf("P001")).isEqualTo(8);
+    }
+
+    @Test
+    void concurrentDuplicatesCreateOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<OrderResponse>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(request(1), key);
+                }));
+            }
+            start.countDown();
+
+            String orderId = results.get(0).get().getOrderId();
+            for (Future<OrderResponse> result : results) {
+                assertThat(result.get().getOrderId()).isEqualTo(orderId);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(orderCount()).isEqualTo(1);
+        assertThat(quantityOf("P001")).isEqualTo(9);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        orderService.createOrder(request(1), key);
+
+        assertThatThrownBy(() -> orderService.createOrder(request(3), key))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("IDEMPOTENCY_KEY_REUSED");
+        assertThat(orderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedRequestCanBeRetried() {
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.update("UPDATE product SET quantity = 0 WHERE product_id = 'P001'");
+
+        assertThatThrownBy(() -> orderService.createOrder(request(1), key))
+                .isInstanceOf(BusinessException.class);
+
+        jdbcTemplate.update("UPDATE product SET quantity = 10 WHERE product_id = 'P001'");
+        orderService.createOrder(request(1), key);
+
+        assertThat(orderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keyCompletedOnAnotherNodeIsReplayedFromDatabase() {
+        OrderResponse existing = orderService.createOrder(request(1));
+        String key = UUID.randomUUID().toString();
+        insertClaim(key, request(1), existing.getOrderId(), 1, LocalDateTime.now());
+
+        OrderResponse replayed = orderService.createOrder(request(1), key);
+
+        assertThat(replayed.getOrderId()).isEqualTo(existing.getOrderId());
+        assertThat(orderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void abandonedClaimIsTakenOverWithItsOrderId() {
+        String key = UUID.randomUUID().toString();
+        String orderId = "Ms0000000000000000042";
+        insertClaim(key, request(1), orderId, 0, LocalDateTime.now().minusMinutes(5));
+
+        OrderResponse created = orderService.createOrder(request(1), key);
+
+        assertThat(created.getOrderId()).isEqualTo(orderId);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM order_idempotency_key WHERE idempotency_key = ?", Integer.class, key))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void orderCreatedConcurrentlyWithSameIdIsReturnedInsteadOfReleasingKey() {
+        String key = UUID.randomUUID().toString();
+
+        // 接手的主機先以同一個編號建立訂單，本機寫入時主鍵重複
+        OrderResponse response = idempotencyService.createOrder(key, request(1), orderId -> {
+            insertOrder(orderId);
+            throw new DuplicateKeyException("Duplicate entry '" + orderId + "' for key 'order.PRIMARY'");
+        });
+
+        assertThat(orderCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT order_id FROM order_idempotency_key WHERE idempotency_key = ? AND status = 1",
+                String.class, key)).isEqualTo(response.getOrderId());
+    }
+
+    @Test
+    void heldClaimIsRefreshedSoItIsNotTakenOver() {
+        String key = UUID.randomUUID().toString();
+
+        idempotencyService.createOrder(key, request(1), orderId -> {
+            jdbcTemplate.update("UPDATE order_idempotency_key SET updated_at = ? WHERE idempotency_key = ?",
+                    LocalDateTime.now().minusMinutes(5), key);
+            idempotencyService.heartbeat();
+
+            LocalDateTime updatedAt = jdbcTemplate.queryForObject(
+                    "SELECT updated_at FROM order_idempotency_key WHERE idempotency_key = ?",
+                    LocalDateTime.class, key);
+            assertThat(updatedAt).isAfter(LocalDateTime.now().minusMinutes(1));
+            return orderService.createOrder(request(1));
+        });
+    }
+
+    // ========== 私有方法 ==========
+
+    private void insertOrder(String orderId) {
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES (?, '458', 100, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", orderId);
+    }
+
+    /* 模擬其他主機的登記 */
+    private void insertClaim(String key, CreateOrderRequest request, String orderId, int status,
+            LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO order_idempotency_key "
+                + "(idempotency_key, member_id, request_hash, order_id, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                key, request.getMemberId(), OrderIdempotencyService.requestHash(request), orderId, status,
+                updatedAt, updatedAt);
+    }
+
+    private int orderCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `order`", Integer.class);
+    }
+
+    private int quantityOf(String productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private CreateOrderRequest request(int quantity) {
+        return CreateOrderRequest.builder()
+                .memberId("458")
+                .items(List.of(OrderItemRequest.builder()
+                        .productId("P001")
+                        .quantity(quantity)
+                        .price(BigDecimal.valueOf(100))
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.OrderItemError;
+import com.esun.ecommerce.exception.OrderValidationException;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 訂單項目驗證（一次查詢所有商品，收集每個項目的錯誤）
+ */
+@SpringBootTest(properties = "ecommerce.product.search.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class OrderItemValidatorTest {
+
+    @Autowired
+    private OrderItemValidator orderItemValidator;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '保溫杯', 680, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P002', '蛋糕', 450, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void validItemsAreLoadedWithOneQuery() {
+        assertThat(orderItemValidator.validate(List.of(item("P001", 2, "680"), item("P002", 1, "450"))))
+                .containsOnlyKeys("P001", "P002");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void allItemErrorsAreCollectedWithOneQuery() {
+        List<OrderItemRequest> items = List.of(
+                item("P404", 1, "100"),
+                item("P002", 2, "450"),
+                item("P001", 1, "1"),
+                item("P001", 1, "680"));
+
+        assertThatThrownBy(() -> orderItemValidator.validate(items))
+                .isInstanceOfSatisfying(OrderValidationException.class, e -> {
+                    assertThat(e.getErrorCode()).isEqualTo("ORDER_VALIDATION_ERROR");
+                    assertThat(e.getErrors())
+                            .extracting(OrderItemError::getIndex, OrderItemError::getErrorCode)
+                            .containsExactly(
+                                    tuple(0, "PRODUCT_NOT_FOUND"),
+                                    tuple(1, "INSUFFICIENT_STOCK"),
+                                    tuple(2, "PRICE_MISMATCH"),
+                                    tuple(3, "DUPLICATE_PRODUCT"));
+                });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void missingProductReturns400() throws Exception {
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"memberId":"458","items":[{"productId":"P404","quantity":1,"price":100}]}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errorCode").value("ORDER_VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.data[0].productId").value("P404"))
+                .andExpect(jsonPath("$.data[0].errorCode").value("PRODUCT_NOT_FOUND"));
+    }
+
+    // ========== 私有方法 ==========
+
+    private OrderItemRequest item(String productId, int quantity, String price) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .price(new BigDecimal(price))
+                .build();
+    }
+}
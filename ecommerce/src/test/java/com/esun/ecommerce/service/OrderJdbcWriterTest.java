@@ -0,0 +1,97 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * JDBC 訂單寫入（一句多列條件式 UPDATE 扣庫存 + 批次新增明細）
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderJdbcWriterTest {
+
+    private static final String ORDER_ID = "Ms0000000000000000001";
+
+    @Autowired
+    private OrderJdbcWriter orderJdbcWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '商品1', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P002', '商品2', 50, 5, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void writesOrderAndDecrementsAllItems() {
+        transactionTemplate.executeWithoutResult(
+                status -> orderJdbcWriter.write(ORDER_ID, "458", List.of(item("P002", 2, 50), item("P001", 3, 100))));
+
+        assertThat(quantityOf("P001")).isEqualTo(7);
+        assertThat(quantityOf("P002")).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT total_price FROM `order` WHERE order_id = ?",
+                BigDecimal.class, ORDER_ID)).isEqualByComparingTo("400");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_detail WHERE order_id = ?",
+                Integer.class, ORDER_ID)).isEqualTo(2);
+    }
+
+    @Test
+    void shortItemRollsBackWholeOrder() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                status -> orderJdbcWriter.write(ORDER_ID, "458", List.of(item("P001", 3, 100), item("P002", 6, 50)))))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INSUFFICIENT_STOCK");
+
+        assertThat(quantityOf("P001")).isEqualTo(10);
+        assertThat(quantityOf("P002")).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `order`", Integer.class)).isZero();
+    }
+
+    @Test
+    void unknownProductIsReported() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                status -> orderJdbcWriter.write(ORDER_ID, "458", List.of(item("P001", 1, 100), item("P999", 1, 10)))))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("PRODUCT_NOT_FOUND");
+
+        assertThat(quantityOf("P001")).isEqualTo(10);
+    }
+
+    // ========== 私有方法 ==========
+
+    private int quantityOf(String productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private OrderItemRequest item(String productId, int quantity, int price) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .price(BigDecimal.valueOf(price))
+                .build();
+    }
+}
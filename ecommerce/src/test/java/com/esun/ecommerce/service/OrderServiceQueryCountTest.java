@@ -0,0 +1,105 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.dto.response.CursorPage;
+import com.esun.ecommerce.dto.response.OrderResponse;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 訂單查詢的 SQL 次數（不隨訂單數、明細數增加）
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderServiceQueryCountTest {
+
+    private static final String MEMBER_ID = "458";
+    private static final int ORDERS = 30;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+
+        for (int p = 1; p <= ITEMS_PER_ORDER; p++) {
+            jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                    + "VALUES (?, ?, 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", "P00" + p, "商品" + p);
+        }
+
+        LocalDateTime base = LocalDateTime.of(2025, 2, 6, 10, 0);
+        for (int o = 0; o < ORDERS; o++) {
+            String orderId = String.format("Ms%019d", o);
+            LocalDateTime createdAt = base.plusMinutes(o);
+            jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                    + "VALUES (?, ?, 300, 0, ?, ?)", orderId, MEMBER_ID, createdAt, createdAt);
+            for (int p = 1; p <= ITEMS_PER_ORDER; p++) {
+                jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                        + "VALUES (?, ?, 1, 100, 100, ?)", orderId, "P00" + p, createdAt);
+            }
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void memberOrderPageUsesTwoQueries() {
+        CursorPage<OrderResponse> page = orderService.getOrdersByMemberId(MEMBER_ID, null, 20);
+
+        assertThat(page.getItems()).hasSize(20);
+        assertThat(page.getItems()).allSatisfy(order -> assertThat(order.getItems())
+                .hasSize(ITEMS_PER_ORDER)
+                .allSatisfy(item -> assertThat(item.getProductName()).isNotNull()));
+        assertThat(page.getNextCursor()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void allOrdersPagesUseTwoQueriesEach() {
+        CursorPage<OrderResponse> first = orderService.getAllOrders(null, 20);
+        long afterFirst = statistics.getPrepareStatementCount();
+        CursorPage<OrderResponse> second = orderService.getAllOrders(first.getNextCursor(), 20);
+
+        assertThat(first.getItems()).hasSize(20);
+        assertThat(second.getItems()).hasSize(ORDERS - 20);
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getItems().get(0).getOrderId())
+                .isLessThan(first.getItems().get(19).getOrderId());
+        assertThat(afterFirst).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void orderByIdUsesSingleQuery() {
+        OrderResponse order = orderService.getOrderById(String.format("Ms%019d", 0));
+
+        assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER)
+                .allSatisfy(item -> assertThat(item.getProductName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.esun.ecommerce.dto.response.ProductImportError;
+import com.esun.ecommerce.dto.response.ProductImportResult;
+import com.esun.ecommerce.exception.BusinessException;
+import com.esun.ecommerce.util.XssSanitizer;
+
+/**
+ * 商品批次匯入（CSV / NDJSON，每列各自驗證，失敗的列不影響其他列）
+ */
+@SpringBootTest(properties = "ecommerce.product.import.commit-size=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES ('P001', '既有商品', 100, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    void csvImportsValidRowsAndReportsEachFailure() throws IOException {
+        String csv = "\uFEFFquantity,productId,productName,price\r\n"
+                + "5,P101,\"鍵盤, 藍軸\",1200.50\r\n"
+                + "1,P001,既有商品,100\r\n"
+                + "3,P102,滑鼠,abc\r\n"
+                + "\r\n"
+                + "-1,P103,螢幕,5000\r\n"
+                + "2,P101,重複列,10\r\n"
+                + "8,P104,\"喇叭 \"\"旗艦\"\"\",3000\r\n";
+
+        ProductImportResult result = productImportService.importProducts(ProductImportFormat.CSV, stream(csv));
+
+        assertThat(result.getTotalRows()).isEqualTo(6);
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getFailedRows()).isEqualTo(4);
+        assertThat(result.getErrors())
+                .extracting(ProductImportError::getRow, ProductImportError::getErrorCode)
+                .containsExactlyInAnyOrder(
+                        tuple(2L, "DUPLICATE_PRODUCT"),
+                        tuple(3L, "PARSE_ERROR"),
+                        tuple(4L, "VALIDATION_ERROR"),
+                        tuple(5L, "DUPLICATE_IN_FILE"));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT product_name FROM product WHERE product_id = 'P101'",
+                String.class)).isEqualTo("鍵盤, 藍軸");
+        assertThat(jdbcTemplate.queryForObject("SELECT product_name FROM product WHERE product_id = 'P104'",
+                String.class)).isEqualTo(XssSanitizer.sanitize("喇叭 \"旗艦\""));
+        assertThat(jdbcTemplate.queryForObject("SELECT product_name FROM product WHERE product_id = 'P001'",
+                String.class)).isEqualTo("既有商品");
+    }
+
+    @Test
+    void ndjsonImportsAcrossSeveralCommits() throws IOException {
+        String ndjson = IntStream.rangeClosed(200, 209)
+                .mapToObj(i -> String.format("{\"productId\":\"P%d\",\"productName\":\"商品%d\",\"price\":%d,\"quantity\":1}",
+                        i, i, i))
+                .collect(Collectors.joining("\n")) + "\n{\"productId\":\"P210\",";
+
+        ProductImportResult result = productImportService.importProducts(ProductImportFormat.NDJSON, stream(ndjson));
+
+        assertThat(result.getImportedRows()).isEqualTo(10);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getRow()).isEqualTo(11L);
+                    assertThat(error.getErrorCode()).isEqualTo("PARSE_ERROR");
+                });
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Integer.class)).isEqualTo(11);
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRejected() {
+        assertThatThrownBy(() -> productImportService.importProducts(ProductImportFormat.CSV,
+                stream("productId,productName\r\nP301,商品\r\n")))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_IMPORT_FILE");
+    }
+
+    @Test
+    void importEndpointAcceptsRawBodyAndUploadedFile() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv; charset=UTF-8")
+                        .content("productId,productName,price,quantity\nP401,商品,10,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.importedRows").value(1));
+
+        MockMultipartFile file = new MockMultipartFile("file", "products.ndjson", "application/octet-stream",
+                "{\"productId\":\"P402\",\"productName\":\"商品\",\"price\":10,\"quantity\":1}\n"
+                        .getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(multipart("/api/products/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.importedRows").value(1));
+    }
+
+    // ========== 私有方法 ==========
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
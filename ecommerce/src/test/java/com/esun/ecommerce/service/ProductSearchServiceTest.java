@@ -0,0 +1,143 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.esun.ecommerce.dto.response.ProductResponse;
+import com.esun.ecommerce.dto.response.ProductSearchResult;
+import com.esun.ecommerce.event.ProductChangedEvent;
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * 商品搜尋（中文 bigram、前綴比對、排序、篩選、分頁與異動後的索引更新）
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ProductSearchServiceTest {
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        insertProduct("P001", "草莓起司蛋糕", 450, 5);
+        insertProduct("P002", "巧克力蛋糕", 380, 0);
+        insertProduct("P003", "蛋糕刀", 120, 10);
+        insertProduct("P004", "Apple iPhone 15", 32900, 3);
+        insertProduct("P005", "ＡＰＰＬＥ 充電線", 590, 8);
+        productSearchService.rebuildIndex();
+    }
+
+    @Test
+    void cjkKeywordMatchesSubstringAndRanksByRelevance() {
+        ProductSearchResult result = search("蛋糕", false, null, null, null, null);
+
+        // 名稱以關鍵字開頭者最前，其次依名稱長度（越短越前）
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getItems()).extracting(ProductResponse::getProductId)
+                .containsExactly("P003", "P002", "P001");
+    }
+
+    @Test
+    void prefixAndSingleCharacterKeywordsMatch() {
+        assertThat(ids(search("iph", false, null, null, null, null))).containsExactly("P004");
+        assertThat(ids(search("起", false, null, null, null, null))).containsExactly("P001");
+        assertThat(ids(search("糕", false, null, null, null, null))).containsExactlyInAnyOrder("P001", "P002", "P003");
+        // 全形英文與大小寫視為相同
+        assertThat(ids(search("apple", false, null, null, null, null))).containsExactlyInAnyOrder("P004", "P005");
+        assertThat(search("蛋糕 刀叉", false, null, null, null, null).getTotal()).isZero();
+    }
+
+    @Test
+    void filtersAndPaginationApplyAfterMatching() {
+        assertThat(ids(search("蛋糕", true, null, new BigDecimal("400"), null, null))).containsExactly("P003");
+        assertThat(ids(search("蛋糕", false, new BigDecimal("380"), new BigDecimal("450"), null, null)))
+                .containsExactly("P002", "P001");
+
+        ProductSearchResult secondPage = search("蛋糕", false, null, null, 2, 2);
+        assertThat(secondPage.getTotal()).isEqualTo(3);
+        assertThat(ids(secondPage)).containsExactly("P001");
+    }
+
+    @Test
+    void indexFollowsProductChangesAfterCommit() throws Exception {
+        // 新增商品、扣庫存（H2 沒有 SP，直接寫入後發布與 ProductService 相同的事件）
+        insertProduct("P006", "蛋糕捲", 300, 2);
+        jdbcTemplate.update("UPDATE product SET quantity = 0 WHERE product_id = 'P003'");
+        jdbcTemplate.update("DELETE FROM product WHERE product_id = 'P002'");
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of("P006", "P003", "P002")));
+        productSearchService.awaitPendingChanges();
+
+        assertThat(ids(search("蛋糕", false, null, null, null, null))).containsExactly("P003", "P006", "P001");
+        assertThat(ids(search("蛋糕", true, null, null, null, null))).containsExactly("P006", "P001");
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        assertThatThrownBy(() -> search(" ", false, null, null, null, null))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_SEARCH_KEYWORD");
+        assertThatThrownBy(() -> search("蛋糕", false, new BigDecimal("500"), new BigDecimal("100"), null, null))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_PRICE_RANGE");
+        assertThatThrownBy(() -> search("蛋糕", false, null, null, 1, 1000))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_PAGE_SIZE");
+    }
+
+    @Test
+    void searchEndpointReturnsRankedPage() throws Exception {
+        mockMvc.perform(get("/api/products/search")
+                        .param("keyword", "蛋糕")
+                        .param("inStock", "true")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(2))
+                .andExpect(jsonPath("$.data.items[0].productId").value("P003"));
+    }
+
+    // ========== 私有方法 ==========
+
+    private ProductSearchResult search(String keyword, boolean inStock, BigDecimal minPrice, BigDecimal maxPrice,
+            Integer page, Integer size) {
+        return productSearchService.search(keyword, inStock, minPrice, maxPrice, page, size);
+    }
+
+    private List<String> ids(ProductSearchResult result) {
+        return result.getItems().stream().map(ProductResponse::getProductId).toList();
+    }
+
+    private void insertProduct(String productId, String productName, int price, int quantity) {
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", productId, productName, price, quantity);
+    }
+}
@@ -0,0 +1,213 @@
+package com.esun.ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.esun.ecommerce.config.SalesAnalyticsProperties;
+import com.esun.ecommerce.dto.request.CreateOrderRequest;
+import com.esun.ecommerce.dto.request.OrderItemRequest;
+import com.esun.ecommerce.dto.response.ProductSalesResponse;
+import com.esun.ecommerce.dto.response.SalesPeriodResponse;
+import com.esun.ecommerce.dto.response.SalesReconcileResult;
+import com.esun.ecommerce.exception.BusinessException;
+
+/**
+ * 銷售統計（從資料庫平行計算、建立訂單時逐筆加入、與重新計算的結果比對）
+ */
+// 每小時一個區段，讓測試資料分散在多個平行讀取的區段；測試會連續比對，不限制比對間隔
+@SpringBootTest(properties = {
+        "ecommerce.analytics.enabled=true",
+        "ecommerce.analytics.chunk-period=1h",
+        "ecommerce.analytics.reconcile-min-interval=0s",
+        "ecommerce.order.persistence=jdbc-batch",
+        "ecommerce.product.search.enabled=false"
+})
+@ActiveProfiles("h2")
+class SalesAnalyticsServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 2, 6, 10, 15);
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private SalesAnalyticsProperties salesAnalyticsProperties;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        jdbcTemplate.update("DELETE FROM order_detail");
+        jdbcTemplate.update("DELETE FROM `order`");
+        jdbcTemplate.update("DELETE FROM product");
+        insertProduct("P001", 100);
+        insertProduct("P002", 50);
+
+        // 2/6 10 點 2 筆、11 點 1 筆，2/7 1 筆
+        insertOrder("Ms0000000000000000001", "458", BASE, item("P001", 2, "100"), item("P002", 1, "50"));
+        insertOrder("Ms0000000000000000002", "458", BASE.plusMinutes(30), item("P002", 4, "50"));
+        insertOrder("Ms0000000000000000003", "459", BASE.plusHours(1), item("P001", 1, "100"));
+        insertOrder("Ms0000000000000000004", "459", BASE.plusDays(1), item("P001", 3, "100"));
+        salesAnalyticsService.rebuild();
+    }
+
+    @Test
+    void rollupsMatchOrdersInDatabase() {
+        List<SalesPeriodResponse> daily = salesAnalyticsService.getRevenue("day",
+                LocalDate.of(2025, 2, 5), LocalDate.of(2025, 2, 7));
+        assertThat(daily).extracting(SalesPeriodResponse::getOrders).containsExactly(0L, 3L, 1L);
+        assertThat(daily).extracting(SalesPeriodResponse::getUnits).containsExactly(0L, 8L, 3L);
+        assertThat(daily.get(1).getRevenue()).isEqualByComparingTo("550");
+
+        List<SalesPeriodResponse> hourly = salesAnalyticsService.getRevenue("hour",
+                LocalDate.of(2025, 2, 6), LocalDate.of(2025, 2, 6));
+        assertThat(hourly).hasSize(24);
+        assertThat(hourly.get(10).getOrders()).isEqualTo(2);
+        assertThat(hourly.get(10).getRevenue()).isEqualByComparingTo("450");
+        assertThat(hourly.get(11).getRevenue()).isEqualByComparingTo("100");
+
+        assertThat(salesAnalyticsService.getTopProducts("units", 1))
+                .extracting(ProductSalesResponse::getProductId, ProductSalesResponse::getUnits)
+                .containsExactly(tuple("P001", 6L));
+        assertThat(salesAnalyticsService.getTopProducts("revenue", 2))
+                .extracting(ProductSalesResponse::getProductId)
+                .containsExactly("P001", "P002");
+        assertThat(salesAnalyticsService.getMemberSales("459").getOrders()).isEqualTo(2);
+        assertThat(salesAnalyticsService.getMemberSales("459").getRevenue()).isEqualByComparingTo("400");
+    }
+
+    @Test
+    void createdOrdersAreAddedAndReconcile() throws Exception {
+        orderService.createOrder(request("458", item("P001", 2, "100")));
+        orderService.createOrder(request("460", item("P001", 1, "100"), item("P002", 1, "50")));
+        salesAnalyticsService.awaitPendingOrders();
+
+        ProductSalesResponse product = salesAnalyticsService.getProductSales("P001");
+        assertThat(product.getUnits()).isEqualTo(9);
+        assertThat(product.getRevenue()).isEqualByComparingTo("900");
+        assertThat(salesAnalyticsService.getMemberSales("460").getOrders()).isEqualTo(1);
+        assertThat(salesAnalyticsService.getRevenue("day", LocalDate.now(), LocalDate.now()).get(0).getOrders())
+                .isEqualTo(2);
+
+        // 逐筆加入的結果與重新計算一致
+        SalesReconcileResult result = salesAnalyticsService.reconcile();
+        assertThat(result.isConsistent()).isTrue();
+        assertThat(result.getOrders()).isEqualTo(6);
+    }
+
+    @Test
+    void reconcileReportsAndRepairsOrdersCreatedElsewhere() {
+        // 其他主機建立的訂單（不經過本機的 OrderService）
+        insertOrder("Ms0000000000000000005", "461", BASE.plusMinutes(5), item("P002", 2, "50"));
+
+        SalesReconcileResult result = salesAnalyticsService.reconcile();
+
+        // 2/6、2/6 10 點、P002、會員 461 不一致
+        assertThat(result.isConsistent()).isFalse();
+        assertThat(result.getDifferenceCount()).isEqualTo(4);
+        assertThat(result.getDifferences())
+                .filteredOn(difference -> difference.getDimension().equals("product"))
+                .singleElement()
+                .satisfies(difference -> {
+                    assertThat(difference.getKey()).isEqualTo("P002");
+                    assertThat(difference.getExpectedUnits()).isEqualTo(7);
+                    assertThat(difference.getActualUnits()).isEqualTo(5);
+                });
+        assertThat(salesAnalyticsService.getMemberSales("461").getOrders()).isEqualTo(1);
+        assertThat(salesAnalyticsService.reconcile().isConsistent()).isTrue();
+    }
+
+    @Test
+    void reconcileIsRateLimited() {
+        salesAnalyticsService.reconcile();
+        salesAnalyticsProperties.setReconcileMinInterval(Duration.ofHours(1));
+        try {
+            assertThatThrownBy(() -> salesAnalyticsService.reconcile())
+                    .isInstanceOf(BusinessException.class)
+                    .extracting("errorCode").isEqualTo("ANALYTICS_RECONCILE_TOO_FREQUENT");
+        } finally {
+            salesAnalyticsProperties.setReconcileMinInterval(Duration.ZERO);
+        }
+    }
+
+    @Test
+    void failedReconcileCanBeRetried() {
+        int parallelism = salesAnalyticsProperties.getParallelism();
+        try {
+            // 平行讀取的執行緒數為 0 時無法建立執行緒池，模擬計算失敗
+            salesAnalyticsProperties.setParallelism(0);
+            assertThatThrownBy(() -> salesAnalyticsService.reconcile())
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            salesAnalyticsProperties.setParallelism(parallelism);
+            salesAnalyticsProperties.setReconcileMinInterval(Duration.ofHours(1));
+            assertThat(salesAnalyticsService.reconcile().isConsistent()).isTrue();
+        } finally {
+            salesAnalyticsProperties.setParallelism(parallelism);
+            salesAnalyticsProperties.setReconcileMinInterval(Duration.ZERO);
+        }
+    }
+
+    @Test
+    void invalidRangeIsRejected() {
+        assertThatThrownBy(() -> salesAnalyticsService.getRevenue("hour",
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 1)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("查詢期間");
+        assertThatThrownBy(() -> salesAnalyticsService.getRevenue("week", null, null))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    // ========== 私有方法 ==========
+
+    private void insertProduct(String productId, int price) {
+        jdbcTemplate.update("INSERT INTO product (product_id, product_name, price, quantity, created_at, updated_at) "
+                + "VALUES (?, '商品', ?, 100, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", productId, price);
+    }
+
+    private void insertOrder(String orderId, String memberId, LocalDateTime createdAt, OrderItemRequest... items) {
+        BigDecimal total = List.of(items).stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        jdbcTemplate.update("INSERT INTO `order` (order_id, member_id, total_price, pay_status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, 0, ?, ?)", orderId, memberId, total, createdAt, createdAt);
+        for (OrderItemRequest item : items) {
+            jdbcTemplate.update("INSERT INTO order_detail (order_id, product_id, quantity, stand_price, item_price, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", orderId, item.getProductId(), item.getQuantity(), item.getPrice(),
+                    item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())), createdAt);
+        }
+    }
+
+    private CreateOrderRequest request(String memberId, OrderItemRequest... items) {
+        return CreateOrderRequest.builder()
+                .memberId(memberId)
+                .items(List.of(items))
+                .build();
+    }
+
+    private OrderItemRequest item(String productId, int quantity, String price) {
+        return OrderItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .price(new BigDecimal(price))
+                .build();
+    }
+}
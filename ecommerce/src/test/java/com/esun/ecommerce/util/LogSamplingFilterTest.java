@@ -0,0 +1,100 @@
+package com.esun.ecommerce.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+class LogSamplingFilterTest {
+
+    private static final int REQUESTS = 100_000;
+
+    private final LoggerContext context = new LoggerContext();
+    private final LogSamplingFilter filter = new LogSamplingFilter();
+
+    private Logger controllerLog;
+    private Logger serviceLog;
+
+    @BeforeEach
+    void setUp() {
+        filter.setContext(context);
+        filter.addLoggerPrefix("com.esun.ecommerce.controller.OrderController");
+        filter.addLoggerPrefix("com.esun.ecommerce.service.OrderService");
+        filter.start();
+
+        controllerLog = context.getLogger("com.esun.ecommerce.controller.OrderController");
+        serviceLog = context.getLogger("com.esun.ecommerce.service.OrderService");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void requestsAreSampledAtConfiguredRateAndKeepAllOrNoneOfTheirLogs() throws Exception {
+        LogSamplingRequestFilter requestFilter = new LogSamplingRequestFilter(10);
+        List<FilterReply> first = new ArrayList<>();
+        List<FilterReply> rest = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            requestFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+                first.add(decide(controllerLog, Level.INFO));
+                rest.add(decide(serviceLog, Level.INFO));
+                rest.add(decide(serviceLog, Level.DEBUG));
+            });
+        }
+
+        // 期望約 10% 的請求被取樣，同一個請求的日誌判斷結果相同
+        long kept = first.stream().filter(reply -> reply == FilterReply.NEUTRAL).count();
+        assertThat(kept).isBetween((long) REQUESTS / 10 - REQUESTS / 50, (long) REQUESTS / 10 + REQUESTS / 50);
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(rest.get(i * 2)).isEqualTo(first.get(i));
+            assertThat(rest.get(i * 2 + 1)).isEqualTo(first.get(i));
+        }
+        assertThat(MDC.get(LogSamplingFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void warnAndErrorAreAlwaysKept() {
+        MDC.put(LogSamplingFilter.MDC_KEY, "false");
+
+        assertThat(decide(serviceLog, Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(serviceLog, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(serviceLog, Level.ERROR)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void otherLoggersAndLogsOutsideRequestsAreNotSampled() {
+        MDC.put(LogSamplingFilter.MDC_KEY, "false");
+        assertThat(decide(context.getLogger("com.esun.ecommerce.service.SalesAnalyticsService"), Level.INFO))
+                .isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(context.getLogger("com.esun.ecommerce.cache.ProductCatalogCache"), Level.INFO))
+                .isEqualTo(FilterReply.NEUTRAL);
+
+        MDC.clear();
+        assertThat(decide(serviceLog, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void rateOfOneKeepsEveryRequest() throws Exception {
+        new LogSamplingRequestFilter(1).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> assertThat(MDC.get(LogSamplingFilter.MDC_KEY)).isNull());
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "訊息", null, null);
+    }
+}
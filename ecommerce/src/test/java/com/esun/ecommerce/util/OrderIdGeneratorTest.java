@@ -0,0 +1,108 @@
+package com.esun.ecommerce.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class OrderIdGeneratorTest {
+
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int IDS_PER_THREAD = 250_000;
+
+    @Test
+    void concurrentIdsAcrossThreadsAndNodesAreUnique() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        try {
+            for (int node = 0; node < NODES; node++) {
+                OrderIdGenerator generator = new OrderIdGenerator(node, System::currentTimeMillis);
+                for (int t = 0; t < THREADS_PER_NODE; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        long[] ids = new long[IDS_PER_THREAD];
+                        for (int i = 0; i < ids.length; i++) {
+                            ids[i] = generator.nextLongId();
+                        }
+                        return ids;
+                    }));
+                }
+            }
+            start.countDown();
+
+            long[] all = new long[NODES * THREADS_PER_NODE * IDS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                // 同一執行緒取得的編號必須嚴格遞增
+                for (int i = 1; i < ids.length; i++) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertThat(all[i]).as("重複的訂單編號").isNotEqualTo(all[i - 1]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void clockRollbackStillProducesIncreasingIds() {
+        AtomicLong clock = new AtomicLong(OrderIdGenerator.EPOCH + 1_000_000);
+        OrderIdGenerator generator = new OrderIdGenerator(1, clock::get);
+
+        long before = generator.nextLongId();
+        clock.addAndGet(-60_000);  // 時鐘回撥一分鐘
+        long after = generator.nextLongId();
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    void sequenceOverflowBorrowsNextMillisecond() {
+        OrderIdGenerator generator = new OrderIdGenerator(1, () -> OrderIdGenerator.EPOCH + 1_000);
+
+        long previous = generator.nextLongId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextLongId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void formattedIdKeepsPrefixFitsColumnAndSortsInOrder() {
+        OrderIdGenerator generator = new OrderIdGenerator(7, System::currentTimeMillis);
+
+        String first = generator.nextId();
+        String second = generator.nextId();
+
+        assertThat(first).startsWith(OrderIdGenerator.PREFIX).hasSize(21);
+        assertThat(first.length()).isLessThanOrEqualTo(50);
+        assertThat(second).isGreaterThan(first);
+        assertThat(OrderIdGenerator.format(42L)).isEqualTo("Ms0000000000000000042");
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID + 1, System::currentTimeMillis))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
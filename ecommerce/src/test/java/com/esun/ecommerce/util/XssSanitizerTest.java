@@ -0,0 +1,65 @@
+package com.esun.ecommerce.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.owasp.html.HtmlPolicyBuilder;
+import org.owasp.html.PolicyFactory;
+
+/**
+ * XSS 清理的快速路徑（判定為安全的字串必須與 OWASP Sanitizer 的結果完全相同）
+ */
+class XssSanitizerTest {
+
+    private static final PolicyFactory POLICY = new HtmlPolicyBuilder().toFactory();
+
+    @Test
+    void everySafeCharacterIsLeftUnchangedBySanitizer() {
+        for (char c = 0; c < Character.MAX_VALUE; c++) {
+            for (String value : new String[] { String.valueOf(c), "a" + c + "b", "" + c + c }) {
+                if (XssSanitizer.isSafe(value)) {
+                    assertThat(POLICY.sanitize(value)).as("U+%04X", (int) c).isEqualTo(value);
+                }
+            }
+        }
+    }
+
+    @Test
+    void randomSafeStringsAreLeftUnchangedBySanitizer() {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder builder = new StringBuilder();
+        for (int n = 0; n < 20_000; n++) {
+            builder.setLength(0);
+            int length = random.nextInt(1, 40);
+            while (builder.length() < length) {
+                // 偏重 ASCII，混入中文等 BMP 字元；只取單獨判定為安全的字元，檢查組合後是否仍不被改寫
+                char c = random.nextInt(4) == 0 ? (char) random.nextInt(0x80, 0xFE60) : (char) random.nextInt(0x80);
+                if (XssSanitizer.isSafe(String.valueOf(c))) {
+                    builder.append(c);
+                }
+            }
+            String value = builder.toString();
+            assertThat(XssSanitizer.isSafe(value)).isTrue();
+            assertThat(POLICY.sanitize(value)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void safeValuesAreReturnedAsIs() {
+        for (String value : new String[] { "P001", "application/json", "gzip, deflate, br", "商品名稱 測試" }) {
+            assertThat(XssSanitizer.sanitize(value)).isSameAs(value);
+            assertThat(XssSanitizer.sanitizeHeader(value)).isSameAs(value);
+        }
+    }
+
+    @Test
+    void markupIsStillSanitized() {
+        String script = "<script>alert(1)</script>商品";
+
+        assertThat(XssSanitizer.sanitize(script)).isEqualTo(POLICY.sanitize(script)).doesNotContain("<script>");
+        assertThat(XssSanitizer.sanitizeHeader("zh-TW,zh;q=0.9")).isEqualTo(POLICY.sanitize("zh-TW,zh;q=0.9"));
+        assertThat(XssSanitizer.sanitize("商品，特價")).isEqualTo(POLICY.sanitize("商品，特價"));
+    }
+}